@@ -0,0 +1,118 @@
+package com.estapar.parking.benchmark;
+
+import com.estapar.parking.ParkingManagementApplication;
+import com.estapar.parking.repository.VehicleRepository;
+import com.estapar.parking.service.ActiveVehicleRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca do veículo ativo por placa (executada em toda ENTRY e EXIT) sobre
+ * um histórico de 1 milhão de veículos que já saíram, no H2 do perfil de teste.
+ *
+ * indexed=false remove o índice idx_vehicles_plate_status, reproduzindo o
+ * esquema anterior (varredura da tabela a cada busca). registryFind mede
+ * a mesma busca no registro em memória usado pelo ParkingService.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ActiveVehicleLookupBenchmark {
+
+    private static final int HISTORY = 1_000_000;
+    private static final int PLATES = 100_000;
+    private static final int ACTIVE = 1_000;
+    private static final int SPOTS = ACTIVE;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private VehicleRepository vehicleRepository;
+    private ActiveVehicleRegistry activeVehicles;
+    private final String[] activePlates = new String[ACTIVE];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ParkingManagementApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("test")
+            .properties(
+                "simulator.url=http://localhost:1",
+                "parking.queue.consumers=1",
+                "logging.level.com.estapar.parking=WARN")
+            .run();
+
+        var jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO sectors (id, name, base_price, max_capacity) VALUES (1, 'A', 40.50, ?)", SPOTS);
+        var spots = new ArrayList<Object[]>(SPOTS);
+        for (long id = 1; id <= SPOTS; id++) {
+            spots.add(new Object[] { id, id <= ACTIVE });
+        }
+        jdbc.batchUpdate("INSERT INTO parking_spots (id, latitude, longitude, occupied, active, sector_id) "
+            + "VALUES (?, -23.55, -46.63, ?, true, 1)", spots);
+
+        // Histórico: cada placa com 10 passagens encerradas; as ACTIVE primeiras placas estão no estacionamento
+        var entry = LocalDateTime.of(2024, 1, 1, 10, 0);
+        String insert = "INSERT INTO vehicles (id, license_plate, entry_time, exit_time, parking_spot_id, total_amount, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int id = 1; id <= HISTORY + ACTIVE; id++) {
+            boolean active = id > HISTORY;
+            int plate = active ? id - HISTORY - 1 : (id - 1) % PLATES;
+            var time = entry.plusMinutes(id);
+            batch.add(new Object[] {
+                id, plate(plate), Timestamp.valueOf(time), active ? null : Timestamp.valueOf(time.plusHours(2)),
+                (long) (plate % SPOTS) + 1, active ? null : 81.0, active ? "PARKED" : "EXITED" });
+            if (batch.size() == 10_000) {
+                jdbc.batchUpdate(insert, batch);
+                batch.clear();
+            }
+        }
+        jdbc.batchUpdate(insert, batch);
+
+        if (!indexed) {
+            jdbc.execute("DROP INDEX idx_vehicles_plate_status");
+        }
+        jdbc.execute("ANALYZE");
+        vehicleRepository = context.getBean(VehicleRepository.class);
+        activeVehicles = context.getBean(ActiveVehicleRegistry.class);
+        activeVehicles.rebuild(vehicleRepository.findAllActive());
+        for (int i = 0; i < ACTIVE; i++) {
+            activePlates[i] = plate(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<?> findActiveByLicensePlate() {
+        return vehicleRepository.findActiveByLicensePlate(activePlates[next++ % ACTIVE]);
+    }
+
+    @Benchmark
+    public Object registryFind() {
+        return activeVehicles.find(activePlates[next++ % ACTIVE]);
+    }
+
+    private static String plate(int n) {
+        return String.format("HIS%05d", n);
+    }
+}
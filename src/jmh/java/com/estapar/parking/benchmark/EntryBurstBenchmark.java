@@ -0,0 +1,108 @@
+package com.estapar.parking.benchmark;
+
+import com.estapar.parking.ParkingManagementApplication;
+import com.estapar.parking.entity.ParkingSpot;
+import com.estapar.parking.entity.Sector;
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.service.GarageService;
+import com.estapar.parking.service.ParkingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rajada de eventos ENTRY aplicada em uma transação, como um micro-lote da
+ * fila, contra o H2 do perfil de teste. O resultado é em entradas/s.
+ *
+ * idGeneration=identity reproduz a configuração anterior (ids IDENTITY,
+ * sem order_inserts); idGeneration=sequence usa a configuração atual
+ * (sequência pooled, INSERTs em lote).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(EntryBurstBenchmark.BURST)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntryBurstBenchmark {
+
+    static final int BURST = 50;
+    private static final int SPOTS = 1_000;
+
+    @Param({"identity", "sequence"})
+    public String idGeneration;
+
+    private ConfigurableApplicationContext context;
+    private ParkingService parkingService;
+    private TransactionTemplate transactionTemplate;
+    private final List<String> plates = new ArrayList<>(BURST);
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var properties = new ArrayList<>(List.of(
+            "simulator.url=http://localhost:1",
+            "parking.queue.consumers=1",
+            "logging.level.com.estapar.parking=WARN"));
+        if ("identity".equals(idGeneration)) {
+            properties.add("spring.jpa.mapping-resources=META-INF/orm-identity-ids.xml");
+            properties.add("spring.jpa.properties.hibernate.order_inserts=false");
+        }
+        context = new SpringApplicationBuilder(ParkingManagementApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("test")
+            .properties(properties.toArray(String[]::new))
+            .run();
+
+        var sector = context.getBean(SectorRepository.class)
+            .save(new Sector("A", new BigDecimal("40.50"), SPOTS));
+        var spots = new ArrayList<ParkingSpot>(SPOTS);
+        for (long id = 1; id <= SPOTS; id++) {
+            spots.add(new ParkingSpot(id, new BigDecimal("-23.5505"), new BigDecimal("-46.6333"), sector));
+        }
+        context.getBean(ParkingSpotRepository.class).saveAll(spots);
+
+        var garageService = context.getBean(GarageService.class);
+        garageService.rebuildSpotIndex();
+        garageService.rebuildOccupancy();
+        parkingService = context.getBean(ParkingService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextPlates() {
+        plates.clear();
+        for (int i = 0; i < BURST; i++) {
+            plates.add(String.format("BUR%07d", next++));
+        }
+    }
+
+    /**
+     * Libera as vagas da rajada, fora da medição.
+     */
+    @TearDown(Level.Invocation)
+    public void exitAll() {
+        transactionTemplate.executeWithoutResult(status ->
+            plates.forEach(plate -> parkingService.handleExit(plate, "2025-01-20T12:30:00")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entryBurst() {
+        transactionTemplate.executeWithoutResult(status ->
+            plates.forEach(plate -> parkingService.handleEntry(plate, "2025-01-20T10:00:00")));
+    }
+}
@@ -0,0 +1,120 @@
+package com.estapar.parking.benchmark;
+
+import com.estapar.parking.dto.WebhookEvent;
+import com.estapar.parking.service.EventQueueService;
+import com.estapar.parking.service.ParkingService;
+import com.estapar.parking.service.ServiceFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fila de eventos: custo do enqueue no thread HTTP e vazão ponta a ponta
+ * (enqueue até o consumo), isolando o overhead da fila, das partições, do
+ * tipo de thread e da espera do consumidor.
+ *
+ * O ParkingService não faz I/O; com blockingMicros > 0 ele bloqueia por esse
+ * tempo a cada evento, representando a ida e volta do JDBC. Compare
+ * platform e virtual com o mesmo número de partições.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class EventQueueBenchmark {
+
+    private static final int EVENTS = 1_000;
+
+    @Param({"1", "4", "16"})
+    public int consumers;
+
+    @Param({"platform", "virtual"})
+    public String threadMode;
+
+    @Param({"blocking", "busy-spin"})
+    public String waitStrategy;
+
+    @Param({"0", "2000"})
+    public long blockingMicros;
+
+    private EventQueueService queue;
+    private WebhookEvent[] events;
+
+    @Setup
+    public void setUp() {
+        queue = ServiceFixtures.eventQueue(new NoOpParkingService(blockingMicros * 1_000))
+            .consumers(consumers)
+            .capacity(EVENTS * 2)
+            .threadMode(threadMode)
+            .waitStrategy(waitStrategy)
+            .build();
+        events = new WebhookEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            var event = new WebhookEvent();
+            event.setEventType("ENTRY");
+            event.setLicensePlate(String.format("BEN%04d", i));
+            event.setEntryTime("2025-01-20T10:00:00");
+            events[i] = event;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        queue.shutdown();
+    }
+
+    /**
+     * Enfileira um bloco de eventos e aguarda que todos sejam consumidos.
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long enqueueAndConsume() {
+        long target = queue.getProcessedCount() + EVENTS;
+        for (WebhookEvent event : events) {
+            while (!queue.enqueue(event)) {
+                Thread.onSpinWait();
+            }
+        }
+        while (queue.getProcessedCount() < target) {
+            Thread.onSpinWait();
+        }
+        return target;
+    }
+
+    /**
+     * ParkingService sem repositórios: apenas consome o evento, bloqueando
+     * pelo tempo informado.
+     */
+    static final class NoOpParkingService extends ParkingService {
+
+        private final long blockingNanos;
+
+        NoOpParkingService(long blockingNanos) {
+            super(null, null, null, null, null, null, null, null);
+            this.blockingNanos = blockingNanos;
+        }
+
+        @Override
+        public void handleEntry(String licensePlate, String entryTime) {
+            block();
+        }
+
+        @Override
+        public void handleParked(String licensePlate, Double lat, Double lng) {
+            block();
+        }
+
+        @Override
+        public void handleExit(String licensePlate, String exitTime) {
+            block();
+        }
+
+        private void block() {
+            if (blockingNanos > 0) {
+                LockSupport.parkNanos(blockingNanos);
+            }
+        }
+    }
+}
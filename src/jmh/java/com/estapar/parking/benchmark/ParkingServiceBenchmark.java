@@ -0,0 +1,78 @@
+package com.estapar.parking.benchmark;
+
+import com.estapar.parking.ParkingManagementApplication;
+import com.estapar.parking.entity.ParkingSpot;
+import com.estapar.parking.entity.Sector;
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.service.GarageService;
+import com.estapar.parking.service.ParkingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entrada e saída de veículos contra o H2 do perfil de teste, com o
+ * contexto Spring completo (transações, repositórios, índice de vagas).
+ *
+ * Cada operação é um par ENTRY + EXIT da mesma placa, para que a
+ * garagem não lote durante a medição.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParkingServiceBenchmark {
+
+    private static final int SPOTS = 1_000;
+    private static final int PLATES = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private ParkingService parkingService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ParkingManagementApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("test")
+            .properties(
+                "simulator.url=http://localhost:1",
+                "parking.queue.consumers=1",
+                "parking.queue.batch-size=1",
+                "logging.level.com.estapar.parking=WARN")
+            .run();
+
+        var sector = context.getBean(SectorRepository.class)
+            .save(new Sector("A", new BigDecimal("40.50"), SPOTS));
+        var spots = new ArrayList<ParkingSpot>(SPOTS);
+        for (long id = 1; id <= SPOTS; id++) {
+            spots.add(new ParkingSpot(id, new BigDecimal("-23.5505"), new BigDecimal("-46.6333"), sector));
+        }
+        context.getBean(ParkingSpotRepository.class).saveAll(spots);
+
+        var garageService = context.getBean(GarageService.class);
+        garageService.rebuildSpotIndex();
+        garageService.rebuildOccupancy();
+        parkingService = context.getBean(ParkingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entryAndExit() {
+        String plate = String.format("BEN%04d", next++ % PLATES);
+        parkingService.handleEntry(plate, "2025-01-20T10:00:00");
+        parkingService.handleExit(plate, "2025-01-20T12:30:00");
+    }
+}
@@ -0,0 +1,44 @@
+package com.estapar.parking.benchmark;
+
+import com.estapar.parking.service.PricingService;
+import com.estapar.parking.service.ServiceFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de preço na saída: tolerância, primeira hora dinâmica e horas adicionais.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2025, 1, 20, 10, 0);
+
+    @Param({"20", "150", "1440"})
+    public long stayMinutes;
+
+    @Param({"10.0", "60.0", "95.0"})
+    public double occupancy;
+
+    private PricingService pricingService;
+    private LocalDateTime exit;
+    private BigDecimal basePrice;
+
+    @Setup
+    public void setUp() {
+        pricingService = ServiceFixtures.pricingService();
+        exit = ENTRY.plusMinutes(stayMinutes);
+        basePrice = new BigDecimal("40.50");
+    }
+
+    @Benchmark
+    public BigDecimal calculatePrice() {
+        return pricingService.calculatePrice(ENTRY, exit, occupancy, basePrice);
+    }
+}
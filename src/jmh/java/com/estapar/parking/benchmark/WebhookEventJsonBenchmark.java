@@ -0,0 +1,61 @@
+package com.estapar.parking.benchmark;
+
+import com.estapar.parking.dto.WebhookEvent;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Desserialização do payload do webhook: evento individual e lote NDJSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class WebhookEventJsonBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String EVENT = """
+        {"license_plate":"ABC1234","entry_time":"2025-01-20T10:00:00","event_type":"ENTRY"}""";
+
+    private ObjectMapper objectMapper;
+    private ObjectReader reader;
+    private byte[] single;
+    private byte[] batch;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        reader = objectMapper.readerFor(WebhookEvent.class);
+        single = EVENT.getBytes(StandardCharsets.UTF_8);
+        batch = (EVENT + "\n").repeat(BATCH_SIZE).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public WebhookEvent readValueObjectMapper() throws IOException {
+        return objectMapper.readValue(single, WebhookEvent.class);
+    }
+
+    @Benchmark
+    public WebhookEvent readValueObjectReader() throws IOException {
+        return reader.readValue(single);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void readNdjsonBatch(Blackhole blackhole) throws IOException {
+        try (MappingIterator<WebhookEvent> events = reader.readValues(batch)) {
+            while (events.hasNextValue()) {
+                blackhole.consume(events.nextValue());
+            }
+        }
+    }
+}
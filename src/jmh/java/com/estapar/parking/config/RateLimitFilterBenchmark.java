@@ -0,0 +1,43 @@
+package com.estapar.parking.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificação do rate limit por IP sob contenção: 8 threads consultando
+ * um conjunto pequeno de IPs (mesmas chaves disputadas) ou grande.
+ *
+ * Fica no pacote do filtro para acessar isRateLimited diretamente, sem
+ * a pilha de servlets.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitFilterBenchmark {
+
+    @Param({"8", "10000"})
+    public int distinctClients;
+
+    private RateLimitFilter filter;
+    private String[] clients;
+
+    @Setup
+    public void setUp() {
+        filter = new RateLimitFilter("5/10s", "", 100_000, "", "");
+        clients = new String[distinctClients];
+        for (int i = 0; i < distinctClients; i++) {
+            clients[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public boolean isRateLimited() {
+        String client = clients[ThreadLocalRandom.current().nextInt(clients.length)];
+        return filter.isRateLimited(client, System.currentTimeMillis());
+    }
+}
@@ -3,6 +3,7 @@ package com.estapar.parking.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -11,12 +12,16 @@ import org.springframework.web.client.RestTemplate;
  * Esta classe define beans de configuração necessários para o funcionamento
  * da aplicação, incluindo clientes HTTP e outras dependências compartilhadas.
  * 
+ * Habilita também o agendamento de tarefas (@Scheduled), utilizado para
+ * conferências periódicas do estado mantido em memória.
+ * 
  * @author Sistema de Estacionamento
  * @version 1.0
  * @since 1.0
  */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AppConfig {
     
     /**
@@ -30,7 +35,8 @@ public class AppConfig {
      * 
      * @example
      * Uso no GarageService:
-     * GarageConfig config = restTemplate.getForObject(simulatorUrl + "/garage", GarageConfig.class);
+     * restTemplate.execute(simulatorUrl + "/garage", HttpMethod.GET, null,
+     *     response -> garageLoader.load(response.getBody()));
      * 
      * @see org.springframework.web.client.RestTemplate
      * @see com.estapar.parking.service.GarageService#loadGarageData()
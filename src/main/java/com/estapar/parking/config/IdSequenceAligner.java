@@ -0,0 +1,82 @@
+package com.estapar.parking.config;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Alinha as sequências emuladas por tabela aos ids já existentes.
+ *
+ * No MySQL as sequências de vehicles e sectors são tabelas (next_val)
+ * criadas com valor inicial 1. Em bancos que já tinham registros gerados
+ * por IDENTITY, os primeiros ids da sequência colidiriam com os
+ * existentes; por isso, na inicialização, next_val é avançado para além
+ * do maior id de cada tabela. Com sequências nativas (H2) nada é feito.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.entity.Vehicle
+ * @see com.estapar.parking.entity.Sector
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    /**
+     * Mesmo allocationSize das entidades: o otimizador pooled gera ids a
+     * partir de next_val - ALLOCATION_SIZE + 1.
+     */
+    static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Tabela de sequência → tabela cujos ids ela gera.
+     */
+    private static final Map<String, String> SEQUENCES = Map.of(
+        "vehicles_seq", "vehicles",
+        "sectors_seq", "sectors");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                if (!isTable(sequence)) {
+                    return;
+                }
+                int updated = jdbcTemplate.update(
+                    "UPDATE " + sequence + " SET next_val = (SELECT COALESCE(MAX(id), 0) + ? FROM " + table + ") "
+                    + "WHERE next_val < (SELECT COALESCE(MAX(id), 0) + ? FROM " + table + ")",
+                    ALLOCATION_SIZE, ALLOCATION_SIZE);
+                if (updated > 0) {
+                    log.info("Sequência {} alinhada ao maior id de {}", sequence, table);
+                }
+            } catch (Exception e) {
+                log.error("Erro ao alinhar sequência {}: {}", sequence, e.getMessage());
+            }
+        });
+    }
+
+    private boolean isTable(String name) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (var tables = connection.getMetaData().getTables(connection.getCatalog(), null, name, new String[] { "TABLE" })) {
+                return tables.next();
+            }
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
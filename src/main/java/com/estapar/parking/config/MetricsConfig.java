@@ -0,0 +1,103 @@
+package com.estapar.parking.config;
+
+import com.estapar.parking.service.AdmissionControl;
+import com.estapar.parking.service.DeadLetterQueue;
+import com.estapar.parking.service.EventQueueService;
+import com.estapar.parking.service.FreeSpotIndex;
+import com.estapar.parking.service.RevenueCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas de estado da aplicação expostas no Actuator
+ * (/actuator/prometheus).
+ *
+ * Os valores são lidos dos contadores que os serviços já mantêm
+ * (LongAdder/AtomicLong) apenas no momento da coleta: nenhuma chamada ao
+ * Micrometer é acrescentada ao enqueue, à DLQ ou ao filtro de rate limit.
+ * Os tempos do processamento de eventos ficam em
+ * {@link com.estapar.parking.service.ParkingMetrics}.
+ *
+ * Medidores:
+ * - parking.queue.depth / parking.queue.capacity: eventos aguardando e capacidade total da fila
+ * - parking.queue.rejected: eventos recusados por partição cheia
+ * - parking.queue.processed: eventos processados (com sucesso ou enviados à DLQ)
+ * - parking.admission.rejected{status}: recusas antecipadas da admissão (429 e 503)
+ * - parking.dlq.size, parking.dlq.added, parking.dlq.dropped: tamanho, entradas e descartes da DLQ
+ * - parking.rate_limit.rejected: requisições recusadas pelo rate limit
+ * - parking.revenue.cache.requests{result}, parking.revenue.cache.size: acertos e faltas do cache de receita
+ * - parking.spots.free / parking.spots.total: vagas livres e ativas no índice em memória
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder parkingStateMetrics(EventQueueService eventQueueService, AdmissionControl admissionControl,
+                                           DeadLetterQueue deadLetterQueue, RateLimitFilter rateLimitFilter,
+                                           RevenueCache revenueCache, FreeSpotIndex freeSpotIndex) {
+        return registry -> {
+            Gauge.builder("parking.queue.depth", eventQueueService, EventQueueService::getQueueSize)
+                .description("Eventos aguardando processamento em todas as partições")
+                .register(registry);
+            Gauge.builder("parking.queue.capacity", eventQueueService,
+                    q -> (double) q.getPartitionCapacity() * q.getPartitionCount())
+                .description("Capacidade total da fila de eventos")
+                .register(registry);
+            FunctionCounter.builder("parking.queue.rejected", eventQueueService, EventQueueService::getRejectedCount)
+                .description("Eventos recusados por partição cheia")
+                .register(registry);
+            FunctionCounter.builder("parking.queue.processed", eventQueueService, EventQueueService::getProcessedCount)
+                .description("Eventos processados, com sucesso ou enviados à DLQ")
+                .register(registry);
+
+            FunctionCounter.builder("parking.admission.rejected", admissionControl, AdmissionControl::getShedCount)
+                .description("Eventos recusados pela admissão antes de chegarem à fila")
+                .tag("status", "429")
+                .register(registry);
+            FunctionCounter.builder("parking.admission.rejected", admissionControl, AdmissionControl::getRejectedCount)
+                .description("Eventos recusados pela admissão antes de chegarem à fila")
+                .tag("status", "503")
+                .register(registry);
+
+            Gauge.builder("parking.dlq.size", deadLetterQueue, DeadLetterQueue::size)
+                .description("Entradas na dead letter queue")
+                .register(registry);
+            FunctionCounter.builder("parking.dlq.added", deadLetterQueue, DeadLetterQueue::getAddedCount)
+                .description("Eventos registrados na dead letter queue")
+                .register(registry);
+            FunctionCounter.builder("parking.dlq.dropped", deadLetterQueue, DeadLetterQueue::getDroppedCount)
+                .description("Eventos descartados com a dead letter queue cheia")
+                .register(registry);
+
+            FunctionCounter.builder("parking.rate_limit.rejected", rateLimitFilter, RateLimitFilter::getRejectedCount)
+                .description("Requisições recusadas com 429 pelo rate limit")
+                .register(registry);
+
+            FunctionCounter.builder("parking.revenue.cache.requests", revenueCache, RevenueCache::getHitCount)
+                .description("Consultas ao cache de receita")
+                .tag("result", "hit")
+                .register(registry);
+            FunctionCounter.builder("parking.revenue.cache.requests", revenueCache, RevenueCache::getMissCount)
+                .description("Consultas ao cache de receita")
+                .tag("result", "miss")
+                .register(registry);
+            Gauge.builder("parking.revenue.cache.size", revenueCache, RevenueCache::size)
+                .description("Entradas no cache de receita")
+                .register(registry);
+
+            Gauge.builder("parking.spots.free", freeSpotIndex, FreeSpotIndex::freeCount)
+                .description("Vagas livres no índice em memória")
+                .register(registry);
+            Gauge.builder("parking.spots.total", freeSpotIndex, FreeSpotIndex::totalCount)
+                .description("Vagas ativas no índice em memória")
+                .register(registry);
+        };
+    }
+}
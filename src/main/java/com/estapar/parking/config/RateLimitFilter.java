@@ -1,60 +1,151 @@
 package com.estapar.parking.config;
 
+import com.estapar.parking.service.GcraRateLimiter;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Filtro de limitação de taxa de requisições (Rate Limiting).
- * 
+ *
  * Implementa proteção contra ataques de negação de serviço (DoS) e abuso
  * da API limitando o número de requisições por IP em uma janela de tempo.
- * 
- * Utiliza estruturas thread-safe para controlar contadores por IP de forma
- * concorrente e segura em ambiente multi-thread.
- * 
+ *
+ * Utiliza o algoritmo GCRA (Generic Cell Rate Algorithm), equivalente a
+ * uma janela deslizante, por meio do {@link GcraRateLimiter}: cada chave
+ * (rota + IP) guarda um único long, atualizado por compare-and-set sem
+ * locks. Um limite de N requisições por período T aceita rajadas de até N
+ * requisições e depois uma a cada T/N.
+ *
+ * Limites configuráveis:
+ * - parking.rate-limit.default: limite das rotas não listadas (padrão 5/10s)
+ * - parking.rate-limit.routes: limites por prefixo de rota, ex.
+ *   "/webhook/batch=2/1s, /revenue=30/60s" (vale o prefixo mais longo)
+ * - parking.rate-limit.exempt: prefixos de rota sem limite, ex. "/actuator"
+ *   (coleta periódica do Prometheus e health checks)
+ * - parking.rate-limit.trusted-proxies: endereços dos proxies reversos
+ *   cujo X-Forwarded-For é considerado; vazio ignora o header
+ *
+ * Memória limitada: no máximo parking.rate-limit.max-keys chaves. Chaves
+ * ociosas são removidas periodicamente; se o limite for atingido mesmo
+ * assim, as chaves de TAT mais antigo dão lugar às novas, de modo que
+ * nenhum cliente novo é recusado por falta de espaço.
+ *
  * @author Sistema de Estacionamento
- * @version 1.0
+ * @version 2.2
  * @since 1.0
  */
 @Component
 public class RateLimitFilter implements Filter {
-    
+
     /**
-     * Mapa thread-safe que armazena o contador de requisições por IP.
-     * Utiliza AtomicInteger para operações atômicas de incremento.
+     * Limite padrão: 5 requisições por janela de 10 segundos.
      */
-    private final ConcurrentHashMap<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
-    
+    private static final String DEFAULT_LIMIT = "5/10s";
+
+    private static final int DEFAULT_MAX_KEYS = 100_000;
+
     /**
-     * Mapa thread-safe que armazena o timestamp da primeira requisição
-     * na janela de tempo atual para cada IP.
+     * TAT (em milissegundos) de cada chave rota|IP.
      */
-    private final ConcurrentHashMap<String, Long> requestTimes = new ConcurrentHashMap<>();
-    
+    private final GcraRateLimiter limiter;
+
+    private final Limit defaultLimit;
+
     /**
-     * Número máximo de requisições permitidas por IP na janela de tempo.
-     * Valor: 5 requisições por janela de 10 segundos.
+     * Limites por prefixo de rota, do prefixo mais longo para o mais curto.
      */
-    private static final int MAX_REQUESTS = 5;
-    
+    private final List<RouteLimit> routeLimits;
+
     /**
-     * Janela de tempo em milissegundos para contagem de requisições.
-     * Valor: 10.000ms = 10 segundos.
+     * Prefixos de rota que não passam pelo limite.
      */
-    private static final long TIME_WINDOW = 10000; // 10 segundos
+    private final List<String> exemptPrefixes;
+
+    /**
+     * Proxies reversos confiáveis: só deles o X-Forwarded-For é aceito.
+     */
+    private final Set<String> trustedProxies;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Limite de requisições em um período, expresso como "N/período"
+     * (ex.: "5/10s", "100/1m", "20/500ms").
+     *
+     * @param requests     requisições permitidas no período (também a rajada máxima)
+     * @param periodMillis duração do período em milissegundos
+     */
+    record Limit(int requests, long periodMillis) {
+
+        Limit {
+            if (requests < 1 || periodMillis < 1) {
+                throw new IllegalArgumentException("Limite de taxa inválido: " + requests + "/" + periodMillis + "ms");
+            }
+        }
+
+        /**
+         * Intervalo de emissão do GCRA: tempo "consumido" por requisição.
+         */
+        long intervalMillis() {
+            return Math.max(1, periodMillis / requests);
+        }
+
+        static Limit parse(String spec) {
+            String[] parts = spec.trim().split("/");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Limite de taxa inválido: " + spec);
+            }
+            return new Limit(Integer.parseInt(parts[0].trim()), parseDuration(parts[1].trim()));
+        }
+
+        private static long parseDuration(String value) {
+            if (value.endsWith("ms")) {
+                return Long.parseLong(value.substring(0, value.length() - 2));
+            }
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            return switch (value.charAt(value.length() - 1)) {
+                case 's' -> amount * 1000;
+                case 'm' -> amount * 60_000;
+                case 'h' -> amount * 3_600_000;
+                default -> throw new IllegalArgumentException("Unidade de tempo inválida: " + value);
+            };
+        }
+    }
+
+    private record RouteLimit(String prefix, Limit limit) {
+    }
+
+    @Autowired
+    public RateLimitFilter(@Value("${parking.rate-limit.default:" + DEFAULT_LIMIT + "}") String defaultLimit,
+                           @Value("${parking.rate-limit.routes:}") String routes,
+                           @Value("${parking.rate-limit.max-keys:" + DEFAULT_MAX_KEYS + "}") int maxKeys,
+                           @Value("${parking.rate-limit.exempt:/actuator}") String exempt,
+                           @Value("${parking.rate-limit.trusted-proxies:}") String trustedProxies) {
+        this.defaultLimit = Limit.parse(defaultLimit);
+        this.routeLimits = parseRoutes(routes);
+        this.limiter = new GcraRateLimiter(maxKeys);
+        this.exemptPrefixes = parseList(exempt);
+        this.trustedProxies = Set.copyOf(parseList(trustedProxies));
+    }
 
     /**
      * Método principal do filtro que intercepta todas as requisições HTTP.
-     * 
-     * Verifica se o IP do cliente excedeu o limite de requisições na janela
-     * de tempo. Se excedeu, retorna HTTP 429 (Too Many Requests), caso
-     * contrário permite que a requisição continue.
-     * 
+     *
+     * Verifica se o IP do cliente excedeu o limite da rota. Se excedeu,
+     * retorna HTTP 429 (Too Many Requests) com o header Retry-After,
+     * caso contrário permite que a requisição continue.
+     *
      * @param request requisição HTTP recebida
      * @param response resposta HTTP a ser enviada
      * @param chain cadeia de filtros para continuar o processamento
@@ -64,67 +155,163 @@ public class RateLimitFilter implements Filter {
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        
+
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
-        
-        String clientIp = getClientIp(httpRequest);
-        long currentTime = System.currentTimeMillis();
-        
-        if (isRateLimited(clientIp, currentTime)) {
+
+        String path = httpRequest.getRequestURI();
+        if (isExempt(path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        RouteLimit route = routeFor(path);
+        String key = (route != null ? route.prefix() : "*") + "|" + getClientIp(httpRequest);
+        Limit limit = route != null ? route.limit() : defaultLimit;
+
+        long waitMillis = waitMillis(key, limit, System.currentTimeMillis());
+        if (waitMillis > 0) {
+            rejected.increment();
             httpResponse.setStatus(429);
+            httpResponse.setHeader("Retry-After", Long.toString((waitMillis + 999) / 1000));
             httpResponse.getWriter().write("{\"error\":\"Rate limit exceeded\"}");
             return;
         }
-        
+
         chain.doFilter(request, response);
     }
-    
+
     /**
-     * Verifica se um IP específico excedeu o limite de requisições.
-     * 
-     * Implementa lógica de janela deslizante: se a última requisição foi
-     * há mais de TIME_WINDOW, reinicia o contador. Caso contrário,
-     * incrementa e verifica se excedeu MAX_REQUESTS.
-     * 
+     * Verifica se um IP específico excedeu o limite padrão.
+     *
      * @param clientIp endereço IP do cliente
      * @param currentTime timestamp atual em milissegundos
      * @return true se o limite foi excedido, false caso contrário
      */
-    private boolean isRateLimited(String clientIp, long currentTime) {
-        Long lastRequestTime = requestTimes.get(clientIp);
-        
-        if (lastRequestTime == null || currentTime - lastRequestTime > TIME_WINDOW) {
-            requestCounts.put(clientIp, new AtomicInteger(1));
-            requestTimes.put(clientIp, currentTime);
-            return false;
+    boolean isRateLimited(String clientIp, long currentTime) {
+        return waitMillis("*|" + clientIp, defaultLimit, currentTime) > 0;
+    }
+
+    /**
+     * Aplica o GCRA à chave: aceita a requisição se o novo TAT não
+     * ultrapassar o período do limite à frente do instante atual.
+     *
+     * @param key chave rota|IP
+     * @param limit limite da rota
+     * @param now instante atual em milissegundos
+     * @return 0 se a requisição foi aceita, ou o tempo em milissegundos até ser aceita
+     */
+    long waitMillis(String key, Limit limit, long now) {
+        return limiter.acquire(key, limit.intervalMillis(), limit.periodMillis(), now);
+    }
+
+    /**
+     * Remove periodicamente as chaves ociosas.
+     */
+    @Scheduled(fixedDelayString = "${parking.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        evictIdle(System.currentTimeMillis());
+    }
+
+    /**
+     * Remove as chaves que voltaram a ter o limite inteiro disponível.
+     *
+     * @return quantidade de chaves removidas
+     */
+    int evictIdle(long now) {
+        return limiter.evictIdle(now);
+    }
+
+    /**
+     * @return requisições recusadas com 429 desde a inicialização
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return quantidade de chaves rastreadas
+     */
+    int getTrackedKeys() {
+        return limiter.size();
+    }
+
+    private boolean isExempt(String path) {
+        for (String prefix : exemptPrefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> parseList(String values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values.split(",")) {
+            if (!value.isBlank()) {
+                result.add(value.trim());
+            }
         }
-        
-        AtomicInteger count = requestCounts.get(clientIp);
-        return count != null && count.incrementAndGet() > MAX_REQUESTS;
+        return List.copyOf(result);
     }
-    
+
+    private RouteLimit routeFor(String path) {
+        for (RouteLimit route : routeLimits) {
+            if (path.startsWith(route.prefix())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static List<RouteLimit> parseRoutes(String routes) {
+        List<RouteLimit> result = new ArrayList<>();
+        for (String entry : routes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Rota de rate limit inválida: " + entry);
+            }
+            result.add(new RouteLimit(entry.substring(0, separator).trim(),
+                Limit.parse(entry.substring(separator + 1))));
+        }
+        result.sort(Comparator.comparingInt((RouteLimit r) -> r.prefix().length()).reversed());
+        return List.copyOf(result);
+    }
+
     /**
      * Extrai o endereço IP real do cliente da requisição HTTP.
-     * 
-     * Considera proxies e load balancers verificando o header
-     * X-Forwarded-For antes de usar o IP direto da conexão.
-     * 
+     *
+     * O header X-Forwarded-For só é considerado quando a conexão vem de um
+     * proxy confiável (parking.rate-limit.trusted-proxies), já que qualquer
+     * cliente pode enviá-lo. Nesse caso o cliente é o endereço mais à
+     * direita da lista que não seja de um proxy confiável: os anteriores
+     * foram informados pelo próprio cliente e não são verificáveis.
+     *
      * @param request requisição HTTP contendo headers e informações de rede
      * @return endereço IP do cliente (pode ser IPv4 ou IPv6)
-     * 
+     *
      * @example
-     * Com proxy: X-Forwarded-For: "203.0.113.1, 198.51.100.1"
-     * Retorna: "203.0.113.1" (primeiro IP da lista)
-     * 
-     * Sem proxy: request.getRemoteAddr()
+     * Conexão do proxy 10.0.0.10 (confiável), X-Forwarded-For: "198.51.100.7, 203.0.113.1"
+     * Retorna: "203.0.113.1" (endereço que conectou no proxy)
+     *
+     * Conexão direta ou de proxy não configurado: request.getRemoteAddr()
      * Retorna: "192.168.1.100"
      */
     private String getClientIp(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
         String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+        if (xForwardedFor == null || xForwardedFor.isEmpty() || !trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+        String[] hops = xForwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !trustedProxies.contains(hop)) {
+                return hop;
+            }
         }
-        return request.getRemoteAddr();
+        return remoteAddr;
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,19 @@
 package com.estapar.parking.controller;
 
-import com.estapar.parking.dto.WebhookEvent;
+import com.estapar.parking.dto.DeadLetterEntry;
 import com.estapar.parking.service.EventQueueService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/dlq")
 public class DLQController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final EventQueueService eventQueueService;
 
     public DLQController(EventQueueService eventQueueService) {
@@ -19,15 +21,54 @@ public class DLQController {
     }
 
     @GetMapping
-    public ResponseEntity<List<WebhookEvent>> getDLQ() {
-        List<WebhookEvent> events = eventQueueService.getDeadLetterQueue()
-            .stream()
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(events);
+    public ResponseEntity<List<DeadLetterEntry>> getDLQ(@RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "50") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(eventQueueService.getDeadLetterQueue().page(page, pageSize));
     }
 
     @GetMapping("/size")
     public ResponseEntity<Integer> getDLQSize() {
         return ResponseEntity.ok(eventQueueService.getDLQSize());
     }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<DeadLetterEntry> getEntry(@PathVariable long id) {
+        return ResponseEntity.of(eventQueueService.getDeadLetterQueue().get(id));
+    }
+
+    /**
+     * Reenfileira todas as entradas enquanto houver espaço na fila.
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<Integer> replayAll() {
+        return ResponseEntity.ok(eventQueueService.replayDeadLetters());
+    }
+
+    /**
+     * Reenfileira uma entrada; 503 se a partição do evento estiver cheia.
+     */
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<Void> replay(@PathVariable long id) {
+        if (eventQueueService.getDeadLetterQueue().get(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!eventQueueService.replayDeadLetter(id)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Integer> purge() {
+        return ResponseEntity.ok(eventQueueService.getDeadLetterQueue().purge());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable long id) {
+        if (!eventQueueService.getDeadLetterQueue().remove(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,82 @@
+package com.estapar.parking.controller;
+
+import com.estapar.parking.dto.RecordingStatus;
+import com.estapar.parking.service.FlightRecording;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+/**
+ * Início, encerramento e download de gravações do JDK Flight Recorder.
+ *
+ * @see com.estapar.parking.service.FlightRecording
+ */
+@RestController
+@RequestMapping("/admin/jfr")
+public class FlightRecordingController {
+
+    private final FlightRecording flightRecording;
+
+    public FlightRecordingController(FlightRecording flightRecording) {
+        this.flightRecording = flightRecording;
+    }
+
+    @GetMapping
+    public ResponseEntity<RecordingStatus> getStatus() {
+        return ResponseEntity.ok(flightRecording.status());
+    }
+
+    /**
+     * Inicia uma gravação, opcionalmente com duração; 409 se já houver uma em andamento.
+     */
+    @PostMapping("/start")
+    public ResponseEntity<RecordingStatus> start(@RequestParam(required = false) Long durationSeconds) {
+        Duration duration = durationSeconds != null && durationSeconds > 0 ? Duration.ofSeconds(durationSeconds) : null;
+        if (!flightRecording.start(duration)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(flightRecording.status());
+        }
+        return ResponseEntity.ok(flightRecording.status());
+    }
+
+    /**
+     * Encerra a gravação e grava o arquivo; 409 se não houver gravação em andamento.
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<RecordingStatus> stop() {
+        if (!flightRecording.stop()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(flightRecording.status());
+        }
+        return ResponseEntity.ok(flightRecording.status());
+    }
+
+    /**
+     * Baixa a gravação (.jfr, para o JDK Mission Control ou "jfr print");
+     * com a gravação em andamento, baixa um instantâneo do conteúdo atual,
+     * cujo arquivo temporário é removido ao fim do download.
+     */
+    @GetMapping("/recording")
+    public ResponseEntity<Resource> download() {
+        var snapshot = flightRecording.snapshot();
+        if (snapshot.isPresent()) {
+            return attachment("parking-snapshot.jfr", new InputStreamResource(snapshot.get()));
+        }
+        return flightRecording.file()
+            .map(file -> attachment(file.getFileName().toString(), new FileSystemResource(file)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<Resource> attachment(String fileName, Resource body) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+            .body(body);
+    }
+}
@@ -0,0 +1,50 @@
+package com.estapar.parking.controller;
+
+import com.estapar.parking.dto.PricingRules;
+import com.estapar.parking.service.PricingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Consulta e troca das regras de preço sem redeploy.
+ *
+ * Regras inválidas são rejeitadas com 400 e as regras em vigor permanecem.
+ *
+ * @see com.estapar.parking.service.PricingService
+ */
+@RestController
+@RequestMapping("/pricing/rules")
+public class PricingController {
+
+    private final PricingService pricingService;
+
+    public PricingController(PricingService pricingService) {
+        this.pricingService = pricingService;
+    }
+
+    @GetMapping
+    public ResponseEntity<PricingRules> getRules() {
+        return ResponseEntity.ok(pricingService.getRules());
+    }
+
+    /**
+     * Aplica novas regras e as grava no arquivo de regras, se configurado.
+     */
+    @PutMapping
+    public ResponseEntity<PricingRules> updateRules(@RequestBody PricingRules rules) {
+        pricingService.updateRules(rules);
+        return ResponseEntity.ok(pricingService.getRules());
+    }
+
+    /**
+     * Relê o arquivo de regras; 409 se não houver arquivo configurado.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<PricingRules> reloadRules() {
+        if (!pricingService.hasRulesFile()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(pricingService.reloadRules());
+    }
+}
@@ -0,0 +1,28 @@
+package com.estapar.parking.controller;
+
+import com.estapar.parking.dto.QueueStatus;
+import com.estapar.parking.service.AdmissionControl;
+import com.estapar.parking.service.EventQueueService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/queue")
+public class QueueController {
+
+    private final EventQueueService eventQueueService;
+    private final AdmissionControl admissionControl;
+
+    public QueueController(EventQueueService eventQueueService, AdmissionControl admissionControl) {
+        this.eventQueueService = eventQueueService;
+        this.admissionControl = admissionControl;
+    }
+
+    @GetMapping
+    public ResponseEntity<QueueStatus> getQueueStatus() {
+        return ResponseEntity.ok(new QueueStatus(
+            eventQueueService.getQueueSize(),
+            eventQueueService.getPartitionSizes(),
+            admissionControl.getDrainRate()));
+    }
+}
@@ -1,8 +1,11 @@
 package com.estapar.parking.controller;
 
+import com.estapar.parking.dto.RevenueCacheStats;
 import com.estapar.parking.dto.RevenueRequest;
 import com.estapar.parking.dto.RevenueResponse;
 import com.estapar.parking.service.ParkingService;
+import com.estapar.parking.service.RevenueCache;
+import com.estapar.parking.service.RevenueRollupService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
@@ -32,14 +35,29 @@ public class RevenueController {
      */
     private final ParkingService parkingService;
 
+    /**
+     * Receita pré-agregada por setor e dia, recalculável sob demanda.
+     */
+    private final RevenueRollupService revenueRollupService;
+
+    /**
+     * Cache das consultas de receita, para exposição das estatísticas.
+     */
+    private final RevenueCache revenueCache;
+
     /**
      * Construtor para injeção de dependência do serviço de estacionamento.
      * 
      * @param parkingService serviço responsável pelos cálculos de receita e gestão de veículos
+     * @param revenueRollupService receita pré-agregada por setor e dia
+     * @param revenueCache cache das consultas de receita
      * @throws IllegalArgumentException se parkingService for null
      */
-    public RevenueController(ParkingService parkingService) {
+    public RevenueController(ParkingService parkingService, RevenueRollupService revenueRollupService,
+                             RevenueCache revenueCache) {
         this.parkingService = parkingService;
+        this.revenueRollupService = revenueRollupService;
+        this.revenueCache = revenueCache;
     }
 
     /**
@@ -104,4 +122,45 @@ public class RevenueController {
         var response = new RevenueResponse(amount, "BRL", timestamp);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Recalcula a receita pré-agregada a partir do histórico de veículos.
+     * 
+     * Útil após correções manuais na tabela de veículos. Saídas processadas
+     * durante o recálculo aguardam o seu término.
+     * 
+     * @return quantidade de pares setor/dia recalculados
+     * 
+     * @example
+     * POST /revenue/rollups/rebuild
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Integer> rebuildRollups() {
+        return ResponseEntity.ok(revenueRollupService.rebuild());
+    }
+
+    /**
+     * Estatísticas do cache de consultas de receita.
+     * 
+     * @return acertos, ausências, taxa de acerto e tamanho do cache
+     * 
+     * @example
+     * GET /revenue/cache
+     * 
+     * Response:
+     * {
+     *   "hits": 980,
+     *   "misses": 20,
+     *   "hitRate": 0.98,
+     *   "size": 12
+     * }
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<RevenueCacheStats> getCacheStats() {
+        return ResponseEntity.ok(new RevenueCacheStats(
+            revenueCache.getHitCount(),
+            revenueCache.getMissCount(),
+            revenueCache.getHitRate(),
+            revenueCache.size()));
+    }
+}
@@ -1,13 +1,20 @@
 package com.estapar.parking.controller;
 
+import com.estapar.parking.dto.BatchResponse;
 import com.estapar.parking.dto.WebhookEvent;
+import com.estapar.parking.service.AdmissionControl;
+import com.estapar.parking.service.AdmissionControl.Decision;
 import com.estapar.parking.service.EventQueueService;
+import com.estapar.parking.service.WebhookBatchService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
 
 /**
  * Controller REST para recepção de eventos do simulador de estacionamento.
@@ -22,8 +29,15 @@ import jakarta.validation.Valid;
  * - Resiliência: Eventos podem ser reprocessados em caso de falha
  * - Escalabilidade: Suporta múltiplos eventos simultâneos sem bloqueio
  * 
+ * Backpressure: antes de enfileirar, o evento passa pelo {@link AdmissionControl}.
+ * Recusas retornam 429 (descarte antecipado ou taxa da cancela) ou 503 (fila
+ * cheia), sempre com header Retry-After, e o evento não é retido.
+ * 
+ * Eventos em lote: POST /webhook/batch aceita NDJSON (um evento por linha),
+ * diluindo o custo por requisição (HTTP, rate limit) entre vários eventos.
+ * 
  * @author Sistema de Estacionamento
- * @version 2.0
+ * @version 3.0
  * @since 1.0
  */
 @RestController
@@ -31,10 +45,18 @@ import jakarta.validation.Valid;
 public class WebhookController {
     
     private static final Logger log = LoggerFactory.getLogger(WebhookController.class);
+    private static final String GATE_HEADER = "X-Gate-Id";
+    private static final String NDJSON = "application/x-ndjson";
+
     private final EventQueueService eventQueueService;
+    private final AdmissionControl admissionControl;
+    private final WebhookBatchService batchService;
 
-    public WebhookController(EventQueueService eventQueueService) {
+    public WebhookController(EventQueueService eventQueueService, AdmissionControl admissionControl,
+                             WebhookBatchService batchService) {
         this.eventQueueService = eventQueueService;
+        this.admissionControl = admissionControl;
+        this.batchService = batchService;
     }
 
     /**
@@ -42,18 +64,56 @@ public class WebhookController {
      * Retorna imediatamente após enfileirar, sem bloquear o thread HTTP.
      */
     @PostMapping
-    public ResponseEntity<Void> handleEvent(@Valid @RequestBody WebhookEvent event) {
+    public ResponseEntity<Void> handleEvent(@Valid @RequestBody WebhookEvent event, HttpServletRequest request) {
         log.info("Evento recebido: {} - {} (fila: {})", 
             event.getEventType(), event.getLicensePlate(), eventQueueService.getQueueSize());
 
+        Decision decision = admissionControl.admit(gateOf(request), event.getLicensePlate());
+        if (!decision.admitted()) {
+            log.warn("Evento recusado pela admissão ({}): {} - {}",
+                decision.reason(), event.getEventType(), event.getLicensePlate());
+            return retryLater(decision.status(), decision.retryAfterSeconds());
+        }
+
         boolean enqueued = eventQueueService.enqueue(event);
         
         if (!enqueued) {
             log.error("Fila cheia - evento rejeitado: {} - {}", 
                 event.getEventType(), event.getLicensePlate());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            return retryLater(HttpStatus.SERVICE_UNAVAILABLE,
+                admissionControl.retryAfterSeconds(event.getLicensePlate()));
         }
 
         return ResponseEntity.accepted().build();
     }
+
+    /**
+     * Recebe um lote de eventos em NDJSON e responde com uma confirmação
+     * por linha. Retorna 200 mesmo com recusas parciais; o header
+     * Retry-After é incluído quando alguma linha foi recusada por backpressure.
+     */
+    @PostMapping(path = "/batch", consumes = NDJSON)
+    public ResponseEntity<BatchResponse> handleBatch(HttpServletRequest request) throws IOException {
+        BatchResponse response = batchService.ingest(request.getInputStream(), gateOf(request));
+
+        var builder = ResponseEntity.ok();
+        if (response.getRetryAfterSeconds() > 0) {
+            builder.header(HttpHeaders.RETRY_AFTER, Long.toString(response.getRetryAfterSeconds()));
+        }
+        return builder.body(response);
+    }
+
+    private static ResponseEntity<Void> retryLater(HttpStatus status, long retryAfterSeconds) {
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+            .build();
+    }
+
+    /**
+     * Identifica a cancela pelo header X-Gate-Id ou, na ausência dele, pelo IP.
+     */
+    private static String gateOf(HttpServletRequest request) {
+        String gate = request.getHeader(GATE_HEADER);
+        return gate != null && !gate.isBlank() ? gate : request.getRemoteAddr();
+    }
 }
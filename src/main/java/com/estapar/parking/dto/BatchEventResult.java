@@ -0,0 +1,35 @@
+package com.estapar.parking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Confirmação individual de um evento recebido em lote (NDJSON).
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.dto.BatchResponse
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEventResult {
+
+    /**
+     * Linha do evento no corpo da requisição (a partir de 1).
+     */
+    private int line;
+
+    /**
+     * Status HTTP equivalente ao de um envio individual: 202 aceito,
+     * 400 inválido, 413 acima do limite do lote, 429/503 recusado pela fila.
+     */
+    private int status;
+
+    /**
+     * Motivo da recusa; nulo quando aceito.
+     */
+    private String error;
+}
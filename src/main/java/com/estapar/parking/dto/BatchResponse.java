@@ -0,0 +1,43 @@
+package com.estapar.parking.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resposta do endpoint de eventos em lote (POST /webhook/batch).
+ *
+ * Traz os totais e uma confirmação por linha, na ordem do corpo da
+ * requisição, para que o produtor reenvie apenas os eventos recusados.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.controller.WebhookController
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+
+    /**
+     * Eventos aceitos e enfileirados.
+     */
+    private int accepted;
+
+    /**
+     * Eventos recusados (inválidos, acima do limite ou por backpressure).
+     */
+    private int rejected;
+
+    /**
+     * Maior Retry-After, em segundos, entre as recusas por backpressure; 0 se não houve.
+     */
+    private long retryAfterSeconds;
+
+    /**
+     * Confirmação de cada linha.
+     */
+    private List<BatchEventResult> results;
+}
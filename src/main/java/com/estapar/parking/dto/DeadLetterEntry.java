@@ -0,0 +1,61 @@
+package com.estapar.parking.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de uma entrada da Dead Letter Queue (DLQ).
+ *
+ * Guarda o evento original junto com o motivo da falha e o estado das
+ * novas tentativas automáticas. É também o formato persistido em disco,
+ * um arquivo JSON por entrada.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.DeadLetterQueue
+ * @see com.estapar.parking.controller.DLQController
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterEntry {
+
+    /**
+     * Identificador sequencial da entrada, crescente na ordem de chegada.
+     */
+    private long id;
+
+    /**
+     * Evento que não pôde ser enfileirado ou processado.
+     */
+    private WebhookEvent event;
+
+    /**
+     * Motivo da última falha (mensagem da exceção ou "Fila cheia").
+     */
+    private String cause;
+
+    /**
+     * Número de falhas registradas para o evento.
+     */
+    private int attempts;
+
+    /**
+     * Momento da primeira falha.
+     */
+    private LocalDateTime firstFailedAt;
+
+    /**
+     * Momento da última falha.
+     */
+    private LocalDateTime lastFailedAt;
+
+    /**
+     * Momento a partir do qual o evento será reenfileirado automaticamente.
+     * Nulo quando o limite de tentativas foi atingido (apenas replay manual).
+     */
+    private LocalDateTime nextAttemptAt;
+}
@@ -0,0 +1,60 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com as regras de preço do estacionamento.
+ *
+ * Formato do arquivo parking.pricing.rules-file e do endpoint /pricing/rules.
+ * Nas regras de um setor (sectors), campos nulos herdam o valor das regras
+ * gerais; nas regras gerais, herdam o padrão do sistema.
+ *
+ * @example
+ * {
+ *   "toleranceMinutes": 30,
+ *   "maxChargedHours": 0,
+ *   "tiers": [
+ *     {"upToPercent": 25, "multiplier": 0.90},
+ *     {"upToPercent": 50, "multiplier": 1.00},
+ *     {"upToPercent": 75, "multiplier": 1.10},
+ *     {"upToPercent": 100, "multiplier": 1.25}
+ *   ],
+ *   "sectors": {"A": {"maxChargedHours": 12}}
+ * }
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.PricingService
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PricingRules {
+
+    /**
+     * Permanência máxima, em minutos, sem cobrança.
+     */
+    private Integer toleranceMinutes;
+
+    /**
+     * Teto de horas cobradas por permanência; 0 = sem teto.
+     */
+    private Integer maxChargedHours;
+
+    /**
+     * Faixas de lotação da primeira hora, em ordem crescente de upToPercent.
+     */
+    private List<PricingTier> tiers;
+
+    /**
+     * Regras específicas por nome de setor.
+     */
+    private Map<String, PricingRules> sectors;
+}
@@ -0,0 +1,33 @@
+package com.estapar.parking.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de uma faixa de lotação da regra de preço.
+ *
+ * A faixa vale para lotações até upToPercent (inclusive), acima do limite
+ * da faixa anterior. Lotações acima da última faixa usam a última.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.dto.PricingRules
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingTier {
+
+    /**
+     * Lotação máxima da faixa, em pontos percentuais inteiros (0 a 100).
+     */
+    private int upToPercent;
+
+    /**
+     * Multiplicador do preço base na primeira hora (ex.: 0.90, 1.25).
+     */
+    private BigDecimal multiplier;
+}
@@ -0,0 +1,38 @@
+package com.estapar.parking.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com o estado atual da fila de eventos.
+ * 
+ * Expõe a profundidade total e a profundidade de cada partição,
+ * permitindo identificar partições desbalanceadas (placas "quentes").
+ * 
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.controller.QueueController
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueStatus {
+
+    /**
+     * Total de eventos aguardando processamento em todas as partições.
+     */
+    private int size;
+
+    /**
+     * Profundidade de cada partição, na ordem das partições.
+     */
+    private List<Integer> partitions;
+
+    /**
+     * Vazão medida dos consumidores, em eventos por segundo.
+     */
+    private double drainRate;
+}
@@ -0,0 +1,40 @@
+package com.estapar.parking.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com o estado da gravação do JDK Flight Recorder iniciada por /admin/jfr.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.controller.FlightRecordingController
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordingStatus {
+
+    /**
+     * NONE (nenhuma gravação iniciada), RUNNING, STOPPED ou CLOSED.
+     */
+    private String state;
+
+    /**
+     * Início da gravação, ou null se nenhuma foi iniciada.
+     */
+    private Instant startTime;
+
+    /**
+     * Arquivo de destino da gravação, gravado ao encerrá-la.
+     */
+    private String file;
+
+    /**
+     * Bytes gravados até o momento.
+     */
+    private long size;
+}
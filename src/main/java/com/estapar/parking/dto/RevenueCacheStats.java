@@ -0,0 +1,39 @@
+package com.estapar.parking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com as estatísticas do cache de consultas de receita.
+ * 
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.RevenueCache
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueCacheStats {
+
+    /**
+     * Consultas respondidas pelo cache.
+     */
+    private long hits;
+
+    /**
+     * Consultas que precisaram ler a receita do banco.
+     */
+    private long misses;
+
+    /**
+     * Fração de consultas respondidas pelo cache (0.0 a 1.0).
+     */
+    private double hitRate;
+
+    /**
+     * Quantidade de entradas em cache.
+     */
+    private int size;
+}
@@ -1,5 +1,6 @@
 package com.estapar.parking.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -112,5 +113,19 @@ public class WebhookEvent {
     @Pattern(regexp = "^(ENTRY|PARKED|EXIT)$", message = "Invalid event type")
     private String eventType;
 
+    /**
+     * Sequência do evento no write-ahead log da fila.
+     * Uso interno: não faz parte do payload do simulador e vale -1
+     * quando o log está desabilitado.
+     */
+    @JsonIgnore
+    private long walSequence = -1;
+
+    /**
+     * Falhas anteriores do evento, restaurada quando ele é reenfileirado
+     * a partir da DLQ. Uso interno, fora do payload do simulador.
+     */
+    @JsonIgnore
+    private int deliveryAttempts;
 
 }
\ No newline at end of file
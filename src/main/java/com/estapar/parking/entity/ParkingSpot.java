@@ -25,7 +25,9 @@ import lombok.NoArgsConstructor;
  * @see com.estapar.parking.entity.Vehicle
  */
 @Entity
-@Table(name = "parking_spots")
+@Table(name = "parking_spots", indexes = {
+    @Index(name = "idx_parking_spots_occupied_sector", columnList = "occupied, sector_id")
+})
 @Data
 @NoArgsConstructor
 // @DynamicInsert indica ao Hibernate para incluir apenas campos não-nulos no SQL INSERT
@@ -85,6 +87,22 @@ public class ParkingSpot {
     @Column(nullable = false)
     private Boolean occupied = false;
 
+    /**
+     * Indica se a vaga ainda existe na configuração do simulador.
+     * Vagas removidas da configuração são desativadas (não excluídas),
+     * preservando o histórico de veículos que as utilizaram.
+     */
+    @Column(nullable = false)
+    @org.hibernate.annotations.ColumnDefault("true")
+    private Boolean active = true;
+
+    /**
+     * Hash do conteúdo da vaga na configuração do simulador (setor e
+     * coordenadas), usado para detectar alterações sem comparar campo a campo.
+     */
+    @Column(name = "config_hash")
+    private Long configHash;
+
     /**
      * Relacionamento many-to-one com o setor.
      * Cada vaga pertence a exatamente um setor, que define
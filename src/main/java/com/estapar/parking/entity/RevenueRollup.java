@@ -0,0 +1,56 @@
+package com.estapar.parking.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidade JPA representando a receita pré-agregada de um setor em um dia.
+ *
+ * Esta classe mapeia a tabela "revenue_rollups", mantida incrementalmente
+ * a cada saída de veículo. Substitui o SUM sobre a tabela "vehicles" na
+ * consulta de receita, cujo custo crescia com o histórico.
+ *
+ * Pode ser recalculada a partir de "vehicles" a qualquer momento.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.RevenueRollupService
+ */
+@Entity
+@Table(name = "revenue_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_revenue_rollup_sector_date",
+                                             columnNames = {"sector_name", "revenue_date"}))
+@Data
+@NoArgsConstructor
+public class RevenueRollup {
+
+    /**
+     * Identificador único do registro.
+     * Chave primária auto-incrementada pelo banco de dados.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Nome do setor ao qual a receita pertence.
+     */
+    @Column(name = "sector_name", nullable = false)
+    private String sectorName;
+
+    /**
+     * Dia da saída dos veículos cobrados.
+     */
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate revenueDate;
+
+    /**
+     * Soma dos valores cobrados no setor e dia, em reais.
+     */
+    @Column(nullable = false)
+    private BigDecimal amount;
+}
@@ -36,10 +36,15 @@ public class Sector {
     
     /**
      * Identificador único do setor gerado automaticamente.
-     * Chave primária auto-incrementada pelo banco de dados.
+     * Chave primária gerada por sequência com otimizador pooled: um acesso
+     * à sequência reserva 50 ids, e os INSERTs podem ser agrupados em lotes
+     * JDBC (com IDENTITY cada INSERT é executado na hora para obter o id).
+     * No MySQL, sem sequências nativas, o Hibernate emula a sequência com a
+     * tabela sectors_seq.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sectors_seq")
+    @SequenceGenerator(name = "sectors_seq", sequenceName = "sectors_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -74,6 +79,13 @@ public class Sector {
     @Column(name = "max_capacity", nullable = false)
     private Integer maxCapacity;
 
+    /**
+     * Hash do conteúdo do setor na configuração do simulador (preço base e
+     * capacidade), usado para detectar alterações.
+     */
+    @Column(name = "config_hash")
+    private Long configHash;
+
     /**
      * Relacionamento one-to-many com as vagas do setor.
      * Lista de todas as vagas que pertencem a este setor.
@@ -31,19 +31,34 @@ import lombok.NoArgsConstructor;
  * @see com.estapar.parking.entity.Sector
  */
 @Entity
-@Table(name = "vehicles")
+@Table(name = "vehicles", indexes = {
+    @Index(name = "idx_vehicles_plate_status", columnList = "license_plate, status"),
+    @Index(name = "idx_vehicles_exit_time", columnList = "exit_time"),
+    @Index(name = Vehicle.ACTIVE_PLATE_INDEX, columnList = "active_plate", unique = true)
+})
 @Data
 @NoArgsConstructor
 @org.hibernate.annotations.DynamicInsert
 @org.hibernate.annotations.DynamicUpdate
 public class Vehicle {
+
+    /**
+     * Índice único da placa ativa: uma segunda sessão ativa da mesma placa
+     * é recusada pelo banco.
+     */
+    public static final String ACTIVE_PLATE_INDEX = "uk_vehicles_active_plate";
     
     /**
      * Identificador único do registro do veículo.
-     * Chave primária auto-incrementada pelo banco de dados.
+     * Chave primária gerada por sequência com otimizador pooled: um acesso
+     * à sequência reserva 50 ids, e os INSERTs podem ser agrupados em lotes
+     * JDBC (com IDENTITY cada INSERT é executado na hora para obter o id).
+     * No MySQL, sem sequências nativas, o Hibernate emula a sequência com a
+     * tabela vehicles_seq.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicles_seq")
+    @SequenceGenerator(name = "vehicles_seq", sequenceName = "vehicles_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -100,6 +115,15 @@ public class Vehicle {
     @Column(nullable = false)
     private VehicleStatus status;
 
+    /**
+     * Placa enquanto o veículo está no estacionamento, NULL após a saída.
+     * Coluna calculada pelo banco, nunca gravada pela aplicação.
+     */
+    @Column(name = "active_plate", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS "
+                + "(CASE WHEN status IN ('ENTERED', 'PARKED') THEN license_plate END)")
+    private String activePlate;
+
     /**
      * Construtor para criar um novo registro de veículo na entrada.
      * 
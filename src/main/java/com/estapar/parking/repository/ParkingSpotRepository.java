@@ -2,7 +2,56 @@ package com.estapar.parking.repository;
 
 import com.estapar.parking.entity.ParkingSpot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
 
 public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long> {
     long countByOccupiedTrue();
-}
\ No newline at end of file
+
+    @Query("SELECT s.id AS id, s.sector.name AS sectorName, s.occupied AS occupied FROM ParkingSpot s "
+         + "WHERE s.active = true")
+    List<SpotStatus> findAllStatuses();
+
+    @Query("SELECT s.sector.name AS sectorName, COUNT(s) AS total, "
+         + "SUM(CASE WHEN s.occupied = true THEN 1 ELSE 0 END) AS occupied "
+         + "FROM ParkingSpot s WHERE s.active = true GROUP BY s.sector.name")
+    List<SectorOccupancy> countOccupancyBySector();
+
+    /**
+     * Ocupa a vaga somente se estiver livre e ativa, em um único comando atômico.
+     *
+     * @return 1 se a vaga foi ocupada, 0 se já estava ocupada ou desativada
+     */
+    @Modifying
+    @Query("UPDATE ParkingSpot s SET s.occupied = true WHERE s.id = :id AND s.occupied = false AND s.active = true")
+    int claimIfFree(Long id);
+
+    /**
+     * Libera a vaga somente se estiver ocupada.
+     *
+     * @return 1 se a vaga foi liberada, 0 se já estava livre
+     */
+    @Modifying
+    @Query("UPDATE ParkingSpot s SET s.occupied = false WHERE s.id = :id AND s.occupied = true")
+    int releaseIfOccupied(Long id);
+
+    /**
+     * Projeção enxuta do estado de uma vaga, usada para semear
+     * estruturas em memória sem materializar entidades completas.
+     */
+    interface SpotStatus {
+        Long getId();
+        String getSectorName();
+        Boolean getOccupied();
+    }
+
+    /**
+     * Projeção agregada de ocupação por setor.
+     */
+    interface SectorOccupancy {
+        String getSectorName();
+        Long getTotal();
+        Long getOccupied();
+    }
+}
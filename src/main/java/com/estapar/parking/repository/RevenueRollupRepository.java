@@ -0,0 +1,53 @@
+package com.estapar.parking.repository;
+
+import com.estapar.parking.entity.RevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+
+    Optional<RevenueRollup> findBySectorNameAndRevenueDate(String sectorName, LocalDate revenueDate);
+
+    /**
+     * Soma um valor à receita do setor no dia, criando o registro se necessário,
+     * em um único comando atômico.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revenue_rollups (sector_name, revenue_date, amount) "
+                 + "VALUES (:sectorName, :revenueDate, :amount) "
+                 + "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount)", nativeQuery = true)
+    int addRevenue(String sectorName, LocalDate revenueDate, BigDecimal amount);
+
+    @Modifying
+    @Query(value = "DELETE FROM revenue_rollups", nativeQuery = true)
+    int deleteAllRollups();
+
+    /**
+     * Primeira e última saída registradas, lidas nas extremidades do índice
+     * idx_vehicles_exit_time; nulas se nenhum veículo saiu.
+     */
+    @Query("SELECT MIN(v.exitTime) FROM Vehicle v")
+    LocalDateTime findFirstExitTime();
+
+    @Query("SELECT MAX(v.exitTime) FROM Vehicle v")
+    LocalDateTime findLastExitTime();
+
+    /**
+     * Recalcula as receitas por setor e dia das saídas no intervalo [from, to).
+     * O filtro por faixa de exit_time usa o índice idx_vehicles_exit_time.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revenue_rollups (sector_name, revenue_date, amount) "
+                 + "SELECT s.name, CAST(v.exit_time AS DATE), SUM(v.total_amount) "
+                 + "FROM vehicles v "
+                 + "JOIN parking_spots p ON p.id = v.parking_spot_id "
+                 + "JOIN sectors s ON s.id = p.sector_id "
+                 + "WHERE v.exit_time >= :from AND v.exit_time < :to AND v.total_amount IS NOT NULL "
+                 + "GROUP BY s.name, CAST(v.exit_time AS DATE)", nativeQuery = true)
+    int rebuildFromVehicles(LocalDateTime from, LocalDateTime to);
+}
@@ -1,7 +1,7 @@
 package com.estapar.parking.repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,11 +10,30 @@ import org.springframework.data.jpa.repository.Query;
 import com.estapar.parking.entity.Vehicle;
 
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
-    @Query("SELECT v FROM Vehicle v WHERE v.licensePlate = :licensePlate AND v.status != 'EXITED'")
+    /**
+     * Veículo ainda no estacionamento com a placa informada.
+     * Status em lista (e não "!= EXITED") para que a busca seja um intervalo
+     * no índice idx_vehicles_plate_status (placa, status), sem ler o histórico.
+     */
+    @Query("SELECT v FROM Vehicle v WHERE v.licensePlate = :licensePlate AND v.status IN ('ENTERED', 'PARKED')")
     Optional<Vehicle> findActiveByLicensePlate(String licensePlate);
 
-    @Query("SELECT COALESCE(SUM(v.totalAmount), 0) FROM Vehicle v WHERE v.parkingSpot.sector.name = :sectorName AND v.exitTime >= :startDate AND v.exitTime < :endDate")
-    BigDecimal calculateRevenueBySectorAndDate(String sectorName, LocalDateTime startDate, LocalDateTime endDate);
-
 	Optional<Vehicle> findByLicensePlate(String licensePlate);
+
+    /**
+     * Veículos ainda no estacionamento, usados para semear o registro em memória.
+     */
+    @Query("SELECT v.licensePlate AS licensePlate, v.id AS id, v.parkingSpot.id AS spotId, v.entryTime AS entryTime "
+         + "FROM Vehicle v WHERE v.status IN ('ENTERED', 'PARKED')")
+    List<ActiveVehicleRow> findAllActive();
+
+    /**
+     * Projeção enxuta de um veículo ativo.
+     */
+    interface ActiveVehicleRow {
+        String getLicensePlate();
+        Long getId();
+        Long getSpotId();
+        LocalDateTime getEntryTime();
+    }
 }
\ No newline at end of file
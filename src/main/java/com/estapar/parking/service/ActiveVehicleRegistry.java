@@ -0,0 +1,232 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.VehicleRepository.ActiveVehicleRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro em memória dos veículos presentes no estacionamento, por placa.
+ *
+ * Substitui a consulta por placa em "vehicles" a cada entrada e saída:
+ * a verificação de veículo já estacionado e a localização do veículo na
+ * saída passam a ser leituras em um ConcurrentHashMap.
+ *
+ * Placas de até 12 caracteres alfanuméricos (todas as placas brasileiras)
+ * são compactadas em um long, em base 37, sem distinção entre maiúsculas e
+ * minúsculas, como na collation do MySQL. As demais ficam em um mapa
+ * auxiliar indexado pela placa em maiúsculas.
+ *
+ * O registro é semeado na inicialização a partir dos veículos não EXITED
+ * e alterado dentro da transação da entrada ou saída. Cada alteração é
+ * anotada em um diário da transação corrente; em caso de rollback o diário
+ * é desfeito em ordem inversa, o que mantém o registro correto mesmo quando
+ * um lote com entrada e saída da mesma placa é revertido.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.ParkingService
+ */
+@Component
+public class ActiveVehicleRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveVehicleRegistry.class);
+
+    private static final int MAX_PACKED_LENGTH = 12;
+    private static final int RADIX = 37;
+
+    /**
+     * Veículo presente no estacionamento.
+     *
+     * @param vehicleId id do registro em "vehicles"
+     * @param spotId vaga ocupada
+     * @param entryTime horário de entrada
+     */
+    public record ActiveVehicle(long vehicleId, long spotId, LocalDateTime entryTime) {
+    }
+
+    private final ConcurrentHashMap<Long, ActiveVehicle> packed = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ActiveVehicle> unpacked = new ConcurrentHashMap<>();
+
+    /**
+     * Substitui o conteúdo do registro pelos veículos ativos persistidos.
+     *
+     * @param rows projeção (placa, id, vaga, entrada) dos veículos não EXITED
+     */
+    public void rebuild(Collection<? extends ActiveVehicleRow> rows) {
+        packed.clear();
+        unpacked.clear();
+        int duplicates = 0;
+        for (ActiveVehicleRow row : rows) {
+            var vehicle = new ActiveVehicle(row.getId(), row.getSpotId() == null ? -1 : row.getSpotId(), row.getEntryTime());
+            if (putIfAbsent(row.getLicensePlate(), vehicle) != null) {
+                duplicates++;
+            }
+        }
+        if (duplicates > 0) {
+            log.warn("{} placas com mais de um registro ativo - mantido o primeiro", duplicates);
+        }
+        log.info("Registro de veículos ativos reconstruído: {} veículos", size());
+    }
+
+    /**
+     * Veículo presente com a placa informada.
+     *
+     * @param licensePlate placa
+     * @return veículo, ou null se a placa não estiver no estacionamento
+     */
+    public ActiveVehicle find(String licensePlate) {
+        long key = pack(licensePlate);
+        return key != 0 ? packed.get(key) : unpacked.get(normalize(licensePlate));
+    }
+
+    public boolean contains(String licensePlate) {
+        return find(licensePlate) != null;
+    }
+
+    /**
+     * Registra a entrada de um veículo; desfeito se a transação corrente
+     * sofrer rollback.
+     *
+     * @return false se a placa já estiver registrada
+     */
+    public boolean register(String licensePlate, ActiveVehicle vehicle) {
+        if (putIfAbsent(licensePlate, vehicle) != null) {
+            return false;
+        }
+        journal(() -> remove(licensePlate, vehicle));
+        return true;
+    }
+
+    /**
+     * Remove o veículo na saída; restaurado se a transação corrente
+     * sofrer rollback.
+     *
+     * @param vehicle registro obtido por {@link #find(String)}
+     */
+    public void unregister(String licensePlate, ActiveVehicle vehicle) {
+        if (remove(licensePlate, vehicle)) {
+            UndoLog undoLog = journal(() -> putIfAbsent(licensePlate, vehicle));
+            if (undoLog != null) {
+                undoLog.exited.add(key(licensePlate));
+            }
+        }
+    }
+
+    /**
+     * Indica se a placa saiu na transação corrente (micro-lote com saída e
+     * nova entrada da mesma placa).
+     */
+    public boolean exitedInCurrentTransaction(String licensePlate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        var undoLog = (UndoLog) TransactionSynchronizationManager.getResource(this);
+        return undoLog != null && undoLog.exited.contains(key(licensePlate));
+    }
+
+    public int size() {
+        return packed.size() + unpacked.size();
+    }
+
+    /**
+     * Compacta a placa em um long: cada caractere [0-9A-Za-z] vira um dígito
+     * de 1 a 36 em base 37, de forma que placas de tamanhos diferentes nunca
+     * coincidam.
+     *
+     * @return placa compactada, ou 0 se a placa não puder ser compactada
+     */
+    static long pack(String licensePlate) {
+        if (licensePlate == null || licensePlate.isEmpty() || licensePlate.length() > MAX_PACKED_LENGTH) {
+            return 0;
+        }
+        long key = 0;
+        for (int i = 0; i < licensePlate.length(); i++) {
+            char c = licensePlate.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0' + 1;
+            } else if (c >= 'A' && c <= 'Z') {
+                digit = c - 'A' + 11;
+            } else if (c >= 'a' && c <= 'z') {
+                digit = c - 'a' + 11;
+            } else {
+                return 0;
+            }
+            key = key * RADIX + digit;
+        }
+        return key;
+    }
+
+    private ActiveVehicle putIfAbsent(String licensePlate, ActiveVehicle vehicle) {
+        long key = pack(licensePlate);
+        return key != 0 ? packed.putIfAbsent(key, vehicle) : unpacked.putIfAbsent(normalize(licensePlate), vehicle);
+    }
+
+    private boolean remove(String licensePlate, ActiveVehicle vehicle) {
+        long key = pack(licensePlate);
+        return key != 0 ? packed.remove(key, vehicle) : unpacked.remove(normalize(licensePlate), vehicle);
+    }
+
+    private static String normalize(String licensePlate) {
+        return String.valueOf(licensePlate).toUpperCase(Locale.ROOT);
+    }
+
+    private static Object key(String licensePlate) {
+        long key = pack(licensePlate);
+        return key != 0 ? key : normalize(licensePlate);
+    }
+
+    /**
+     * Anota uma ação de compensação no diário da transação corrente.
+     * Sem transação ativa, a alteração é definitiva e nada é anotado.
+     *
+     * @return diário da transação, ou null sem transação ativa
+     */
+    private UndoLog journal(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        var undoLog = (UndoLog) TransactionSynchronizationManager.getResource(this);
+        if (undoLog == null) {
+            undoLog = new UndoLog();
+            TransactionSynchronizationManager.bindResource(this, undoLog);
+            TransactionSynchronizationManager.registerSynchronization(undoLog);
+        }
+        undoLog.actions.push(undo);
+        return undoLog;
+    }
+
+    /**
+     * Diário de alterações de uma transação, desfeito em ordem inversa
+     * no rollback.
+     */
+    private final class UndoLog implements TransactionSynchronization {
+
+        private final Deque<Runnable> actions = new ArrayDeque<>();
+        /** Placas (chaves) que saíram nesta transação. */
+        private final Set<Object> exited = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ActiveVehicleRegistry.this);
+            if (status == STATUS_ROLLED_BACK) {
+                while (!actions.isEmpty()) {
+                    actions.pop().run();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.estapar.parking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Controle de admissão do webhook baseado na profundidade da fila.
+ *
+ * Em vez de aceitar eventos até a fila transbordar, o webhook passa a
+ * desacelerar os produtores antes disso:
+ * - abaixo da marca baixa (parking.admission.low-watermark) tudo é aceito
+ * - entre as marcas baixa e alta, eventos são recusados com HTTP 429 com
+ *   probabilidade crescente (estilo RED - Random Early Detection)
+ * - acima da marca alta, todos são recusados com HTTP 503
+ *
+ * As marcas são frações da capacidade da partição de destino do evento,
+ * que é a que efetivamente transborda. Toda recusa traz um Retry-After
+ * calculado a partir da vazão medida dos consumidores (média móvel
+ * exponencial de eventos processados por segundo): o tempo para a
+ * partição drenar até a marca baixa.
+ *
+ * Opcionalmente (parking.admission.gate-rate-per-second > 0), cada cancela
+ * - identificada pelo header X-Gate-Id ou, na ausência dele, pelo IP - tem
+ * um limite de taxa próprio (GCRA, o mesmo do rate limit HTTP), recusando
+ * com 429 quando excede sua taxa. Com o máximo de cancelas rastreadas
+ * atingido, as mais próximas de recuperar a rajada inteira dão lugar às
+ * novas: identificadores forjados não liberam cancelas que estão sendo
+ * limitadas.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.controller.WebhookController
+ */
+@Component
+public class AdmissionControl {
+
+    /** Peso da amostra mais recente na média móvel da vazão */
+    private static final double EWMA_ALPHA = 0.3;
+    private static final int MAX_GATES = 10_000;
+
+    private final EventQueueService eventQueueService;
+    private final boolean enabled;
+    private final double lowWatermark;
+    private final double highWatermark;
+    private final long maxRetryAfterSeconds;
+    private final double gateRatePerSecond;
+
+    /** Intervalo de emissão e tolerância do GCRA por cancela, em nanossegundos */
+    private final long gateIntervalNanos;
+    private final long gateToleranceNanos;
+
+    private final GcraRateLimiter gates = new GcraRateLimiter(MAX_GATES);
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Estado da medição de vazão, atualizado apenas pela tarefa agendada
+    private volatile double drainRate;
+    private long lastProcessed;
+    private long lastSampleNanos = System.nanoTime();
+
+    /**
+     * Resultado da admissão de um evento.
+     *
+     * @param admitted          true se o evento pode ser enfileirado
+     * @param status            status HTTP da recusa (429 ou 503), ou 202 quando admitido
+     * @param retryAfterSeconds valor do header Retry-After, 0 quando admitido
+     * @param reason            motivo da recusa, para log
+     */
+    public record Decision(boolean admitted, HttpStatus status, long retryAfterSeconds, String reason) {
+
+        private static final Decision ADMIT = new Decision(true, HttpStatus.ACCEPTED, 0, null);
+
+        public static Decision admit() {
+            return ADMIT;
+        }
+    }
+
+    @Autowired
+    public AdmissionControl(EventQueueService eventQueueService,
+                            @Value("${parking.admission.enabled:true}") boolean enabled,
+                            @Value("${parking.admission.low-watermark:0.7}") double lowWatermark,
+                            @Value("${parking.admission.high-watermark:0.9}") double highWatermark,
+                            @Value("${parking.admission.max-retry-after-seconds:30}") long maxRetryAfterSeconds,
+                            @Value("${parking.admission.gate-rate-per-second:0}") double gateRatePerSecond,
+                            @Value("${parking.admission.gate-burst:20}") double gateBurst) {
+        if (lowWatermark <= 0 || lowWatermark >= highWatermark || highWatermark > 1) {
+            throw new IllegalArgumentException(
+                "parking.admission exige 0 < low-watermark < high-watermark <= 1");
+        }
+        this.eventQueueService = eventQueueService;
+        this.enabled = enabled;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.maxRetryAfterSeconds = Math.max(1, maxRetryAfterSeconds);
+        this.gateRatePerSecond = gateRatePerSecond;
+        this.gateIntervalNanos = gateRatePerSecond > 0
+            ? Math.max(1, (long) Math.ceil(TimeUnit.SECONDS.toNanos(1) / gateRatePerSecond))
+            : 0;
+        this.gateToleranceNanos = (long) (Math.max(1, gateBurst) * gateIntervalNanos);
+        this.lastProcessed = eventQueueService.getProcessedCount();
+    }
+
+    /**
+     * Decide se um evento pode ser enfileirado.
+     *
+     * @param gate         identificador da cancela (X-Gate-Id ou IP)
+     * @param licensePlate placa do evento, que determina sua partição
+     * @return decisão com status e Retry-After em caso de recusa
+     */
+    public Decision admit(String gate, String licensePlate) {
+        if (!enabled) {
+            return Decision.admit();
+        }
+
+        if (gateRatePerSecond > 0 && gate != null) {
+            long waitNanos = gates.acquire(gate, gateIntervalNanos, gateToleranceNanos, System.nanoTime());
+            if (waitNanos > 0) {
+                shed.incrementAndGet();
+                long retryAfter = Math.min(maxRetryAfterSeconds,
+                    Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+                return new Decision(false, HttpStatus.TOO_MANY_REQUESTS, retryAfter, "Taxa da cancela excedida");
+            }
+        }
+
+        int depth = eventQueueService.getPartitionDepth(licensePlate);
+        int capacity = eventQueueService.getPartitionCapacity();
+        double fill = (double) depth / capacity;
+
+        if (fill >= highWatermark) {
+            rejected.incrementAndGet();
+            return new Decision(false, HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds(depth, capacity),
+                "Fila acima da marca alta");
+        }
+        if (fill >= lowWatermark) {
+            double dropProbability = (fill - lowWatermark) / (highWatermark - lowWatermark);
+            if (ThreadLocalRandom.current().nextDouble() < dropProbability) {
+                shed.incrementAndGet();
+                return new Decision(false, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(depth, capacity),
+                    "Fila acima da marca baixa");
+            }
+        }
+        return Decision.admit();
+    }
+
+    /**
+     * Retry-After para um evento aceito pela admissão mas recusado pela fila.
+     *
+     * @param licensePlate placa do evento, que determina sua partição
+     */
+    public long retryAfterSeconds(String licensePlate) {
+        return retryAfterSeconds(eventQueueService.getPartitionDepth(licensePlate),
+            eventQueueService.getPartitionCapacity());
+    }
+
+    /**
+     * Tempo estimado, em segundos, para a partição drenar até a marca baixa,
+     * considerando a vazão medida dividida igualmente entre as partições.
+     */
+    private long retryAfterSeconds(int depth, int capacity) {
+        double excess = depth - lowWatermark * capacity;
+        double partitionRate = drainRate / eventQueueService.getPartitionCount();
+        if (excess <= 0) {
+            return 1;
+        }
+        if (partitionRate <= 0) {
+            return maxRetryAfterSeconds;
+        }
+        return Math.min(maxRetryAfterSeconds, Math.max(1, (long) Math.ceil(excess / partitionRate)));
+    }
+
+    /**
+     * Atualiza a média móvel da vazão dos consumidores (eventos/segundo).
+     */
+    @Scheduled(fixedRateString = "${parking.admission.sample-interval-ms:1000}")
+    public synchronized void sampleDrainRate() {
+        long now = System.nanoTime();
+        long processed = eventQueueService.getProcessedCount();
+        double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+        if (seconds <= 0) {
+            return;
+        }
+        if (processed == lastProcessed && eventQueueService.getQueueSize() == 0) {
+            // Fila ociosa não diz nada sobre a vazão: mantém a última medida
+            lastSampleNanos = now;
+            return;
+        }
+        double instant = (processed - lastProcessed) / seconds;
+        drainRate = drainRate == 0 ? instant : EWMA_ALPHA * instant + (1 - EWMA_ALPHA) * drainRate;
+        lastProcessed = processed;
+        lastSampleNanos = now;
+    }
+
+    /**
+     * Remove periodicamente as cancelas que voltaram a ter a rajada inteira.
+     */
+    @Scheduled(fixedDelayString = "${parking.admission.gate-eviction-interval-ms:60000}")
+    public void evictIdleGates() {
+        gates.evictIdle(System.nanoTime());
+    }
+
+    /**
+     * @return vazão medida dos consumidores, em eventos por segundo
+     */
+    public double getDrainRate() {
+        return drainRate;
+    }
+
+    /**
+     * @return eventos recusados com 429 (descarte antecipado ou taxa da cancela)
+     */
+    public long getShedCount() {
+        return shed.get();
+    }
+
+    /**
+     * @return eventos recusados com 503 (fila acima da marca alta)
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
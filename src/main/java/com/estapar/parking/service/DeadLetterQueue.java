@@ -0,0 +1,377 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.DeadLetterEntry;
+import com.estapar.parking.dto.WebhookEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dead Letter Queue (DLQ) limitada e persistente.
+ *
+ * Recebe apenas eventos cuja aplicação falhou (eventos recusados pela fila
+ * cheia são devolvidos ao produtor), registrando o motivo e agendando novas
+ * tentativas com backoff exponencial (base * 2^(tentativas-1), limitado a
+ * retry-max-ms, com jitter).
+ * Após parking.dlq.max-attempts falhas o evento permanece na DLQ apenas
+ * para replay manual.
+ *
+ * Limites:
+ * - parking.dlq.max-entries: total de entradas; acima disso novos eventos
+ *   são descartados com log de erro
+ * - parking.dlq.memory-entries: entradas mantidas no heap; com persistência
+ *   habilitada, as demais ficam apenas em disco e são carregadas conforme
+ *   a DLQ esvazia. Das entradas em disco só o horário da próxima tentativa
+ *   fica em memória, para que as novas tentativas também as alcancem
+ *
+ * Com parking.dlq.persistent=true cada entrada é gravada como um arquivo
+ * JSON em parking.dlq.directory e recarregada na inicialização.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.EventQueueService
+ * @see com.estapar.parking.controller.DLQController
+ */
+@Component
+public class DeadLetterQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterQueue.class);
+
+    private static final String FILE_SUFFIX = ".json";
+
+    private final boolean persistent;
+    private final Path directory;
+    private final int maxEntries;
+    private final int memoryEntries;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong added = new AtomicLong();
+
+    // Protegidos por "this"
+    private final TreeSet<Long> ids = new TreeSet<>();
+    private final Map<Long, DeadLetterEntry> loaded = new HashMap<>();
+    /** Entradas apenas em disco → próxima tentativa (null se esgotadas). */
+    private final TreeMap<Long, LocalDateTime> spilled = new TreeMap<>();
+
+    @Autowired
+    public DeadLetterQueue(@Value("${parking.dlq.persistent:false}") boolean persistent,
+                           @Value("${parking.dlq.directory:data/dlq}") String directory,
+                           @Value("${parking.dlq.max-entries:10000}") int maxEntries,
+                           @Value("${parking.dlq.memory-entries:1000}") int memoryEntries,
+                           @Value("${parking.dlq.max-attempts:5}") int maxAttempts,
+                           @Value("${parking.dlq.retry-base-ms:1000}") long retryBaseMillis,
+                           @Value("${parking.dlq.retry-max-ms:60000}") long retryMaxMillis,
+                           ObjectMapper objectMapper) {
+        this(persistent, Path.of(directory), maxEntries, memoryEntries, maxAttempts,
+            retryBaseMillis, retryMaxMillis, objectMapper);
+    }
+
+    DeadLetterQueue(boolean persistent, Path directory, int maxEntries, int memoryEntries, int maxAttempts,
+                    long retryBaseMillis, long retryMaxMillis, ObjectMapper objectMapper) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("parking.dlq.max-entries deve ser >= 1");
+        }
+        this.persistent = persistent;
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        // Sem disco não há para onde transbordar: tudo fica em memória
+        this.memoryEntries = persistent ? Math.max(1, Math.min(memoryEntries, maxEntries)) : maxEntries;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseMillis = Math.max(0, retryBaseMillis);
+        this.retryMaxMillis = Math.max(this.retryBaseMillis, retryMaxMillis);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Recarrega as entradas persistidas em disco.
+     */
+    @PostConstruct
+    public synchronized void open() {
+        if (!persistent) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            try (var files = Files.list(directory)) {
+                files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(FILE_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - FILE_SUFFIX.length())))
+                    .forEach(id -> {
+                        var entry = read(id);
+                        if (entry != null) {
+                            ids.add(id);
+                            spilled.put(id, entry.getNextAttemptAt());
+                        }
+                    });
+            }
+            if (!ids.isEmpty()) {
+                nextId.set(ids.last() + 1);
+            }
+            refill();
+            log.info("DLQ aberta em {}: {} entrada(s) recuperada(s)", directory.toAbsolutePath(), ids.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir DLQ em " + directory, e);
+        }
+    }
+
+    /**
+     * Registra uma falha do evento e agenda a próxima tentativa.
+     *
+     * @param event evento com falha de processamento
+     * @param cause motivo da falha
+     * @return false se a DLQ estiver cheia e o evento foi descartado
+     */
+    public boolean add(WebhookEvent event, String cause) {
+        var now = LocalDateTime.now();
+        int attempts = event.getDeliveryAttempts() + 1;
+        var entry = new DeadLetterEntry(0, event, cause, attempts, now, now, nextAttemptAt(attempts, now));
+
+        synchronized (this) {
+            if (ids.size() >= maxEntries) {
+                long total = dropped.incrementAndGet();
+                log.error("DLQ cheia ({} entradas)! Evento descartado: {} - {} ({} descartado(s) no total)",
+                    maxEntries, event.getEventType(), event.getLicensePlate(), total);
+                return false;
+            }
+            entry.setId(nextId.getAndIncrement());
+            if (persistent) {
+                write(entry);
+            }
+            ids.add(entry.getId());
+            if (loaded.size() < memoryEntries) {
+                loaded.put(entry.getId(), entry);
+            } else {
+                spilled.put(entry.getId(), entry.getNextAttemptAt());
+            }
+        }
+        added.incrementAndGet();
+        log.warn("Evento movido para DLQ: {} - {} (tentativa {}, motivo: {})",
+            event.getEventType(), event.getLicensePlate(), attempts, cause);
+        return true;
+    }
+
+    /**
+     * @param limit número máximo de entradas retornadas
+     * @return entradas cuja próxima tentativa já venceu, em ordem de chegada;
+     *         as que estão apenas em disco são lidas do arquivo
+     */
+    public synchronized List<DeadLetterEntry> due(int limit) {
+        var now = LocalDateTime.now();
+        List<DeadLetterEntry> result = new ArrayList<>();
+        for (Long id : ids) {
+            var entry = loaded.get(id);
+            var nextAttemptAt = entry != null ? entry.getNextAttemptAt() : spilled.get(id);
+            if (nextAttemptAt == null || nextAttemptAt.isAfter(now)) {
+                continue;
+            }
+            if (entry == null) {
+                entry = read(id);
+                if (entry == null) {
+                    continue;
+                }
+            }
+            result.add(entry);
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param id identificador da entrada
+     * @return a entrada, lida do disco se não estiver em memória
+     */
+    public synchronized Optional<DeadLetterEntry> get(long id) {
+        if (!ids.contains(id)) {
+            return Optional.empty();
+        }
+        var entry = loaded.get(id);
+        return Optional.ofNullable(entry != null ? entry : read(id));
+    }
+
+    /**
+     * Página de entradas em ordem de chegada.
+     *
+     * @param page página (a partir de 0)
+     * @param size tamanho da página
+     */
+    public synchronized List<DeadLetterEntry> page(int page, int size) {
+        List<DeadLetterEntry> result = new ArrayList<>();
+        long skip = (long) Math.max(0, page) * size;
+        for (Long id : ids) {
+            if (result.size() >= size) {
+                break;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            var entry = loaded.get(id);
+            if (entry == null) {
+                entry = read(id);
+            }
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove uma entrada (reenfileirada ou descartada).
+     *
+     * @return true se a entrada existia
+     */
+    public synchronized boolean remove(long id) {
+        if (!ids.remove(id)) {
+            return false;
+        }
+        loaded.remove(id);
+        spilled.remove(id);
+        delete(id);
+        refill();
+        return true;
+    }
+
+    /**
+     * Remove todas as entradas.
+     *
+     * @return quantidade de entradas removidas
+     */
+    public synchronized int purge() {
+        int count = ids.size();
+        ids.forEach(this::delete);
+        ids.clear();
+        loaded.clear();
+        spilled.clear();
+        log.info("DLQ esvaziada: {} entrada(s) removida(s)", count);
+        return count;
+    }
+
+    /**
+     * @return identificadores de todas as entradas, em ordem de chegada
+     */
+    public synchronized List<Long> ids() {
+        return List.copyOf(ids);
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    /**
+     * @return eventos registrados na DLQ desde a inicialização (inclusive
+     *         novas falhas de eventos reenfileirados)
+     */
+    public long getAddedCount() {
+        return added.get();
+    }
+
+    /**
+     * @return eventos descartados por a DLQ estar cheia desde a inicialização
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Calcula a próxima tentativa: base * 2^(tentativas-1), limitado ao
+     * máximo, com até 50% de jitter para não sincronizar os reenvios.
+     */
+    private LocalDateTime nextAttemptAt(int attempts, LocalDateTime now) {
+        if (attempts >= maxAttempts) {
+            return null;
+        }
+        long delay = retryBaseMillis << Math.min(attempts - 1, 30);
+        delay = Math.min(delay, retryMaxMillis);
+        if (delay > 0) {
+            delay += ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        }
+        return now.plusNanos(delay * 1_000_000);
+    }
+
+    /**
+     * Carrega em memória as entradas mais antigas que estão apenas em disco.
+     */
+    private void refill() {
+        while (loaded.size() < memoryEntries && !spilled.isEmpty()) {
+            long id = spilled.pollFirstEntry().getKey();
+            var entry = read(id);
+            if (entry != null) {
+                loaded.put(id, entry);
+            } else {
+                ids.remove(id);
+            }
+        }
+    }
+
+    private void write(DeadLetterEntry entry) {
+        var file = fileOf(entry.getId());
+        var temp = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, objectMapper.writeValueAsBytes(entry));
+            try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar entrada da DLQ", e);
+        }
+    }
+
+    private DeadLetterEntry read(long id) {
+        if (!persistent) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(Files.readAllBytes(fileOf(id)), DeadLetterEntry.class);
+        } catch (IOException e) {
+            log.error("Falha ao ler entrada {} da DLQ: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    private void delete(long id) {
+        if (!persistent) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(fileOf(id));
+        } catch (IOException e) {
+            log.error("Falha ao remover entrada {} da DLQ: {}", id, e.getMessage());
+        }
+    }
+
+    private Path fileOf(long id) {
+        return directory.resolve(String.format("%020d%s", id, FILE_SUFFIX));
+    }
+}
@@ -1,29 +1,161 @@
 package com.estapar.parking.service;
 
+import com.estapar.parking.dto.DeadLetterEntry;
 import com.estapar.parking.dto.WebhookEvent;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.Queue;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Fila assíncrona de eventos do simulador, particionada por placa.
+ *
+ * Os eventos são distribuídos entre N partições pelo hash da placa, cada
+ * uma com sua própria thread consumidora. Assim, eventos de um mesmo
+ * veículo (ENTRY → PARKED → EXIT) continuam sendo processados em ordem,
+ * enquanto veículos diferentes são processados em paralelo.
+ *
+ * Configuração:
+ * - parking.queue.consumers: número de partições/consumidores (padrão 1)
+ * - parking.queue.capacity: capacidade total, dividida entre as partições
+ * - parking.queue.thread-mode: "platform" (padrão) ou "virtual"
+ * - parking.queue.wait-strategy: espera do consumidor sem eventos
+ *   ("blocking" padrão, "sleeping", "yielding" ou "busy-spin")
+ *
+ * Cada partição é um {@link EventRingBuffer} com slots pré-alocados: o
+ * enqueue copia os campos do evento para o slot, sem alocar nós nem
+ * disputar locks com o consumidor.
+ *
+ * No modo "virtual" cada consumidor roda em uma virtual thread (Java 21):
+ * enquanto um consumidor aguarda I/O bloqueante do JDBC, a carrier thread
+ * fica livre para outros consumidores. Isso torna barato usar dezenas de
+ * partições, limitadas apenas pelo pool de conexões do banco.
+ *
+ * Micro-lotes (parking.queue.batch-size > 1): cada consumidor drena até N
+ * eventos, aguardando no máximo parking.queue.batch-wait-ms pelo lote, e
+ * aplica todos em uma única transação (um commit/flush por lote). Se o lote
+ * falhar, ele é revertido por inteiro e os eventos são reprocessados um a um,
+ * de forma que um evento inválido não contamine os demais.
+ *
+ * Durabilidade (parking.wal.enabled=true): cada evento é gravado no
+ * {@link EventWriteAheadLog} antes de entrar na fila, e marcado como
+ * processado depois de aplicado. Eventos pendentes no momento de um
+ * restart são reenfileirados na criação do serviço, antes de o servidor
+ * HTTP aceitar novos eventos. No encerramento, cada consumidor conclui o
+ * lote em andamento antes de o write-ahead log gravar o checkpoint final.
+ *
+ * Métricas: o tempo de aplicação de cada tipo de evento e a espera na
+ * partição (da aceitação ao consumo) são medidos em {@link ParkingMetrics};
+ * profundidade, recusas e processados são lidos dos contadores deste
+ * serviço na coleta. Cada evento aplicado também emite um evento do JDK
+ * Flight Recorder ({@link ParkingFlightEvents.EventProcessing}).
+ *
+ * Eventos cuja aplicação falhou vão para a {@link DeadLetterQueue}; eventos
+ * recusados pela fila cheia não, pois o produtor recebe a recusa e reenvia
+ * (a admissão antecipada fica em {@link AdmissionControl}). Uma tarefa agendada (parking.dlq.retry-interval-ms)
+ * reenfileira as entradas com tentativa vencida nas partições que tiverem
+ * espaço. Um evento reenfileirado pela DLQ pode ser aplicado depois de
+ * eventos mais novos da mesma placa.
+ *
+ * @author Sistema de Estacionamento
+ * @version 2.5
+ * @since 1.0
+ */
 @Service
 public class EventQueueService {
-    
+
     private static final Logger log = LoggerFactory.getLogger(EventQueueService.class);
-    private final BlockingQueue<WebhookEvent> eventQueue = new LinkedBlockingQueue<>(1000);
-    private final Queue<WebhookEvent> deadLetterQueue = new ConcurrentLinkedQueue<>();
+    private static final int RETRY_BATCH = 500;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final List<EventRingBuffer> partitions;
+    private final int partitionCapacity;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final DeadLetterQueue deadLetterQueue;
     private final ParkingService parkingService;
     private final AtomicBoolean paused = new AtomicBoolean(false);
+    private final List<Thread> consumers = new ArrayList<>();
+    private final ThreadMode threadMode;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long batchWaitNanos;
+    private final EventWriteAheadLog writeAheadLog;
+    private final ParkingMetrics metrics;
+
+    /**
+     * Tipo de thread usado pelos consumidores.
+     */
+    public enum ThreadMode {
+        /** Threads de plataforma (uma thread do SO por consumidor) */
+        PLATFORM,
+        /** Virtual threads, que liberam a carrier thread durante I/O bloqueante */
+        VIRTUAL
+    }
 
-    public EventQueueService(ParkingService parkingService) {
+    /**
+     * Espera do consumidor quando a partição está vazia.
+     */
+    public enum WaitStrategy {
+        /** Estaciona a thread até um produtor publicar (sem consumo de CPU ocioso) */
+        BLOCKING,
+        /** Gira, cede a CPU e então dorme em intervalos curtos */
+        SLEEPING,
+        /** Gira e então cede a CPU a cada tentativa */
+        YIELDING,
+        /** Gira continuamente: menor latência, um núcleo ocupado por consumidor */
+        BUSY_SPIN
+    }
+
+    @Autowired
+    public EventQueueService(ParkingService parkingService,
+                             TransactionTemplate transactionTemplate,
+                             EventWriteAheadLog writeAheadLog,
+                             DeadLetterQueue deadLetterQueue,
+                             ParkingMetrics metrics,
+                             @Value("${parking.queue.consumers:1}") int consumerCount,
+                             @Value("${parking.queue.capacity:1000}") int capacity,
+                             @Value("${parking.queue.thread-mode:platform}") String threadMode,
+                             @Value("${parking.queue.batch-size:1}") int batchSize,
+                             @Value("${parking.queue.batch-wait-ms:5}") long batchWaitMillis,
+                             @Value("${parking.queue.wait-strategy:blocking}") String waitStrategy) {
+        if (consumerCount < 1) {
+            throw new IllegalArgumentException("parking.queue.consumers deve ser >= 1");
+        }
+        if (batchSize > 1 && transactionTemplate == null) {
+            throw new IllegalArgumentException("parking.queue.batch-size > 1 exige um TransactionTemplate");
+        }
         this.parkingService = parkingService;
-        startConsumer();
+        this.transactionTemplate = transactionTemplate;
+        this.writeAheadLog = writeAheadLog != null && writeAheadLog.isEnabled() ? writeAheadLog : null;
+        this.deadLetterQueue = deadLetterQueue;
+        this.metrics = metrics;
+        this.threadMode = ThreadMode.valueOf(threadMode.trim().toUpperCase());
+        this.batchSize = Math.max(1, batchSize);
+        this.batchWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, batchWaitMillis));
+        var strategy = WaitStrategy.valueOf(waitStrategy.trim().toUpperCase().replace('-', '_'));
+
+        // Capacidade total dividida igualmente entre as partições
+        this.partitionCapacity = Math.max(1, (capacity + consumerCount - 1) / consumerCount);
+        this.partitions = new ArrayList<>(consumerCount);
+        for (int i = 0; i < consumerCount; i++) {
+            partitions.add(new EventRingBuffer(partitionCapacity, this.batchSize, strategy));
+        }
+        startConsumers();
+        replayWriteAheadLog();
     }
 
     public void pause() {
@@ -34,64 +166,466 @@ public class EventQueueService {
         paused.set(false);
     }
 
+    /**
+     * Enfileira um evento na partição da sua placa.
+     *
+     * @return false se a partição estiver cheia ou o write-ahead log tiver
+     *         sido encerrado; o evento não é retido e cabe ao produtor reenviá-lo
+     */
     public boolean enqueue(WebhookEvent event) {
-        boolean added = eventQueue.offer(event);
-        if (!added) {
-            log.error("Fila cheia! Evento movido para DLQ: {} - {}", event.getEventType(), event.getLicensePlate());
-            deadLetterQueue.offer(event);
+        EventRingBuffer partition = partitionFor(event.getLicensePlate());
+        if (partition.remainingCapacity() == 0) {
+            return rejected(event);
+        }
+        // O evento só é aceito depois de estar em disco
+        if (!persist(event)) {
+            completed(event);
+            rejectedCount.increment();
+            return false;
         }
-        return added;
+        if (!partition.offer(event)) {
+            completed(event);
+            return rejected(event);
+        }
+        return true;
     }
 
-    @Async
-    public void startConsumer() {
-        new Thread(() -> {
-            log.info("Consumidor de eventos iniciado");
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    while (paused.get()) {
-                        Thread.sleep(100);
-                    }
-                    WebhookEvent event = eventQueue.take();
-                    processEvent(event);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.warn("Consumidor interrompido");
+    /**
+     * Enfileira um bloco de eventos com uma única espera de fsync do
+     * write-ahead log para o bloco inteiro.
+     *
+     * @param events eventos na ordem de chegada
+     * @return para cada evento, se foi aceito pela fila
+     */
+    public boolean[] enqueueAll(List<WebhookEvent> events) {
+        // Quantidade de eventos, a partir do início do bloco, que estão em disco
+        int durable = events.size();
+        if (writeAheadLog != null && !events.isEmpty()) {
+            long last = -1;
+            durable = 0;
+            try {
+                for (WebhookEvent event : events) {
+                    last = writeAheadLog.append(event);
+                    durable++;
+                }
+            } catch (IllegalStateException e) {
+                log.warn("Write-ahead log encerrado - recusando {} evento(s) do bloco", events.size() - durable);
+            }
+            if (durable > 0 && !writeAheadLog.awaitDurable(last)) {
+                durable = 0;
+            }
+        }
+        boolean[] accepted = new boolean[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            WebhookEvent event = events.get(i);
+            if (i >= durable) {
+                completed(event);
+                rejectedCount.increment();
+                continue;
+            }
+            accepted[i] = partitionFor(event.getLicensePlate()).offer(event);
+            if (!accepted[i]) {
+                completed(event);
+                rejected(event);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Grava o evento no write-ahead log e aguarda o fsync.
+     *
+     * @return false se o log foi encerrado antes de o evento chegar ao disco
+     */
+    private boolean persist(WebhookEvent event) {
+        if (writeAheadLog == null) {
+            return true;
+        }
+        try {
+            return writeAheadLog.awaitDurable(writeAheadLog.append(event));
+        } catch (IllegalStateException e) {
+            log.warn("Write-ahead log encerrado - evento recusado: {} - {}", event.getEventType(), event.getLicensePlate());
+            return false;
+        }
+    }
+
+    private boolean rejected(WebhookEvent event) {
+        rejectedCount.increment();
+        log.error("Fila cheia! Evento recusado: {} - {}", event.getEventType(), event.getLicensePlate());
+        return false;
+    }
+
+    /**
+     * Reenfileira os eventos recuperados do write-ahead log que não haviam
+     * sido processados antes do último encerramento.
+     *
+     * Executa no construtor, com os consumidores já ativos, aguardando espaço
+     * nas partições. Assim o contexto Spring, e com ele o servidor HTTP, só
+     * conclui a inicialização depois que todos os eventos recuperados estão
+     * na fila: um evento novo de uma placa nunca é aplicado antes dos
+     * eventos recuperados da mesma placa.
+     */
+    private void replayWriteAheadLog() {
+        if (writeAheadLog == null) {
+            return;
+        }
+        List<WebhookEvent> recovered = writeAheadLog.drainRecovered();
+        if (recovered.isEmpty()) {
+            return;
+        }
+        log.info("Reprocessando {} evento(s) recuperados do write-ahead log", recovered.size());
+        try {
+            for (WebhookEvent event : recovered) {
+                partitionFor(event.getLicensePlate()).put(event);
+            }
+            log.info("Eventos do write-ahead log reenfileirados");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shutdown();
+            throw new IllegalStateException("Reprocessamento do write-ahead log interrompido", e);
+        }
+    }
+
+    /**
+     * Reenfileira as entradas da DLQ cuja próxima tentativa já venceu.
+     * Entradas cuja partição está cheia ficam para a próxima execução.
+     *
+     * @return quantidade de eventos reenfileirados
+     */
+    @Scheduled(fixedDelayString = "${parking.dlq.retry-interval-ms:1000}",
+               initialDelayString = "${parking.dlq.retry-interval-ms:1000}")
+    public int retryDeadLetters() {
+        if (paused.get()) {
+            return 0;
+        }
+        int requeued = 0;
+        for (DeadLetterEntry entry : deadLetterQueue.due(RETRY_BATCH)) {
+            if (requeue(entry)) {
+                requeued++;
+            }
+        }
+        if (requeued > 0) {
+            log.info("{} evento(s) reenfileirado(s) a partir da DLQ", requeued);
+        }
+        return requeued;
+    }
+
+    /**
+     * Reenfileira uma entrada da DLQ imediatamente, ignorando o agendamento
+     * e o limite de tentativas.
+     *
+     * @param id identificador da entrada
+     * @return false se a entrada não existir ou a partição estiver cheia
+     */
+    public boolean replayDeadLetter(long id) {
+        return deadLetterQueue.get(id).map(this::requeue).orElse(false);
+    }
+
+    /**
+     * Reenfileira todas as entradas da DLQ enquanto houver espaço nas partições.
+     *
+     * @return quantidade de eventos reenfileirados
+     */
+    public int replayDeadLetters() {
+        int requeued = 0;
+        for (long id : deadLetterQueue.ids()) {
+            if (replayDeadLetter(id)) {
+                requeued++;
+            }
+        }
+        return requeued;
+    }
+
+    /**
+     * Devolve o evento de uma entrada da DLQ à sua partição, removendo a
+     * entrada apenas depois que o evento foi aceito pela fila.
+     */
+    private boolean requeue(DeadLetterEntry entry) {
+        WebhookEvent event = entry.getEvent();
+        EventRingBuffer partition = partitionFor(event.getLicensePlate());
+        if (partition.remainingCapacity() == 0) {
+            return false;
+        }
+        event.setDeliveryAttempts(entry.getAttempts());
+        if (!persist(event) || !partition.offer(event)) {
+            completed(event);
+            return false;
+        }
+        deadLetterQueue.remove(entry.getId());
+        return true;
+    }
+
+    /**
+     * Seleciona a partição de um evento pelo hash da placa.
+     * Eventos sem placa caem sempre na primeira partição.
+     */
+    private EventRingBuffer partitionFor(String licensePlate) {
+        if (licensePlate == null || partitions.size() == 1) {
+            return partitions.get(0);
+        }
+        int hash = licensePlate.hashCode();
+        hash ^= (hash >>> 16); // espalha os bits altos, como no HashMap
+        return partitions.get(Math.floorMod(hash, partitions.size()));
+    }
+
+    private void startConsumers() {
+        var builder = threadMode == ThreadMode.VIRTUAL ? Thread.ofVirtual() : Thread.ofPlatform();
+        for (int i = 0; i < partitions.size(); i++) {
+            var ring = partitions.get(i);
+            var name = partitions.size() == 1 ? "event-consumer" : "event-consumer-" + i;
+            consumers.add(builder.name(name).start(() -> consume(ring)));
+        }
+        log.info("{} consumidor(es) de eventos em threads {}", partitions.size(), threadMode.name().toLowerCase());
+    }
+
+    private void consume(EventRingBuffer ring) {
+        log.info("Consumidor de eventos iniciado");
+        ring.attachConsumer();
+        List<EventRingBuffer.Slot> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                while (paused.get() && !ring.isClosed()) {
+                    Thread.sleep(100);
+                }
+                if (!ring.await()) {
+                    // Partição fechada no encerramento
                     break;
-                } catch (Exception e) {
-                    log.error("Erro ao processar evento", e);
+                }
+                if (paused.get()) {
+                    // Pausada durante a espera: o evento permanece na partição
+                    continue;
+                }
+                batch.add(ring.take());
+                if (batchSize > 1) {
+                    fillBatch(ring, batch);
+                }
+                long now = System.nanoTime();
+                for (var slot : batch) {
+                    metrics.recordConsumerLag(now - slot.acceptedNanos);
+                }
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Consumidor interrompido");
+                break;
+            } catch (Exception e) {
+                log.error("Erro ao processar evento", e);
+            } finally {
+                if (!batch.isEmpty()) {
+                    // Slots devolvidos aos produtores só depois do lote aplicado
+                    batch.clear();
+                    ring.release();
                 }
             }
-        }, "event-consumer").start();
+        }
     }
 
-    private void processEvent(WebhookEvent event) {
+    /**
+     * Completa o lote com eventos já disponíveis e aguarda pelos demais
+     * até o limite de tempo configurado.
+     */
+    private void fillBatch(EventRingBuffer ring, List<EventRingBuffer.Slot> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + batchWaitNanos;
+        while (batch.size() < batchSize && ring.await(deadline)) {
+            batch.add(ring.take());
+        }
+    }
+
+    /**
+     * Aplica um lote de eventos em uma única transação. Em caso de falha,
+     * o lote inteiro é revertido e cada evento é reprocessado isoladamente.
+     *
+     * Os eventos JFR e os tempos de processamento do lote só são gravados
+     * após o commit: um lote revertido não registra como concluídos eventos
+     * que serão reprocessados. O tempo de cada evento soma à sua aplicação
+     * uma parcela igual do flush e do commit do lote, de forma que os tempos
+     * do lote somam a duração da transação.
+     */
+    private void processBatch(List<EventRingBuffer.Slot> batch) {
+        if (batch.size() == 1) {
+            processEvent(batch.get(0));
+            return;
+        }
+        List<ParkingFlightEvents.EventProcessing> recorded = new ArrayList<>(batch.size());
+        long[] dispatchNanos = new long[batch.size()];
+        long started = System.nanoTime();
         try {
-            log.debug("Processando evento: {} - {}", event.getEventType(), event.getLicensePlate());
-            
-            switch (event.getEventType()) {
-                case "ENTRY" -> parkingService.handleEntry(event.getLicensePlate(), event.getEntryTime());
-                case "PARKED" -> parkingService.handleParked(event.getLicensePlate(), event.getLat(), event.getLng());
-                case "EXIT" -> parkingService.handleExit(event.getLicensePlate(), event.getExitTime());
-                default -> log.warn("Tipo de evento desconhecido: {}", event.getEventType());
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    var slot = batch.get(i);
+                    var event = startRecording(slot);
+                    long dispatchStarted = System.nanoTime();
+                    dispatch(slot);
+                    dispatchNanos[i] = System.nanoTime() - dispatchStarted;
+                    event.end();
+                    recorded.add(event);
+                }
+            });
+            long commitShare = Math.max(0, System.nanoTime() - started - Arrays.stream(dispatchNanos).sum()) / batch.size();
+            for (int i = 0; i < batch.size(); i++) {
+                metrics.recordProcessing(batch.get(i).eventType, dispatchNanos[i] + commitShare);
+                var event = recorded.get(i);
+                event.outcome = ParkingFlightEvents.OK;
+                event.commit();
             }
-            
-            log.debug("Evento processado com sucesso: {} - {}", event.getEventType(), event.getLicensePlate());
+            batch.forEach(slot -> completed(slot.walSequence));
+            processed.add(batch.size());
+            log.debug("Lote de {} eventos processado em uma transação", batch.size());
         } catch (Exception e) {
-            log.error("Falha ao processar evento {} - {}: {}", 
-                event.getEventType(), event.getLicensePlate(), e.getMessage());
+            log.warn("Falha no lote de {} eventos ({}) - reprocessando individualmente",
+                batch.size(), e.getMessage());
+            batch.forEach(this::processEvent);
+        }
+    }
+
+    private void processEvent(EventRingBuffer.Slot event) {
+        var recorded = startRecording(event);
+        long started = System.nanoTime();
+        try {
+            dispatch(event);
+            recorded.outcome = ParkingFlightEvents.OK;
+            log.debug("Evento processado com sucesso: {} - {}", event.eventType, event.licensePlate);
+        } catch (Exception e) {
+            recorded.failed(e);
+            log.error("Falha ao processar evento {} - {}: {}",
+                event.eventType, event.licensePlate, e.getMessage());
+            deadLetterQueue.add(event.toEvent(), e.getClass().getSimpleName() + ": " + e.getMessage());
+        } finally {
+            metrics.recordProcessing(event.eventType, System.nanoTime() - started);
+            recorded.commit();
+            completed(event.walSequence);
+            processed.increment();
+        }
+    }
+
+    /**
+     * Inicia o evento JFR do processamento; quem chama grava o resultado e
+     * faz o commit.
+     */
+    private static ParkingFlightEvents.EventProcessing startRecording(EventRingBuffer.Slot event) {
+        var recorded = new ParkingFlightEvents.EventProcessing();
+        recorded.begin();
+        recorded.eventType = event.eventType;
+        recorded.licensePlate = event.licensePlate;
+        recorded.deliveryAttempts = event.deliveryAttempts;
+        return recorded;
+    }
+
+    /**
+     * Libera o evento no write-ahead log, permitindo que o checkpoint avance.
+     */
+    private void completed(WebhookEvent event) {
+        completed(event.getWalSequence());
+    }
+
+    private void completed(long walSequence) {
+        if (writeAheadLog != null) {
+            writeAheadLog.markProcessed(walSequence);
+        }
+    }
+
+    private void dispatch(EventRingBuffer.Slot event) {
+        log.debug("Processando evento: {} - {}", event.eventType, event.licensePlate);
+
+        switch (event.eventType) {
+            case "ENTRY" -> {
+                try {
+                    parkingService.handleEntry(event.licensePlate, event.entryTime);
+                } catch (DataIntegrityViolationException e) {
+                    throw ParkingService.translateEntryFailure(event.licensePlate, e);
+                }
+            }
+            case "PARKED" -> parkingService.handleParked(event.licensePlate, event.lat, event.lng);
+            case "EXIT" -> parkingService.handleExit(event.licensePlate, event.exitTime);
+            default -> log.warn("Tipo de evento desconhecido: {}", event.eventType);
+        }
+    }
+
+    /**
+     * Encerra as threads consumidoras no encerramento da aplicação.
+     *
+     * As partições são fechadas e cada consumidor conclui o lote em andamento
+     * antes de parar; eventos ainda não consumidos permanecem no write-ahead
+     * log. Consumidores que não terminarem em SHUTDOWN_TIMEOUT_MILLIS são
+     * interrompidos. Como este serviço depende do {@link EventWriteAheadLog},
+     * o Spring só fecha o log (e grava o checkpoint final) depois deste método.
+     */
+    @PreDestroy
+    public void shutdown() {
+        partitions.forEach(EventRingBuffer::close);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MILLIS);
+        try {
+            for (Thread consumer : consumers) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) {
+                    consumer.join(Duration.ofNanos(remaining));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Thread consumer : consumers) {
+            if (consumer.isAlive()) {
+                log.warn("Consumidor {} não terminou em {} ms - interrompendo",
+                    consumer.getName(), SHUTDOWN_TIMEOUT_MILLIS);
+                consumer.interrupt();
+            }
         }
     }
 
     public int getQueueSize() {
-        return eventQueue.size();
+        int size = 0;
+        for (var queue : partitions) {
+            size += queue.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return profundidade atual de cada partição, na ordem das partições
+     */
+    public List<Integer> getPartitionSizes() {
+        return partitions.stream().map(EventRingBuffer::size).toList();
+    }
+
+    /**
+     * @param licensePlate placa do evento
+     * @return profundidade atual da partição da placa
+     */
+    public int getPartitionDepth(String licensePlate) {
+        return partitionFor(licensePlate).size();
+    }
+
+    /**
+     * @return capacidade de cada partição
+     */
+    public int getPartitionCapacity() {
+        return partitionCapacity;
+    }
+
+    /**
+     * @return eventos recusados por partição cheia desde a inicialização
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return total de eventos processados (com sucesso ou enviados à DLQ)
+     */
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
     }
 
     public int getDLQSize() {
         return deadLetterQueue.size();
     }
 
-    public Queue<WebhookEvent> getDeadLetterQueue() {
+    public DeadLetterQueue getDeadLetterQueue() {
         return deadLetterQueue;
     }
 }
@@ -0,0 +1,293 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEvent;
+import com.estapar.parking.service.EventQueueService.WaitStrategy;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffer circular de eventos de uma partição: vários produtores (threads
+ * HTTP, DLQ, reprocessamento do write-ahead log) e um único consumidor.
+ *
+ * As posições (slots) são alocadas uma única vez. O produtor reserva uma
+ * sequência com CAS, copia os campos do evento para o slot e publica a
+ * sequência; o consumidor lê os slots em ordem e só os libera depois de
+ * processar o lote, de forma que um lote revertido pode ser reprocessado
+ * a partir dos mesmos slots. Não há nó alocado por evento nem lock
+ * disputado entre produtores e consumidor.
+ *
+ * A capacidade é a mesma da fila anterior: até {@code capacity} eventos
+ * aguardando, além do lote em processamento. O tamanho do buffer é a
+ * potência de 2 que comporta ambos.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.EventQueueService
+ */
+final class EventRingBuffer {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long SLEEP_NANOS = 100_000;
+    private static final long MAX_PARK_NANOS = 10_000_000;
+    private static final long PRODUCER_BACKOFF_NANOS = 100_000;
+
+    /**
+     * Posição do buffer, reutilizada a cada volta.
+     */
+    static final class Slot {
+
+        String eventType;
+        String licensePlate;
+        String entryTime;
+        String exitTime;
+        Double lat;
+        Double lng;
+        long walSequence;
+        int deliveryAttempts;
+        /** Instante ({@link System#nanoTime()}) em que o evento foi aceito pela partição. */
+        long acceptedNanos;
+
+        private void copyFrom(WebhookEvent event) {
+            eventType = event.getEventType();
+            licensePlate = event.getLicensePlate();
+            entryTime = event.getEntryTime();
+            exitTime = event.getExitTime();
+            lat = event.getLat();
+            lng = event.getLng();
+            walSequence = event.getWalSequence();
+            deliveryAttempts = event.getDeliveryAttempts();
+        }
+
+        private void clear() {
+            eventType = null;
+            licensePlate = null;
+            entryTime = null;
+            exitTime = null;
+            lat = null;
+            lng = null;
+        }
+
+        /**
+         * Materializa o evento do slot (usado apenas para a DLQ).
+         */
+        WebhookEvent toEvent() {
+            var event = new WebhookEvent();
+            event.setEventType(eventType);
+            event.setLicensePlate(licensePlate);
+            event.setEntryTime(entryTime);
+            event.setExitTime(exitTime);
+            event.setLat(lat);
+            event.setLng(lng);
+            event.setWalSequence(walSequence);
+            event.setDeliveryAttempts(deliveryAttempts);
+            return event;
+        }
+    }
+
+    private final Slot[] slots;
+    /** Sequência publicada em cada slot; o slot está pronto quando contém a sequência esperada. */
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int capacity;
+    private final WaitStrategy waitStrategy;
+
+    /** Próxima sequência a reservar pelos produtores. */
+    private final AtomicLong claimed = new AtomicLong();
+    /** Próxima sequência a ler pelo consumidor. */
+    private final AtomicLong taken = new AtomicLong();
+    /** Slots anteriores a esta sequência já foram liberados. Escrito só pelo consumidor. */
+    private long released;
+
+    private volatile Thread consumer;
+    private volatile boolean consumerWaiting;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity eventos aguardando consumo
+     * @param maxBatch maior lote mantido pelo consumidor antes da liberação
+     * @param waitStrategy espera do consumidor quando não há eventos
+     */
+    EventRingBuffer(int capacity, int maxBatch, WaitStrategy waitStrategy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacidade deve ser >= 1");
+        }
+        // Potência de 2 >= capacity + maxBatch: um slot só é reutilizado depois de liberado
+        int size = Integer.highestOneBit(capacity + Math.max(1, maxBatch) - 1) << 1;
+        this.slots = new Slot[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+        this.capacity = capacity;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Copia o evento para o próximo slot livre.
+     *
+     * @return false se houver {@code capacity} eventos aguardando consumo
+     */
+    boolean offer(WebhookEvent event) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - taken.get() >= capacity) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        slots[index].copyFrom(event);
+        slots[index].acceptedNanos = System.nanoTime();
+        published.set(index, sequence);
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Enfileira aguardando espaço.
+     */
+    void put(WebhookEvent event) throws InterruptedException {
+        while (!offer(event)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            LockSupport.parkNanos(this, PRODUCER_BACKOFF_NANOS);
+        }
+    }
+
+    int size() {
+        return (int) Math.max(0, claimed.get() - taken.get());
+    }
+
+    int remainingCapacity() {
+        return Math.max(0, capacity - size());
+    }
+
+    /**
+     * Registra a thread consumidora, acordada pelos produtores na espera
+     * bloqueante.
+     */
+    void attachConsumer() {
+        consumer = Thread.currentThread();
+    }
+
+    /**
+     * Encerra a espera do consumidor: {@link #await()} passa a retornar
+     * false em vez de aguardar novos eventos.
+     */
+    void close() {
+        closed = true;
+        Thread waiting = consumer;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Aguarda, sem prazo, até haver um evento a ler.
+     *
+     * @return false se a partição foi fechada sem eventos a ler
+     */
+    boolean await() throws InterruptedException {
+        return await(0, false);
+    }
+
+    /**
+     * Aguarda até haver um evento a ler ou o prazo vencer.
+     *
+     * @param deadlineNanos prazo em {@link System#nanoTime()}
+     * @return false se o prazo venceu ou a partição foi fechada sem eventos
+     */
+    boolean await(long deadlineNanos) throws InterruptedException {
+        return await(deadlineNanos, true);
+    }
+
+    /**
+     * Lê o próximo evento publicado; o slot continua reservado até
+     * {@link #release()}.
+     */
+    Slot take() {
+        long sequence = taken.get();
+        if (!isPublished(sequence)) {
+            throw new IllegalStateException("Nenhum evento publicado na sequência " + sequence);
+        }
+        taken.set(sequence + 1);
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Libera para os produtores os slots lidos até aqui.
+     */
+    void release() {
+        long upTo = taken.get();
+        for (long sequence = released; sequence < upTo; sequence++) {
+            slots[(int) sequence & mask].clear();
+        }
+        released = upTo;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    private boolean await(long deadlineNanos, boolean timed) throws InterruptedException {
+        long sequence = taken.get();
+        int attempts = 0;
+        while (!isPublished(sequence)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (closed) {
+                return false;
+            }
+            long remaining = timed ? deadlineNanos - System.nanoTime() : MAX_PARK_NANOS;
+            if (remaining <= 0) {
+                return false;
+            }
+            switch (waitStrategy) {
+                case BUSY_SPIN -> Thread.onSpinWait();
+                case YIELDING -> {
+                    if (attempts++ < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+                case SLEEPING -> {
+                    if (attempts < SPIN_TRIES) {
+                        attempts++;
+                        Thread.onSpinWait();
+                    } else if (attempts < SPIN_TRIES + YIELD_TRIES) {
+                        attempts++;
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(this, Math.min(remaining, SLEEP_NANOS));
+                    }
+                }
+                case BLOCKING -> {
+                    // Sinaliza a espera antes de reconferir: um produtor que publicar
+                    // depois da conferência vê a sinalização e acorda o consumidor
+                    consumerWaiting = true;
+                    if (!isPublished(sequence)) {
+                        LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+                    }
+                    consumerWaiting = false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,482 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.zip.CRC32;
+
+/**
+ * Log de escrita antecipada (write-ahead log) da fila de eventos.
+ *
+ * Todo evento aceito pelo webhook é gravado neste log antes do HTTP 202,
+ * de forma que um restart não perca eventos que ainda estavam apenas na
+ * fila em memória.
+ *
+ * Estrutura em disco:
+ * - Segmentos "segment-{primeiraSequencia}.wal" de tamanho fixo, mapeados
+ *   em memória (MappedByteBuffer) e preenchidos apenas por append
+ * - Cada registro: [int tamanho][int crc32][long sequência][payload JSON];
+ *   o tamanho é escrito por último, então um registro incompleto termina
+ *   a leitura do segmento
+ * - Arquivo "checkpoint" com a maior sequência S tal que todos os eventos
+ *   até S já foram processados
+ *
+ * Durabilidade (parking.wal.fsync=true): os produtores aguardam o fsync do
+ * segmento, feito por uma única thread em "group commit" — um único force()
+ * cobre todos os registros gravados enquanto o fsync anterior executava.
+ *
+ * Na inicialização, os registros após o checkpoint são recuperados e
+ * reenfileirados; segmentos inteiramente cobertos pelo checkpoint são
+ * removidos periodicamente.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.EventQueueService
+ */
+@Component
+public class EventWriteAheadLog {
+
+    private static final Logger log = LoggerFactory.getLogger(EventWriteAheadLog.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /** Tamanho do cabeçalho de cada registro: tamanho + crc + sequência */
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+
+    /** Sequências gravadas e ainda não processadas, para cálculo do checkpoint */
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+
+    /** Segmentos fechados (base de sequência → arquivo), em ordem crescente */
+    private final List<Segment> closedSegments = new ArrayList<>();
+
+    private final List<WebhookEvent> recovered = new ArrayList<>();
+
+    // Estado de escrita, protegido por "this"
+    private Segment active;
+    private MappedByteBuffer buffer;
+    private long lastSequence = -1;
+    private long checkpoint = -1;
+    private boolean closed;
+
+    // Estado do group commit, protegido por durableMonitor
+    private final Object durableMonitor = new Object();
+    private long durableSequence = -1;
+    private boolean flushRequested;
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Autowired
+    public EventWriteAheadLog(@Value("${parking.wal.enabled:false}") boolean enabled,
+                              @Value("${parking.wal.directory:data/wal}") String directory,
+                              @Value("${parking.wal.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${parking.wal.fsync:true}") boolean fsync,
+                              ObjectMapper objectMapper) {
+        this(enabled, Path.of(directory), segmentSizeMb * 1024 * 1024, fsync, objectMapper);
+    }
+
+    EventWriteAheadLog(boolean enabled, Path directory, int segmentSizeBytes, boolean fsync, ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSizeBytes;
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Abre o log: recupera registros pendentes e prepara o segmento ativo.
+     */
+    @PostConstruct
+    public synchronized void open() {
+        if (!enabled) {
+            log.info("Write-ahead log desabilitado - eventos enfileirados ficam apenas em memória");
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            checkpoint = readCheckpoint();
+            // Segmentos podem ter sido todos removidos; a sequência nunca recua
+            lastSequence = checkpoint;
+
+            List<Segment> segments = listSegments();
+            int tailPosition = 0;
+            for (Segment segment : segments) {
+                tailPosition = recoverSegment(segment);
+            }
+
+            if (!segments.isEmpty() && tailPosition + HEADER_SIZE < segmentSize) {
+                // Continua escrevendo no último segmento, após o último registro válido
+                active = segments.remove(segments.size() - 1);
+                buffer = map(active.path);
+                buffer.position(tailPosition);
+            } else {
+                active = null;
+                rollSegment();
+            }
+            closedSegments.addAll(segments);
+            durableSequence = lastSequence;
+
+            running = true;
+            flusher = Thread.ofPlatform().daemon().name("wal-flusher").start(this::flushLoop);
+
+            log.info("Write-ahead log aberto em {}: checkpoint {}, {} evento(s) a reprocessar",
+                directory.toAbsolutePath(), checkpoint, recovered.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir write-ahead log em " + directory, e);
+        }
+    }
+
+    /**
+     * Fecha o log, gravando um último checkpoint.
+     *
+     * Novos registros passam a ser recusados, e os já gravados são forçados
+     * para o disco antes de liberar os produtores que aguardam o fsync: um
+     * produtor só é liberado com sucesso se o seu registro está em disco.
+     */
+    @PreDestroy
+    public void close() {
+        if (!enabled || !running) {
+            return;
+        }
+        checkpoint();
+        long target;
+        synchronized (this) {
+            closed = true;
+            buffer.force();
+            target = lastSequence;
+        }
+        synchronized (durableMonitor) {
+            durableSequence = Math.max(durableSequence, target);
+            running = false;
+            durableMonitor.notifyAll();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Grava um evento no log e retorna sua sequência.
+     *
+     * @param event evento aceito pelo webhook
+     * @return sequência atribuída ao evento, ou -1 se o log estiver desabilitado
+     * @throws IllegalStateException se o log já foi fechado
+     */
+    public long append(WebhookEvent event) {
+        if (!enabled) {
+            return -1;
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao serializar evento para o write-ahead log", e);
+        }
+        if (HEADER_SIZE + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Evento maior que o segmento do write-ahead log");
+        }
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log encerrado");
+            }
+            if (buffer.remaining() < HEADER_SIZE + payload.length) {
+                rollSegment();
+            }
+            long sequence = ++lastSequence;
+            int start = buffer.position();
+
+            // Grava corpo e sequência primeiro; o tamanho por último "publica" o registro
+            buffer.position(start + Integer.BYTES);
+            buffer.putInt(crc(sequence, payload));
+            buffer.putLong(sequence);
+            buffer.put(payload);
+            int end = buffer.position();
+            buffer.putInt(start, payload.length);
+            buffer.position(end);
+
+            pending.add(sequence);
+            event.setWalSequence(sequence);
+            return sequence;
+        }
+    }
+
+    /**
+     * Aguarda até que a sequência informada esteja gravada em disco (fsync).
+     * Retorna imediatamente se o fsync estiver desabilitado.
+     *
+     * @param sequence sequência retornada por {@link #append(WebhookEvent)}
+     * @return false se o log foi fechado sem que a sequência chegasse ao disco;
+     *         o evento não deve ser aceito
+     */
+    public boolean awaitDurable(long sequence) {
+        if (!enabled || !fsync || sequence < 0) {
+            return true;
+        }
+        synchronized (durableMonitor) {
+            if (durableSequence >= sequence) {
+                return true;
+            }
+            flushRequested = true;
+            durableMonitor.notifyAll();
+            boolean interrupted = false;
+            while (durableSequence < sequence && running) {
+                try {
+                    durableMonitor.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return durableSequence >= sequence;
+        }
+    }
+
+    /**
+     * Marca um evento como processado (com sucesso ou encaminhado à DLQ),
+     * permitindo que o checkpoint avance sobre ele.
+     *
+     * @param sequence sequência do evento, ignorada se negativa
+     */
+    public void markProcessed(long sequence) {
+        if (sequence >= 0) {
+            pending.remove(sequence);
+        }
+    }
+
+    /**
+     * Retorna, uma única vez, os eventos recuperados na abertura do log
+     * que ainda não haviam sido processados.
+     *
+     * @return eventos a reenfileirar, em ordem de sequência
+     */
+    public synchronized List<WebhookEvent> drainRecovered() {
+        var events = List.copyOf(recovered);
+        recovered.clear();
+        return events;
+    }
+
+    /**
+     * Grava o checkpoint e remove segmentos já totalmente processados.
+     *
+     * @return sequência do checkpoint gravado
+     */
+    @Scheduled(fixedDelayString = "${parking.wal.checkpoint-interval-ms:1000}")
+    public long checkpoint() {
+        if (!enabled || !running) {
+            return checkpoint;
+        }
+        List<Segment> removable = new ArrayList<>();
+        long target;
+        synchronized (this) {
+            // Sequências pendentes são sempre <= lastSequence, então o mínimo é seguro
+            Long oldestPending = pending.isEmpty() ? null : pending.first();
+            target = oldestPending != null ? oldestPending - 1 : lastSequence;
+            if (target <= checkpoint) {
+                return checkpoint;
+            }
+            checkpoint = target;
+
+            // Um segmento fechado pode ser removido se todos os seus registros
+            // (até a base do segmento seguinte - 1) estiverem cobertos
+            for (int i = 0; i < closedSegments.size(); i++) {
+                long nextBase = i + 1 < closedSegments.size() ? closedSegments.get(i + 1).base : active.base;
+                if (nextBase - 1 > target) {
+                    break;
+                }
+                removable.add(closedSegments.get(i));
+            }
+            closedSegments.removeAll(removable);
+        }
+
+        try {
+            writeCheckpoint(target);
+            for (Segment segment : removable) {
+                Files.deleteIfExists(segment.path);
+                log.debug("Segmento {} removido do write-ahead log", segment.path.getFileName());
+            }
+        } catch (IOException e) {
+            log.error("Falha ao gravar checkpoint do write-ahead log: {}", e.getMessage());
+        }
+        return target;
+    }
+
+    /**
+     * @return número de segmentos em disco (ativo + fechados)
+     */
+    public synchronized int getSegmentCount() {
+        return enabled && active != null ? closedSegments.size() + 1 : 0;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            synchronized (durableMonitor) {
+                while (!flushRequested && running) {
+                    try {
+                        durableMonitor.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                flushRequested = false;
+            }
+
+            long target;
+            MappedByteBuffer toForce;
+            synchronized (this) {
+                target = lastSequence;
+                toForce = buffer;
+            }
+            // Segmentos anteriores já foram forçados na troca de segmento
+            toForce.force();
+
+            synchronized (durableMonitor) {
+                durableSequence = Math.max(durableSequence, target);
+                durableMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Fecha o segmento ativo (forçando-o para o disco) e abre um novo.
+     * Deve ser chamado com o monitor de "this".
+     */
+    private void rollSegment() {
+        try {
+            if (active != null) {
+                buffer.force();
+                closedSegments.add(active);
+            }
+            long base = lastSequence + 1;
+            var path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+            active = new Segment(base, path);
+            buffer = map(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar segmento do write-ahead log", e);
+        }
+    }
+
+    /**
+     * Lê os registros válidos de um segmento, guardando os não processados.
+     *
+     * @return posição logo após o último registro válido
+     */
+    private int recoverSegment(Segment segment) throws IOException {
+        try (var channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+            var data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int position = 0;
+            while (position + HEADER_SIZE <= data.limit()) {
+                int length = data.getInt(position);
+                if (length <= 0 || position + HEADER_SIZE + length > data.limit()) {
+                    break;
+                }
+                int crc = data.getInt(position + Integer.BYTES);
+                long sequence = data.getLong(position + 2 * Integer.BYTES);
+                byte[] payload = new byte[length];
+                data.get(position + HEADER_SIZE, payload);
+                if (crc != crc(sequence, payload)) {
+                    log.warn("Registro corrompido no segmento {} (posição {}) - descartando o restante",
+                        segment.path.getFileName(), position);
+                    break;
+                }
+
+                lastSequence = Math.max(lastSequence, sequence);
+                if (sequence > checkpoint) {
+                    var event = objectMapper.readValue(payload, WebhookEvent.class);
+                    event.setWalSequence(sequence);
+                    recovered.add(event);
+                    pending.add(sequence);
+                }
+                position += HEADER_SIZE + length;
+            }
+            return position;
+        }
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // O mapeamento permanece válido após o fechamento do canal
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private List<Segment> listSegments() throws IOException {
+        try (var files = Files.list(directory)) {
+            return new ArrayList<>(files
+                .filter(p -> {
+                    var name = p.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .map(p -> {
+                    var name = p.getFileName().toString();
+                    long base = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+                    return new Segment(base, p);
+                })
+                .sorted((a, b) -> Long.compare(a.base, b.base))
+                .toList());
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        var file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+    }
+
+    private void writeCheckpoint(long value) throws IOException {
+        var temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, Long.toString(value), StandardCharsets.UTF_8);
+        try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int crc(long sequence, byte[] payload) {
+        var crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (sequence >>> shift));
+        }
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record Segment(long base, Path path) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.RecordingStatus;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * Gravação do JDK Flight Recorder controlada em tempo de execução
+ * (endpoint /admin/jfr), para investigar incidentes em produção sem
+ * reiniciar a aplicação nem anexar agentes externos.
+ *
+ * Há no máximo uma gravação por vez. Ela usa as configurações do JDK
+ * indicadas em parking.jfr.settings ("default", ~1% de overhead, ou
+ * "profile", com amostragem mais frequente), às quais se somam os eventos
+ * de {@link ParkingFlightEvents}. O conteúdo é mantido em disco, limitado
+ * por parking.jfr.max-age-minutes e parking.jfr.max-size-mb, e gravado em
+ * parking.jfr.directory ao encerrar a gravação ou ao vencer a duração
+ * informada no início.
+ *
+ * Com a gravação em andamento, o download grava um instantâneo do conteúdo
+ * atual em um arquivo temporário, sem interromper a gravação, e o remove
+ * ao fim da leitura. Ao iniciar uma gravação, os arquivos de gravações
+ * anteriores são removidos: o diretório guarda no máximo uma gravação.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.controller.FlightRecordingController
+ */
+@Component
+public class FlightRecording {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecording.class);
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final String FILE_PREFIX = "parking-";
+    private static final String FILE_SUFFIX = ".jfr";
+
+    private final Path directory;
+    private final Configuration configuration;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+
+    // Protegidos por "this"
+    private Recording recording;
+    private Path destination;
+
+    public FlightRecording(@Value("${parking.jfr.directory:data/jfr}") String directory,
+                           @Value("${parking.jfr.settings:default}") String settings,
+                           @Value("${parking.jfr.max-age-minutes:30}") long maxAgeMinutes,
+                           @Value("${parking.jfr.max-size-mb:250}") long maxSizeMb) {
+        this.directory = Path.of(directory);
+        try {
+            this.configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("parking.jfr.settings inválido: " + settings, e);
+        }
+        this.maxAge = Duration.ofMinutes(Math.max(1, maxAgeMinutes));
+        this.maxSizeBytes = Math.max(1, maxSizeMb) * 1024 * 1024;
+    }
+
+    /**
+     * Inicia uma gravação.
+     *
+     * @param duration encerra a gravação automaticamente após esse tempo (null = até {@link #stop()})
+     * @return false se já houver uma gravação em andamento
+     */
+    public synchronized boolean start(Duration duration) {
+        if (isRunning()) {
+            return false;
+        }
+        close();
+        createDirectory();
+        deleteOldFiles();
+        destination = directory.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIME) + FILE_SUFFIX);
+
+        var started = new Recording(configuration);
+        started.setName("parking");
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSizeBytes);
+        try {
+            started.setDestination(destination);
+        } catch (IOException e) {
+            started.close();
+            throw new UncheckedIOException("Destino inválido para a gravação JFR: " + destination, e);
+        }
+        if (duration != null) {
+            started.setDuration(duration);
+        }
+        started.start();
+        recording = started;
+        log.info("Gravação JFR iniciada ({}), destino {}", duration != null ? duration : "sem duração", destination);
+        return true;
+    }
+
+    /**
+     * Encerra a gravação em andamento, gravando-a no arquivo de destino.
+     *
+     * @return false se não houver gravação em andamento
+     */
+    public synchronized boolean stop() {
+        if (!isRunning()) {
+            return false;
+        }
+        recording.stop();
+        log.info("Gravação JFR encerrada: {}", destination);
+        return true;
+    }
+
+    /**
+     * Arquivo da última gravação encerrada.
+     *
+     * @return vazio se nenhuma gravação foi encerrada, se há uma em andamento
+     *         ou se o arquivo não existe
+     */
+    public synchronized Optional<Path> file() {
+        if (recording == null || isRunning()) {
+            return Optional.empty();
+        }
+        return Files.exists(destination) ? Optional.of(destination) : Optional.empty();
+    }
+
+    /**
+     * Instantâneo da gravação em andamento, gravado em um arquivo temporário
+     * em parking.jfr.directory que é removido ao fechar o stream.
+     *
+     * @return vazio se não houver gravação em andamento
+     */
+    public synchronized Optional<InputStream> snapshot() {
+        if (!isRunning()) {
+            return Optional.empty();
+        }
+        Path snapshot = null;
+        try {
+            snapshot = Files.createTempFile(directory, FILE_PREFIX + "snapshot-", FILE_SUFFIX);
+            recording.dump(snapshot);
+            return Optional.of(Files.newInputStream(snapshot, StandardOpenOption.DELETE_ON_CLOSE));
+        } catch (IOException e) {
+            delete(snapshot);
+            throw new UncheckedIOException("Falha ao gravar instantâneo JFR em " + directory, e);
+        }
+    }
+
+    public synchronized RecordingStatus status() {
+        if (recording == null) {
+            return new RecordingStatus("NONE", null, null, 0);
+        }
+        return new RecordingStatus(recording.getState().name(), recording.getStartTime(),
+            destination.toString(), recording.getSize());
+    }
+
+    /**
+     * Encerra a gravação no desligamento da aplicação, preservando o arquivo.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        stop();
+        close();
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * Remove gravações e instantâneos anteriores. Instantâneos ainda em
+     * download continuam legíveis: o arquivo só some quando o stream é fechado.
+     */
+    private void deleteOldFiles() {
+        try (var files = Files.list(directory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }).forEach(this::delete);
+        } catch (IOException e) {
+            log.warn("Falha ao listar gravações JFR anteriores em {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Falha ao remover arquivo JFR {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void createDirectory() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar diretório de gravações JFR " + directory, e);
+        }
+    }
+}
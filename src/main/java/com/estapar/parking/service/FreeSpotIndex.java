@@ -0,0 +1,332 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.ParkingSpotRepository.SpotStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Índice em memória das vagas livres, particionado por setor.
+ *
+ * Substitui a varredura completa da tabela "parking_spots" a cada entrada
+ * de veículo. Cada vaga recebe na reconstrução uma posição densa dentro do
+ * seu setor, e cada setor mantém um pool compacto das posições livres
+ * (int[]), permitindo sortear e remover uma vaga em O(1) via swap-remove,
+ * sem nenhuma leitura no banco de dados.
+ *
+ * O ID da vaga é traduzido para setor e posição por uma tabela de hash
+ * de endereçamento aberto sobre long[]/int[], imutável entre reconstruções:
+ * reserva, liberação e ocupação não alocam objetos nem fazem boxing.
+ *
+ * O índice é semeado a partir do estado persistido no carregamento da
+ * garagem e mantido pelo ParkingService a cada entrada e saída.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.GarageService#loadGarageData()
+ * @see com.estapar.parking.service.ParkingService
+ */
+@Component
+public class FreeSpotIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FreeSpotIndex.class);
+
+    /**
+     * Estado atual do índice. Substituído por inteiro em cada reconstrução,
+     * de forma que leitores nunca vejam um índice parcialmente montado.
+     */
+    private volatile Snapshot snapshot = new Snapshot(new SectorPool[0], Map.of(), new SpotTable(0));
+
+    /**
+     * Reconstrói o índice a partir do estado persistido das vagas.
+     *
+     * @param statuses projeção (id, setor, ocupada) de todas as vagas
+     */
+    public void rebuild(Collection<? extends SpotStatus> statuses) {
+        Map<String, List<SpotStatus>> grouped = new LinkedHashMap<>();
+        for (SpotStatus status : statuses) {
+            grouped.computeIfAbsent(status.getSectorName(), sector -> new ArrayList<>()).add(status);
+        }
+
+        var table = new SpotTable(statuses.size());
+        Map<String, SectorPool> bySector = new LinkedHashMap<>();
+        for (Map.Entry<String, List<SpotStatus>> entry : grouped.entrySet()) {
+            var pool = new SectorPool(entry.getKey(), bySector.size(), entry.getValue().size());
+            for (SpotStatus status : entry.getValue()) {
+                int position = pool.define(status.getId());
+                if (position < 0 || !table.put(status.getId(), pool.index, position)) {
+                    continue; // ID repetido: mantém a primeira ocorrência
+                }
+                if (!Boolean.TRUE.equals(status.getOccupied())) {
+                    pool.add(position);
+                }
+            }
+            bySector.put(pool.sector, pool);
+        }
+
+        snapshot = new Snapshot(bySector.values().toArray(SectorPool[]::new), bySector, table);
+        log.info("Índice de vagas livres reconstruído: {} vagas, {} livres", table.size(), freeCount());
+    }
+
+    /**
+     * Sorteia e reserva uma vaga livre entre todos os setores.
+     *
+     * O setor é escolhido com peso proporcional à quantidade de vagas livres,
+     * preservando a distribuição uniforme do algoritmo original sobre o
+     * conjunto total de vagas disponíveis.
+     *
+     * @return ID da vaga reservada, ou -1 se não houver vagas livres
+     */
+    public long claim() {
+        Snapshot current = snapshot;
+        var random = ThreadLocalRandom.current();
+
+        while (true) {
+            int free = 0;
+            for (SectorPool pool : current.pools) {
+                free += pool.size;
+            }
+            if (free == 0) {
+                return -1;
+            }
+
+            int target = random.nextInt(free);
+            for (SectorPool pool : current.pools) {
+                int size = pool.size;
+                if (target < size) {
+                    long spotId = pool.takeRandom(random);
+                    if (spotId >= 0) {
+                        return spotId;
+                    }
+                    break; // Pool esvaziado por outra thread, sorteia novamente
+                }
+                target -= size;
+            }
+        }
+    }
+
+    /**
+     * Devolve uma vaga ao pool de livres do seu setor.
+     *
+     * @param spotId ID da vaga liberada
+     */
+    public void release(long spotId) {
+        Snapshot current = snapshot;
+        int slot = current.table.find(spotId);
+        if (slot < 0) {
+            log.warn("Vaga {} desconhecida pelo índice - liberação ignorada", spotId);
+            return;
+        }
+        current.pools[current.table.sectorAt(slot)].add(current.table.positionAt(slot));
+    }
+
+    /**
+     * Remove uma vaga específica do pool de livres, se estiver presente.
+     *
+     * @param spotId ID da vaga a marcar como ocupada
+     * @return true se a vaga estava livre no índice
+     */
+    public boolean markOccupied(long spotId) {
+        Snapshot current = snapshot;
+        int slot = current.table.find(spotId);
+        return slot >= 0 && current.pools[current.table.sectorAt(slot)].remove(current.table.positionAt(slot));
+    }
+
+    /**
+     * @param spotId ID da vaga
+     * @return nome do setor da vaga, ou null se desconhecida
+     */
+    public String sectorOf(long spotId) {
+        Snapshot current = snapshot;
+        int slot = current.table.find(spotId);
+        return slot >= 0 ? current.pools[current.table.sectorAt(slot)].sector : null;
+    }
+
+    /**
+     * @return total de vagas livres em todos os setores
+     */
+    public int freeCount() {
+        int free = 0;
+        for (SectorPool pool : snapshot.pools) {
+            free += pool.size;
+        }
+        return free;
+    }
+
+    /**
+     * @param sector nome do setor
+     * @return vagas livres no setor (0 se desconhecido)
+     */
+    public int freeCount(String sector) {
+        SectorPool pool = snapshot.bySector.get(sector);
+        return pool != null ? pool.size : 0;
+    }
+
+    /**
+     * @return total de vagas conhecidas pelo índice
+     */
+    public int totalCount() {
+        return snapshot.table.size();
+    }
+
+    private record Snapshot(SectorPool[] pools, Map<String, SectorPool> bySector, SpotTable table) {
+    }
+
+    /**
+     * Tabela de hash imutável ID da vaga → (setor, posição no setor), com
+     * endereçamento aberto e sondagem linear sobre arrays primitivos.
+     * Escrita apenas durante a reconstrução, antes de ser publicada.
+     */
+    private static final class SpotTable {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final long[] keys;
+        private final int[] sectors;
+        private final int[] positions;
+        private final int mask;
+        private int size;
+
+        SpotTable(int expected) {
+            // Ocupação máxima de 50%: sondagens curtas
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            sectors = new int[capacity];
+            positions = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        /**
+         * @return false se o ID já estava na tabela
+         */
+        boolean put(long spotId, int sector, int position) {
+            int slot = slotOf(spotId);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == spotId) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = spotId;
+            sectors[slot] = sector;
+            positions[slot] = position;
+            size++;
+            return true;
+        }
+
+        /**
+         * @return posição do ID na tabela, ou -1 se desconhecido
+         */
+        int find(long spotId) {
+            int slot = slotOf(spotId);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == spotId) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        int sectorAt(int slot) {
+            return sectors[slot];
+        }
+
+        int positionAt(int slot) {
+            return positions[slot];
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int slotOf(long spotId) {
+            long hash = spotId * 0x9E3779B97F4A7C15L; // espalha IDs sequenciais
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * Pool de vagas livres de um setor.
+     *
+     * Cada vaga do setor tem uma posição fixa em spotIds. As posições livres
+     * ficam densas no início de free, e locations guarda onde cada posição
+     * está em free (-1 se ocupada), permitindo remoção pontual em O(1).
+     */
+    private static final class SectorPool {
+
+        private final String sector;
+        private final int index;
+        private final long[] spotIds;
+        private final int[] free;
+        private final int[] locations;
+        private int defined;
+        private volatile int size;
+
+        SectorPool(String sector, int index, int capacity) {
+            this.sector = sector;
+            this.index = index;
+            this.spotIds = new long[capacity];
+            this.free = new int[capacity];
+            this.locations = new int[capacity];
+            Arrays.fill(locations, -1);
+        }
+
+        /**
+         * Atribui a próxima posição do setor a uma vaga (apenas na reconstrução).
+         *
+         * @return posição atribuída, ou -1 se o setor estiver completo
+         */
+        int define(long spotId) {
+            if (defined == spotIds.length) {
+                return -1;
+            }
+            spotIds[defined] = spotId;
+            return defined++;
+        }
+
+        synchronized void add(int position) {
+            if (locations[position] >= 0) {
+                return;
+            }
+            free[size] = position;
+            locations[position] = size;
+            size++;
+        }
+
+        synchronized long takeRandom(ThreadLocalRandom random) {
+            if (size == 0) {
+                return -1;
+            }
+            int position = free[random.nextInt(size)];
+            remove(position);
+            return spotIds[position];
+        }
+
+        synchronized boolean remove(int position) {
+            int location = locations[position];
+            if (location < 0) {
+                return false;
+            }
+            int last = size - 1;
+            if (location != last) {
+                int moved = free[last];
+                free[location] = moved;
+                locations[moved] = location;
+            }
+            locations[position] = -1;
+            size = last;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.estapar.parking.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.estapar.parking.dto.GarageSector;
+import com.estapar.parking.dto.SpotInfo;
+import com.estapar.parking.entity.Sector;
+import com.estapar.parking.repository.SectorRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Carregamento incremental da configuração da garagem.
+ *
+ * Lê o JSON do endpoint /garage do simulador como stream: cada vaga é
+ * desserializada, convertida em parâmetros de INSERT e descartada, sem
+ * materializar a lista completa. Os setores são resolvidos por um mapa
+ * nome → id em memória e as vagas gravadas em lotes JDBC de
+ * parking.garage.batch-size linhas.
+ *
+ * No modo de reconciliação (parking.garage.reconcile, padrão) cada setor e
+ * vaga tem um hash do seu conteúdo na configuração, gravado junto com o
+ * registro. Somente setores e vagas novos ou com hash diferente são
+ * gravados; vagas ativas ausentes da configuração são desativadas, exceto
+ * as ocupadas, que permanecem até uma próxima carga. Com a reconciliação
+ * desligada todas as vagas são regravadas e nenhuma é desativada.
+ *
+ * Vagas que chegam antes do seu setor (campo "spots" antes de "garage")
+ * aguardam o fim da leitura; vagas de setores desconhecidos são ignoradas.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.1
+ * @since 1.0
+ * @see com.estapar.parking.service.GarageService#loadGarageData()
+ */
+@Component
+public class GarageLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(GarageLoader.class);
+
+    /**
+     * Insere a vaga ou atualiza coordenadas e setor de uma vaga existente,
+     * reativando-a e preservando o estado de ocupação dos veículos já estacionados.
+     */
+    static final String UPSERT_SPOT =
+        "INSERT INTO parking_spots (id, latitude, longitude, occupied, active, config_hash, sector_id) "
+        + "VALUES (?, ?, ?, false, true, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE latitude = VALUES(latitude), longitude = VALUES(longitude), "
+        + "sector_id = VALUES(sector_id), active = true, config_hash = VALUES(config_hash)";
+
+    /**
+     * Desativa vagas removidas da configuração, somente as livres; a lista
+     * de ids é completada em {@link #deactivateSql(int)}.
+     */
+    static final String DEACTIVATE_SPOTS =
+        "UPDATE parking_spots SET active = false WHERE occupied = false AND id IN ";
+
+    static final String SELECT_SPOT_STATES = "SELECT id, config_hash, active FROM parking_spots";
+
+    private static final long HASH_SEED = 0xCBF29CE484222325L;
+
+    /**
+     * Resultado de uma carga da garagem.
+     *
+     * @param inserted vagas novas
+     * @param updated vagas alteradas ou reativadas
+     * @param unchanged vagas sem alteração (não regravadas)
+     * @param removed vagas desativadas por não constarem mais da configuração
+     * @param keptOccupied vagas ausentes da configuração mantidas por estarem ocupadas
+     */
+    public record Result(int inserted, int updated, int unchanged, int removed, int keptOccupied) {
+
+        public int written() {
+            return inserted + updated;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final SectorRepository sectorRepository;
+    private final int batchSize;
+    private final int progressInterval;
+    private final boolean reconcile;
+
+    public GarageLoader(ObjectMapper objectMapper, JdbcTemplate jdbcTemplate, SectorRepository sectorRepository,
+                        @Value("${parking.garage.batch-size:1000}") int batchSize,
+                        @Value("${parking.garage.progress-interval:10000}") int progressInterval,
+                        @Value("${parking.garage.reconcile:true}") boolean reconcile) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sectorRepository = sectorRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.progressInterval = Math.max(1, progressInterval);
+        this.reconcile = reconcile;
+    }
+
+    /**
+     * Lê a configuração da garagem e grava setores e vagas.
+     *
+     * @param json corpo da resposta do endpoint /garage
+     * @return contagens de vagas inseridas, alteradas, mantidas e desativadas
+     * @throws IOException se o JSON estiver incompleto ou malformado
+     */
+    public Result load(InputStream json) throws IOException {
+        var run = new LoadRun();
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Configuração da garagem deve ser um objeto JSON");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("garage".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        run.sector(objectMapper.readValue(parser, GarageSector.class));
+                    }
+                } else if ("spots".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        run.spot(objectMapper.readValue(parser, SpotInfo.class));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * Hash do conteúdo de um setor na configuração.
+     */
+    static long sectorHash(double basePrice, int maxCapacity) {
+        return mix(mix(HASH_SEED, Double.doubleToLongBits(basePrice)), maxCapacity);
+    }
+
+    /**
+     * Hash do conteúdo de uma vaga na configuração.
+     */
+    static long spotHash(long sectorId, double lat, double lng) {
+        long hash = mix(HASH_SEED, sectorId);
+        hash = mix(hash, Double.doubleToLongBits(lat));
+        return mix(hash, Double.doubleToLongBits(lng));
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    static String deactivateSql(int ids) {
+        return DEACTIVATE_SPOTS + "(" + "?, ".repeat(ids - 1) + "?)";
+    }
+
+    /**
+     * Estado de um carregamento: setores conhecidos, vagas persistidas ainda
+     * não vistas na configuração, lote corrente e contagens.
+     */
+    private final class LoadRun {
+
+        private final Map<String, Sector> sectors = new HashMap<>();
+        /** Vagas ativas persistidas (id → hash) ainda não encontradas na configuração. */
+        private final Map<Long, Long> activeHashes = new HashMap<>();
+        private final Set<Long> inactive = new HashSet<>();
+        private final List<Object[]> batch = new ArrayList<>(batchSize);
+        private final List<SpotInfo> pending = new ArrayList<>();
+        private final long startNanos = System.nanoTime();
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int written;
+        private int skipped;
+
+        LoadRun() {
+            sectorRepository.findAll().forEach(s -> sectors.put(s.getName(), s));
+            if (reconcile) {
+                jdbcTemplate.query(SELECT_SPOT_STATES, rs -> {
+                    long id = rs.getLong(1);
+                    long hash = rs.getLong(2);
+                    Long stored = rs.wasNull() ? null : hash;
+                    if (rs.getBoolean(3)) {
+                        activeHashes.put(id, stored);
+                    } else {
+                        inactive.add(id);
+                    }
+                });
+            }
+        }
+
+        void sector(GarageSector gs) {
+            long hash = sectorHash(gs.getBasePrice(), gs.getMaxCapacity());
+            var sector = sectors.get(gs.getSector());
+            if (sector == null) {
+                sector = new Sector(gs.getSector(), BigDecimal.valueOf(gs.getBasePrice()), gs.getMaxCapacity());
+                sector.setConfigHash(hash);
+                sector = sectorRepository.save(sector);
+                sectors.put(sector.getName(), sector);
+                log.info("Setor {} carregado: {} vagas, preço base R${}", gs.getSector(), gs.getMaxCapacity(), gs.getBasePrice());
+            } else if (!Objects.equals(sector.getConfigHash(), hash)) {
+                sector.setBasePrice(BigDecimal.valueOf(gs.getBasePrice()));
+                sector.setMaxCapacity(gs.getMaxCapacity());
+                sector.setConfigHash(hash);
+                sector = sectorRepository.save(sector);
+                sectors.put(sector.getName(), sector);
+                log.info("Setor {} atualizado: {} vagas, preço base R${}", gs.getSector(), gs.getMaxCapacity(), gs.getBasePrice());
+            }
+        }
+
+        void spot(SpotInfo spot) {
+            var sector = sectors.get(spot.getSector());
+            if (sector == null) {
+                pending.add(spot);
+                return;
+            }
+            long hash = spotHash(sector.getId(), spot.getLat(), spot.getLng());
+            Long id = spot.getId();
+            if (reconcile) {
+                if (activeHashes.containsKey(id)) {
+                    Long stored = activeHashes.remove(id);
+                    if (stored != null && stored == hash) {
+                        unchanged++;
+                        return;
+                    }
+                    updated++;
+                } else if (inactive.remove(id)) {
+                    updated++;
+                } else {
+                    inserted++;
+                }
+            } else {
+                inserted++;
+            }
+            batch.add(new Object[] {
+                id, BigDecimal.valueOf(spot.getLat()), BigDecimal.valueOf(spot.getLng()), hash, sector.getId() });
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        Result finish() {
+            var waiting = new ArrayList<>(pending);
+            pending.clear();
+            for (SpotInfo spot : waiting) {
+                if (sectors.containsKey(spot.getSector())) {
+                    spot(spot);
+                } else {
+                    skipped++;
+                }
+            }
+            flush();
+            if (skipped > 0) {
+                log.warn("{} vagas ignoradas por pertencerem a setores desconhecidos", skipped);
+            }
+
+            int removed = 0;
+            int keptOccupied = 0;
+            if (reconcile && !activeHashes.isEmpty()) {
+                var removals = new ArrayList<Object>(Math.min(batchSize, activeHashes.size()));
+                for (Long id : activeHashes.keySet()) {
+                    removals.add(id);
+                    if (removals.size() >= batchSize) {
+                        removed += deactivate(removals);
+                    }
+                }
+                removed += deactivate(removals);
+                keptOccupied = activeHashes.size() - removed;
+                if (keptOccupied > 0) {
+                    log.warn("{} vagas removidas da configuração mantidas por estarem ocupadas", keptOccupied);
+                }
+            }
+            return new Result(inserted, updated, unchanged, removed, keptOccupied);
+        }
+
+        /**
+         * Desativa as vagas livres da lista em um único UPDATE; as ocupadas
+         * não são afetadas e ficam de fora da contagem.
+         */
+        private int deactivate(List<Object> ids) {
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            int count = jdbcTemplate.update(deactivateSql(ids.size()), ids.toArray());
+            ids.clear();
+            return count;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(UPSERT_SPOT, batch);
+            int before = written;
+            written += batch.size();
+            batch.clear();
+            if (written / progressInterval != before / progressInterval) {
+                long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+                log.info("Vagas carregadas: {} ({} vagas/s)", written, written * 1000L / elapsedMillis);
+            }
+        }
+    }
+}
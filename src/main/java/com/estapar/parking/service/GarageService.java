@@ -1,20 +1,28 @@
 package com.estapar.parking.service;
 
-import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import com.estapar.parking.dto.GarageConfig;
-import com.estapar.parking.entity.ParkingSpot;
-import com.estapar.parking.entity.Sector;
 import com.estapar.parking.repository.ParkingSpotRepository;
-import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.ParkingSpotRepository.SectorOccupancy;
+
+import jakarta.annotation.PostConstruct;
 
 /**
  * Serviço responsável pela gestão e inicialização da garagem.
@@ -33,7 +41,7 @@ import com.estapar.parking.repository.SectorRepository;
  * @since 1.0
  * @see com.estapar.parking.entity.Sector
  * @see com.estapar.parking.entity.ParkingSpot
- * @see com.estapar.parking.dto.GarageConfig
+ * @see com.estapar.parking.service.GarageLoader
  */
 @Service
 public class GarageService {
@@ -53,11 +61,11 @@ public class GarageService {
     private String simulatorUrl;
 
     /**
-     * Repositório para persistência de setores no banco de dados.
-     * Utilizado para salvar e consultar informações de setores
-     * obtidas do simulador.
+     * Carregamento incremental de setores e vagas.
+     * Lê a resposta do simulador como stream e grava as vagas
+     * em lotes JDBC.
      */
-    private final SectorRepository sectorRepository;
+    private final GarageLoader garageLoader;
     
     /**
      * Repositório para persistência de vagas no banco de dados.
@@ -73,17 +81,69 @@ public class GarageService {
      */
     private final RestTemplate restTemplate;
 
+    /**
+     * Índice em memória das vagas livres.
+     * Semeado a partir do banco na criação do serviço e novamente ao final
+     * do carregamento da garagem, para que a alocação de vagas não precise
+     * consultar o banco de dados.
+     */
+    private final FreeSpotIndex freeSpotIndex;
+
+    /**
+     * Contadores de ocupação (global e por setor) mantidos em memória.
+     * A instância é única: reconstruções e correções ajustam os contadores
+     * existentes, sem perder incrementos concorrentes.
+     */
+    private final OccupancyCounters occupancy = new OccupancyCounters();
+
+    /**
+     * Alterações de ocupação iniciadas e ainda não concluídas (commit ou rollback).
+     * Enquanto houver alguma, memória e banco divergem legitimamente.
+     */
+    private final AtomicInteger inFlightChanges = new AtomicInteger();
+
+    /**
+     * Total de alterações de ocupação já iniciadas, usado para detectar
+     * alterações que começaram e terminaram durante uma verificação.
+     */
+    private final AtomicLong startedChanges = new AtomicLong();
+
+    /**
+     * Indica se a última verificação periódica sem alterações em andamento
+     * encontrou divergência entre contadores e banco. A correção só é aplicada
+     * se a divergência persistir por duas dessas verificações seguidas.
+     */
+    private volatile boolean driftSuspected;
+
     /**
      * Construtor para injeção de dependências.
      * 
-     * @param sectorRepository repositório de setores
+     * @param garageLoader carregamento incremental de setores e vagas
      * @param spotRepository repositório de vagas
      * @param restTemplate cliente HTTP para comunicação externa
+     * @param freeSpotIndex índice em memória das vagas livres
      */
-    public GarageService(SectorRepository sectorRepository, ParkingSpotRepository spotRepository, RestTemplate restTemplate) {
-        this.sectorRepository = sectorRepository;
+    public GarageService(GarageLoader garageLoader, ParkingSpotRepository spotRepository,
+                         RestTemplate restTemplate, FreeSpotIndex freeSpotIndex) {
+        this.garageLoader = garageLoader;
         this.spotRepository = spotRepository;
         this.restTemplate = restTemplate;
+        this.freeSpotIndex = freeSpotIndex;
+    }
+
+    /**
+     * Semeia o índice de vagas livres e os contadores de ocupação com as
+     * vagas já persistidas, na criação do serviço.
+     * 
+     * Os consumidores da fila de eventos e o servidor HTTP começam a
+     * receber entradas antes do ApplicationReadyEvent; sem esta semeadura,
+     * até o fim do carregamento da garagem os contadores estariam zerados
+     * e toda entrada seria recusada por lotação.
+     */
+    @PostConstruct
+    public void seedFromDatabase() {
+        rebuildSpotIndex();
+        rebuildOccupancy();
     }
 
     /**
@@ -95,62 +155,179 @@ public class GarageService {
      * 
      * Processo de carregamento:
      * 1. Faz requisição GET para {simulatorUrl}/garage
-     * 2. Deserializa resposta JSON para GarageConfig
-     * 3. Salva setores no banco (ou atualiza se já existem)
-     * 4. Salva vagas individuais com coordenadas geográficas
-     * 5. Registra logs de progresso e estatísticas
+     * 2. Lê a resposta JSON como stream, sem materializar todas as vagas
+     * 3. Salva setores novos ou alterados (preço base e capacidade)
+     * 4. Salva em lotes JDBC apenas vagas novas ou alteradas, comparando hashes do conteúdo
+     * 5. Desativa vagas livres que não constam mais da configuração
+     * 6. Registra logs de progresso e estatísticas
+     * 7. Reconstrói o índice de vagas livres e ajusta a capacidade dos contadores de ocupação
      * 
      * @apiNote Método executado automaticamente via @EventListener
-     * @implNote Utiliza padrão "upsert" para setores (insert ou update)
+     * @implNote Utiliza padrão "upsert" para vagas (insert ou update), preservando a ocupação
+     * @see com.estapar.parking.service.GarageLoader
      * @see org.springframework.boot.context.event.ApplicationReadyEvent
      */
     @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
     public void loadGarageData() {
         log.info("Carregando dados da garagem do simulador...");
         
+        long start = System.nanoTime();
         try {
-            // Obtém configuração completa do simulador
-            var config = restTemplate.getForObject(simulatorUrl + "/garage", GarageConfig.class);
-            
-            if (config == null) {
-                log.error("Falha ao carregar configuração da garagem");
-                return;
-            }
+            // Lê a configuração do simulador como stream, gravando as vagas em lotes
+            var result = restTemplate.execute(simulatorUrl + "/garage", HttpMethod.GET, null,
+                response -> garageLoader.load(response.getBody()));
 
-            // Processa e salva setores (batch insert & update)
-            var sectors = config.getGarage().stream()
-                .map(gs -> {
-                    var sector = sectorRepository.findByName(gs.getSector())
-                        .orElse(new Sector(gs.getSector(), BigDecimal.valueOf(gs.getBasePrice()), gs.getMaxCapacity()));
-                    log.info("Setor {} carregado: {} vagas, preço base R${}", gs.getSector(), gs.getMaxCapacity(), gs.getBasePrice());
-                    return sector;
-                })
-                .toList();
-            sectorRepository.saveAll(sectors);
-
-            // Processa e salva vagas individuais (insert)
-            var spots = config.getSpots().stream()
-                .map(s -> {
-                    Sector sector = sectorRepository.findByName(s.getSector()).orElseThrow();
-                    return new ParkingSpot(s.getId(), 
-                        BigDecimal.valueOf(s.getLat()), 
-                        BigDecimal.valueOf(s.getLng()), 
-                        sector);
-                })
-                .toList();
-            spotRepository.saveAll(spots);
-
-            log.info("Total de {} vagas carregadas", config.getSpots().size());
+            if (result != null) {
+                log.info("Garagem carregada em {} ms: {} vagas novas, {} alteradas, {} sem alteração, "
+                    + "{} desativadas, {} mantidas por estarem ocupadas",
+                    (System.nanoTime() - start) / 1_000_000, result.inserted(), result.updated(),
+                    result.unchanged(), result.removed(), result.keptOccupied());
+            }
         } catch (Exception e) {
             log.error("Erro ao carregar dados da garagem: {}", e.getMessage());
+        } finally {
+            // A ocupação não muda com o carregamento, apenas a capacidade; eventuais
+            // divergências de ocupação ficam a cargo da conferência periódica
+            rebuildSpotIndex();
+            refreshCapacity();
+        }
+    }
+
+    /**
+     * Reconstrói o índice de vagas livres a partir do estado persistido.
+     * 
+     * Utiliza uma projeção (id, setor, ocupada) para evitar materializar
+     * entidades completas de cada vaga.
+     * 
+     * @see com.estapar.parking.service.FreeSpotIndex#rebuild(java.util.Collection)
+     */
+    public void rebuildSpotIndex() {
+        try {
+            freeSpotIndex.rebuild(spotRepository.findAllStatuses());
+        } catch (Exception e) {
+            log.error("Erro ao reconstruir índice de vagas livres: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstrói os contadores de ocupação a partir do banco de dados.
+     * 
+     * Executa uma única consulta agregada por setor (total e ocupadas) e
+     * ajusta capacidade e ocupação dos contadores existentes. Destina-se à
+     * semeadura, antes de haver tráfego; com entradas em andamento, a
+     * ocupação é corrigida apenas por {@link #reconcileOccupancy()}.
+     */
+    public void rebuildOccupancy() {
+        try {
+            var rows = spotRepository.countOccupancyBySector();
+            occupancy.resize(rows);
+            occupancy.correct(rows);
+            driftSuspected = false;
+            log.info("Contadores de ocupação reconstruídos: {}/{} vagas ocupadas",
+                occupancy.occupied.get(), occupancy.total);
+        } catch (Exception e) {
+            log.error("Erro ao reconstruir contadores de ocupação: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ajusta a capacidade dos contadores às vagas persistidas, preservando a
+     * ocupação em memória dos setores já conhecidos.
+     */
+    private void refreshCapacity() {
+        try {
+            occupancy.resize(spotRepository.countOccupancyBySector());
+            log.info("Capacidade dos contadores de ocupação atualizada: {} vagas", occupancy.total);
+        } catch (Exception e) {
+            log.error("Erro ao atualizar capacidade dos contadores de ocupação: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Confere periodicamente os contadores em memória contra o banco.
+     * 
+     * Entradas ocupam o contador antes do commit e saídas o liberam depois,
+     * por isso memória e banco divergem enquanto houver alterações em
+     * andamento. A divergência só é considerada quando nenhuma alteração
+     * estava em andamento ou começou durante a verificação, e só é corrigida
+     * se for observada em duas dessas verificações consecutivas. A correção
+     * soma a diferença de cada setor aos contadores em uso.
+     */
+    @Scheduled(fixedDelayString = "${parking.occupancy.reconcile-interval-ms:60000}",
+               initialDelayString = "${parking.occupancy.reconcile-interval-ms:60000}")
+    public void reconcileOccupancy() {
+        try {
+            long started = startedChanges.get();
+            boolean idle = inFlightChanges.get() == 0;
+            var persisted = spotRepository.countOccupancyBySector();
+            boolean matches = occupancy.matches(persisted);
+            idle = idle && startedChanges.get() == started;
+
+            if (matches) {
+                driftSuspected = false;
+                return;
+            }
+            if (!idle) {
+                log.debug("Contadores de ocupação divergentes com alterações em andamento - ignorando");
+                return;
+            }
+            if (!driftSuspected) {
+                driftSuspected = true;
+                log.debug("Possível divergência nos contadores de ocupação - aguardando confirmação");
+                return;
+            }
+            log.warn("Contadores de ocupação divergentes ({}/{} em memória) - corrigindo a partir do banco",
+                occupancy.occupied.get(), occupancy.total);
+            occupancy.resize(persisted);
+            occupancy.correct(persisted);
+            driftSuspected = false;
+        } catch (Exception e) {
+            log.error("Erro ao conferir contadores de ocupação: {}", e.getMessage());
         }
     }
 
+    /**
+     * Marca o início de uma alteração de ocupação ainda não persistida
+     * (entrada antes do commit, saída até a liberação do contador).
+     * Deve ser seguida de {@link #occupancyChangeCompleted()} ao fim da transação.
+     */
+    public void occupancyChangeStarted() {
+        startedChanges.incrementAndGet();
+        inFlightChanges.incrementAndGet();
+    }
+
+    /**
+     * Marca o fim (commit ou rollback) de uma alteração de ocupação.
+     */
+    public void occupancyChangeCompleted() {
+        inFlightChanges.decrementAndGet();
+    }
+
+    /**
+     * Registra a ocupação de uma vaga do setor informado.
+     * 
+     * @param sector nome do setor da vaga ocupada
+     */
+    public void spotOccupied(String sector) {
+        occupancy.add(sector, 1);
+    }
+
+    /**
+     * Registra a liberação de uma vaga do setor informado.
+     * 
+     * @param sector nome do setor da vaga liberada
+     */
+    public void spotReleased(String sector) {
+        occupancy.add(sector, -1);
+    }
+
     /**
      * Calcula a taxa de ocupação atual do estacionamento.
      * 
-     * Utiliza contagem em tempo real de vagas ocupadas versus
-     * total de vagas para determinar o percentual de lotação.
+     * Utiliza os contadores em memória de vagas ocupadas versus
+     * total de vagas para determinar o percentual de lotação,
+     * sem nenhuma consulta ao banco.
      * 
      * Este valor é utilizado para:
      * - Aplicação de regras de preço dinâmico
@@ -163,9 +340,19 @@ public class GarageService {
      * @implNote Retorna 0 se não houver vagas cadastradas
      */
     public double getOccupancyRate() {
-        long totalSpots = spotRepository.count();
-        long occupiedSpots = spotRepository.countByOccupiedTrue();
-        return totalSpots > 0 ? (occupiedSpots * 100.0) / totalSpots : 0;
+        int total = occupancy.total;
+        return total > 0 ? (occupancy.occupied.get() * 100.0) / total : 0;
+    }
+
+    /**
+     * Calcula a taxa de ocupação atual de um setor específico.
+     * 
+     * @param sector nome do setor
+     * @return percentual de ocupação do setor (0.0 a 100.0), 0 se desconhecido
+     */
+    public double getOccupancyRate(String sector) {
+        var counter = occupancy.sectors.get(sector);
+        return counter != null && counter.total > 0 ? (counter.occupied.get() * 100.0) / counter.total : 0;
     }
 
     /**
@@ -184,6 +371,103 @@ public class GarageService {
      * @implNote Considera lotado apenas quando 100% das vagas estão ocupadas
      */
     public boolean isFull() {
-        return spotRepository.count() == spotRepository.countByOccupiedTrue();
+        return occupancy.occupied.get() >= occupancy.total;
+    }
+
+    /**
+     * Contadores atômicos de ocupação, global e por setor.
+     * 
+     * As vagas ocupadas variam via incrementos atômicos sem bloqueio. A
+     * capacidade muda apenas quando a garagem é recarregada, e as correções
+     * a partir do banco somam diferenças aos contadores existentes, de modo
+     * que incrementos concorrentes nunca são descartados.
+     */
+    private static final class OccupancyCounters {
+
+        private final Map<String, SectorCounter> sectors = new ConcurrentHashMap<>();
+        private final AtomicInteger occupied = new AtomicInteger();
+        private volatile int total;
+
+        void add(String sector, int delta) {
+            occupied.addAndGet(delta);
+            var counter = sectors.get(sector);
+            if (counter != null) {
+                counter.occupied.addAndGet(delta);
+            }
+        }
+
+        /**
+         * Ajusta a capacidade de cada setor. Setores novos começam com a
+         * ocupação persistida; setores sem vagas deixam de ser contados.
+         */
+        synchronized void resize(List<SectorOccupancy> rows) {
+            var present = new HashSet<String>();
+            int newTotal = 0;
+            for (SectorOccupancy row : rows) {
+                present.add(row.getSectorName());
+                int sectorTotal = row.getTotal().intValue();
+                var counter = sectors.get(row.getSectorName());
+                if (counter == null) {
+                    int sectorOccupied = occupiedOf(row);
+                    sectors.put(row.getSectorName(), new SectorCounter(sectorTotal, sectorOccupied));
+                    occupied.addAndGet(sectorOccupied);
+                } else {
+                    counter.total = sectorTotal;
+                }
+                newTotal += sectorTotal;
+            }
+            sectors.entrySet().removeIf(entry -> {
+                if (present.contains(entry.getKey())) {
+                    return false;
+                }
+                occupied.addAndGet(-entry.getValue().occupied.get());
+                return true;
+            });
+            total = newTotal;
+        }
+
+        /**
+         * Soma a cada setor a diferença entre a ocupação persistida e a
+         * ocupação em memória.
+         */
+        synchronized void correct(List<SectorOccupancy> rows) {
+            for (SectorOccupancy row : rows) {
+                var counter = sectors.get(row.getSectorName());
+                if (counter != null) {
+                    int delta = occupiedOf(row) - counter.occupied.get();
+                    counter.occupied.addAndGet(delta);
+                    occupied.addAndGet(delta);
+                }
+            }
+        }
+
+        boolean matches(List<SectorOccupancy> rows) {
+            if (rows.size() != sectors.size()) {
+                return false;
+            }
+            for (SectorOccupancy row : rows) {
+                var counter = sectors.get(row.getSectorName());
+                if (counter == null || counter.total != row.getTotal().intValue()
+                        || counter.occupied.get() != occupiedOf(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int occupiedOf(SectorOccupancy row) {
+            return row.getOccupied() != null ? row.getOccupied().intValue() : 0;
+        }
+    }
+
+    private static final class SectorCounter {
+
+        private volatile int total;
+        private final AtomicInteger occupied;
+
+        SectorCounter(int total, int occupied) {
+            this.total = total;
+            this.occupied = new AtomicInteger(occupied);
+        }
     }
-}
\ No newline at end of file
+}
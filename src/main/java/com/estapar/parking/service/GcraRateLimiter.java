@@ -0,0 +1,157 @@
+package com.estapar.parking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limitador de taxa por chave com o algoritmo GCRA (Generic Cell Rate
+ * Algorithm), usado pelo rate limit HTTP e pela taxa por cancela do webhook.
+ *
+ * Cada chave guarda um único long, o TAT (theoretical arrival time),
+ * atualizado por compare-and-set sem locks. Com intervalo de emissão I e
+ * tolerância T, uma chave nova aceita rajadas de até T/I requisições e
+ * depois uma a cada I. Os tempos são expressos na unidade escolhida pelo
+ * chamador (milissegundos ou nanossegundos), desde que seja sempre a mesma.
+ *
+ * Memória limitada: no máximo maxKeys chaves (aproximado sob concorrência).
+ * Chaves ociosas (TAT no passado, ou seja, com o limite inteiro disponível)
+ * equivalem a uma chave nova e podem ser removidas a qualquer momento. Com
+ * o limite atingido e nenhuma chave ociosa, as chaves de TAT mais antigo
+ * - as mais próximas de recuperar o limite inteiro - dão lugar às novas.
+ * Assim, chaves forjadas em massa (um identificador por requisição) são
+ * descartadas antes dos clientes que estão de fato sendo limitados, e
+ * nenhum cliente novo é recusado por falta de espaço.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.config.RateLimitFilter
+ * @see AdmissionControl
+ */
+public final class GcraRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(GcraRateLimiter.class);
+
+    /**
+     * TAT de uma chave nova: menor que qualquer instante, inclusive os
+     * negativos de System.nanoTime().
+     */
+    private static final long NEW_KEY = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+
+    /**
+     * Quantidade de chaves removidas de uma vez quando o limite é atingido,
+     * para que a varredura não se repita a cada chave nova.
+     */
+    private final int evictionBatch;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public GcraRateLimiter(int maxKeys) {
+        this.maxKeys = Math.max(1, maxKeys);
+        this.evictionBatch = Math.max(1, this.maxKeys / 10);
+    }
+
+    /**
+     * Consome uma emissão da chave: aceita se o novo TAT não ultrapassar a
+     * tolerância à frente do instante atual.
+     *
+     * @param key       chave do cliente
+     * @param interval  intervalo de emissão (tempo consumido por requisição)
+     * @param tolerance tolerância (intervalo vezes a rajada máxima)
+     * @param now       instante atual
+     * @return 0 se a requisição foi aceita, ou o tempo até ser aceita
+     */
+    public long acquire(String key, long interval, long tolerance, long now) {
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            tat = newBucket(key, now);
+        }
+
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            long excess = next - now - tolerance;
+            if (excess > 0) {
+                return excess;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Remove as chaves cujo TAT já passou, isto é, que voltaram a ter o
+     * limite inteiro disponível e equivalem a uma chave nova.
+     *
+     * @param now instante atual
+     * @return quantidade de chaves removidas
+     */
+    public int evictIdle(long now) {
+        int before = buckets.size();
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() <= now);
+        return before - buckets.size();
+    }
+
+    /**
+     * @return quantidade de chaves rastreadas
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Cria a entrada de uma chave nova, abrindo espaço se o limite de chaves
+     * foi atingido. Apenas uma thread varre o mapa por vez; as demais criam
+     * a chave sem esperar.
+     */
+    private AtomicLong newBucket(String key, long now) {
+        if (buckets.size() >= maxKeys && evictionLock.tryLock()) {
+            try {
+                if (buckets.size() >= maxKeys) {
+                    evictIdle(now);
+                }
+                if (buckets.size() >= maxKeys) {
+                    evictOldest();
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(NEW_KEY));
+    }
+
+    /**
+     * Remove as chaves de TAT mais antigo, em lote de evictionBatch.
+     */
+    private void evictOldest() {
+        var oldest = new PriorityQueue<Candidate>(evictionBatch + 1,
+            Comparator.comparingLong(Candidate::tat).reversed());
+        buckets.forEach((key, bucket) -> {
+            oldest.add(new Candidate(key, bucket, bucket.get()));
+            if (oldest.size() > evictionBatch) {
+                oldest.poll();
+            }
+        });
+        for (Candidate candidate : oldest) {
+            buckets.remove(candidate.key(), candidate.bucket());
+        }
+        log.warn("Limite de {} chaves de rate limit atingido - {} chave(s) mais antiga(s) removida(s)",
+            maxKeys, oldest.size());
+    }
+
+    /**
+     * Chave com o TAT lido na varredura, para que a ordem da fila não mude
+     * com atualizações concorrentes.
+     */
+    private record Candidate(String key, AtomicLong bucket, long tat) {
+    }
+}
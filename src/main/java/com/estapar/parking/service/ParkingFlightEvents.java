@@ -0,0 +1,105 @@
+package com.estapar.parking.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos do JDK Flight Recorder emitidos pelas operações do estacionamento.
+ *
+ * Cada evento mede a duração da operação (begin/commit) e carrega placa,
+ * setor, vaga e resultado ("OK" ou o nome da exceção). Sem gravação ativa
+ * o commit é descartado pela JVM e o objeto do evento é eliminado pelo JIT;
+ * campos de cálculo mais caro só são preenchidos quando
+ * {@link Event#shouldCommit()} indica que o evento será gravado.
+ *
+ * As gravações são iniciadas em /admin/jfr ({@link FlightRecording}) ou com
+ * -XX:StartFlightRecording, e podem ser abertas no JDK Mission Control
+ * filtrando pela categoria "Estacionamento".
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ParkingFlightEvents {
+
+    static final String OK = "OK";
+
+    private ParkingFlightEvents() {
+    }
+
+    /**
+     * Campos comuns às operações sobre um veículo.
+     */
+    @Category("Estacionamento")
+    @StackTrace(false)
+    public abstract static class Operation extends Event {
+
+        @Label("Placa")
+        String licensePlate;
+
+        @Label("Setor")
+        String sector;
+
+        @Label("Vaga")
+        long spotId = -1;
+
+        @Label("Resultado")
+        String outcome;
+
+        void failed(Throwable e) {
+            outcome = e.getClass().getSimpleName();
+        }
+    }
+
+    @Name("com.estapar.parking.Entry")
+    @Label("Entrada de veículo")
+    @Description("ParkingService.handleEntry: verificação, sorteio da vaga e gravação do veículo")
+    public static final class Entry extends Operation {
+    }
+
+    @Name("com.estapar.parking.Exit")
+    @Label("Saída de veículo")
+    @Description("ParkingService.handleExit: cálculo do preço, liberação da vaga e receita")
+    public static final class Exit extends Operation {
+    }
+
+    @Name("com.estapar.parking.SpotClaim")
+    @Label("Alocação de vaga")
+    @Description("Sorteio no índice em memória e ocupação da vaga por UPDATE condicional")
+    public static final class SpotClaim extends Operation {
+
+        @Label("Tentativas")
+        int attempts;
+    }
+
+    @Name("com.estapar.parking.Pricing")
+    @Label("Cálculo de preço")
+    @Description("PricingService.calculatePrice")
+    public static final class Pricing extends Operation {
+
+        @Label("Permanência (min)")
+        long stayMinutes;
+
+        @Label("Lotação (%)")
+        double occupancyRate;
+
+        @Label("Valor")
+        double amount;
+    }
+
+    @Name("com.estapar.parking.EventProcessing")
+    @Label("Processamento de evento")
+    @Description("Aplicação de um evento do simulador pelo consumidor da fila")
+    public static final class EventProcessing extends Operation {
+
+        @Label("Tipo")
+        String eventType;
+
+        @Label("Tentativa")
+        int deliveryAttempts;
+    }
+}
@@ -0,0 +1,110 @@
+package com.estapar.parking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempos medidos no caminho de processamento dos eventos, expostos pelo
+ * Micrometer (endpoint /actuator/prometheus).
+ *
+ * Os timers são registrados uma única vez na criação: cada medição é um
+ * {@link Timer#record(long, TimeUnit)} sobre um medidor já resolvido, sem
+ * busca por nome ou tags no caminho quente. Os histogramas têm faixa
+ * limitada para manter um número pequeno de buckets por série.
+ *
+ * Contagens e profundidades (fila, DLQ, recusas, cache de receita) não
+ * passam por aqui: são lidas dos contadores já mantidos pelos serviços,
+ * no momento da coleta, por {@link com.estapar.parking.config.MetricsConfig}.
+ *
+ * Medidores:
+ * - parking.event.processing{type}: aplicação de cada evento ENTRY, PARKED e EXIT
+ *   (em lote, somada à parcela do evento no flush e no commit, e medida só após o commit)
+ * - parking.event.lag: espera do evento na fila, da aceitação ao consumo
+ * - parking.spot.allocation: sorteio e ocupação da vaga na entrada
+ * - parking.pricing: cálculo do preço na saída
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class ParkingMetrics {
+
+    private final Timer entryProcessing;
+    private final Timer parkedProcessing;
+    private final Timer exitProcessing;
+    private final Timer consumerLag;
+    private final Timer spotAllocation;
+    private final Timer pricing;
+
+    @Autowired
+    public ParkingMetrics(MeterRegistry registry) {
+        this.entryProcessing = processingTimer(registry, "ENTRY");
+        this.parkedProcessing = processingTimer(registry, "PARKED");
+        this.exitProcessing = processingTimer(registry, "EXIT");
+        this.consumerLag = Timer.builder("parking.event.lag")
+            .description("Espera do evento na fila, da aceitação ao início do processamento")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofMinutes(1))
+            .register(registry);
+        this.spotAllocation = Timer.builder("parking.spot.allocation")
+            .description("Sorteio e ocupação da vaga na entrada")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100_000))
+            .maximumExpectedValue(Duration.ofSeconds(1))
+            .register(registry);
+        this.pricing = Timer.builder("parking.pricing")
+            .description("Cálculo do preço na saída")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(1_000))
+            .maximumExpectedValue(Duration.ofMillis(100))
+            .register(registry);
+    }
+
+    private static Timer processingTimer(MeterRegistry registry, String eventType) {
+        return Timer.builder("parking.event.processing")
+            .description("Aplicação de um evento do simulador")
+            .tag("type", eventType)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100_000))
+            .maximumExpectedValue(Duration.ofSeconds(5))
+            .register(registry);
+    }
+
+    /**
+     * @param eventType ENTRY, PARKED ou EXIT; demais tipos são ignorados
+     * @param nanos duração da aplicação do evento
+     */
+    public void recordProcessing(String eventType, long nanos) {
+        if (eventType == null) {
+            return;
+        }
+        Timer timer = switch (eventType) {
+            case "ENTRY" -> entryProcessing;
+            case "PARKED" -> parkedProcessing;
+            case "EXIT" -> exitProcessing;
+            default -> null;
+        };
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordConsumerLag(long nanos) {
+        consumerLag.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSpotAllocation(long nanos) {
+        spotAllocation.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPricing(long nanos) {
+        pricing.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
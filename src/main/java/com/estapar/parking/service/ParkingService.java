@@ -1,21 +1,24 @@
 package com.estapar.parking.service;
 
-import com.estapar.parking.entity.ParkingSpot;
 import com.estapar.parking.entity.Vehicle;
 import com.estapar.parking.exception.ParkingFullException;
 import com.estapar.parking.exception.VehicleAlreadyParkedException;
 import com.estapar.parking.exception.VehicleNotFoundException;
 import com.estapar.parking.repository.ParkingSpotRepository;
 import com.estapar.parking.repository.VehicleRepository;
+import com.estapar.parking.service.ActiveVehicleRegistry.ActiveVehicle;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZonedDateTime;
-import java.util.List;
-import java.util.Random;
 
 /**
  * Serviço principal para gestão de operações de estacionamento.
@@ -35,6 +38,9 @@ import java.util.Random;
  * 2. PARKED: Confirmação de estacionamento (opcional)
  * 3. EXIT: Veículo sai, calcula preço, libera vaga
  * 
+ * Entrada, saída e alocação de vaga emitem eventos do JDK Flight Recorder
+ * ({@link ParkingFlightEvents}) com placa, setor, vaga, resultado e duração.
+ * 
  * @author Sistema de Estacionamento
  * @version 1.0
  * @since 1.0
@@ -81,11 +87,29 @@ public class ParkingService {
     private final PricingService pricingService;
     
     /**
-     * Gerador de números aleatórios para seleção de vagas.
-     * Utilizado para distribuir veículos aleatoriamente
-     * entre as vagas disponíveis.
+     * Índice em memória das vagas livres por setor.
+     * Utilizado para sortear vagas disponíveis em O(1),
+     * sem varrer a tabela de vagas a cada entrada.
+     */
+    private final FreeSpotIndex freeSpotIndex;
+
+    /**
+     * Receita pré-agregada por setor e dia.
+     * Atualizada a cada saída e utilizada na consulta de receita,
+     * sem somar o histórico de veículos.
+     */
+    private final RevenueRollupService revenueRollupService;
+
+    /**
+     * Registro em memória dos veículos presentes, consultado por placa
+     * na entrada e na saída.
+     */
+    private final ActiveVehicleRegistry activeVehicles;
+
+    /**
+     * Tempos de alocação de vaga e de cálculo de preço.
      */
-    private final Random random = new Random();
+    private final ParkingMetrics metrics;
 
     /**
      * Construtor para injeção de dependências.
@@ -94,13 +118,34 @@ public class ParkingService {
      * @param spotRepository repositório de vagas
      * @param garageService serviço de gestão da garagem
      * @param pricingService serviço de cálculos de preço
+     * @param freeSpotIndex índice em memória das vagas livres
+     * @param revenueRollupService receita pré-agregada por setor e dia
+     * @param activeVehicles registro em memória dos veículos presentes
+     * @param metrics tempos de alocação de vaga e de cálculo de preço
      */
     public ParkingService(VehicleRepository vehicleRepository, ParkingSpotRepository spotRepository,
-                         GarageService garageService, PricingService pricingService) {
+                         GarageService garageService, PricingService pricingService,
+                         FreeSpotIndex freeSpotIndex, RevenueRollupService revenueRollupService,
+                         ActiveVehicleRegistry activeVehicles, ParkingMetrics metrics) {
         this.vehicleRepository = vehicleRepository;
         this.spotRepository = spotRepository;
         this.garageService = garageService;
         this.pricingService = pricingService;
+        this.freeSpotIndex = freeSpotIndex;
+        this.revenueRollupService = revenueRollupService;
+        this.activeVehicles = activeVehicles;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Semeia o registro de veículos presentes a partir do banco.
+     *
+     * Executa na criação do serviço, antes que a fila de eventos (que
+     * depende dele) inicie os consumidores.
+     */
+    @PostConstruct
+    public void loadActiveVehicles() {
+        activeVehicles.rebuild(vehicleRepository.findAllActive());
     }
 
     /**
@@ -112,7 +157,11 @@ public class ParkingService {
      * 2. **Verificação de lotação**: Bloqueia se estiver lotado
      * 3. **Cálculo de preço vigente**: Informa valor baseado na lotação
      * 4. **Alocação de vaga**: Seleciona vaga aleatória disponível
-     * 5. **Registro**: Salva veículo e marca vaga como ocupada
+     * 5. **Registro**: Marca vaga como ocupada (UPDATE condicional) e salva veículo
+     * 
+     * A placa já estacionada é recusada pelo registro em memória, sem consulta
+     * ao banco. Entre consumidores ou instâncias, o índice único de placa ativa
+     * recusa a segunda sessão no INSERT; ver {@link #translateEntryFailure}.
      * 
      * @param licensePlate placa do veículo no formato brasileiro
      * @param entryTime timestamp de entrada em formato ISO 8601
@@ -127,10 +176,28 @@ public class ParkingService {
      */
     @Transactional
     public void handleEntry(String licensePlate, String entryTime) {
+        var event = new ParkingFlightEvents.Entry();
+        event.begin();
+        event.licensePlate = licensePlate;
+        try {
+            enter(licensePlate, entryTime, event);
+            event.outcome = ParkingFlightEvents.OK;
+        } catch (RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Entrada do veículo; a vaga e o setor ocupados são anotados no evento JFR.
+     */
+    private void enter(String licensePlate, String entryTime, ParkingFlightEvents.Entry event) {
         log.info("Placa capturada: {}", licensePlate);
 
-        // Verifica se veículo já está estacionado
-        if (vehicleRepository.findActiveByLicensePlate(licensePlate).isPresent()) {
+        // Verifica se veículo já está estacionado, sem consultar o banco
+        if (activeVehicles.contains(licensePlate)) {
             log.warn("Entrada negada - veículo {} já está estacionado", licensePlate);
             throw new VehicleAlreadyParkedException(licensePlate);
         }
@@ -145,21 +212,76 @@ public class ParkingService {
         double occupancy = garageService.getOccupancyRate();
         log.info("Lotação atual: {}%", String.format("%.1f", occupancy));
 
+        // Saída da mesma placa pendente neste micro-lote: grava-a antes da nova sessão,
+        // pois o flush executa os INSERTs antes dos UPDATEs e o índice de placa ativa recusaria
+        if (activeVehicles.exitedInCurrentTransaction(licensePlate)) {
+            vehicleRepository.flush();
+        }
+
         // Converte timestamp e cria registro do veículo
         LocalDateTime entry = LocalDateTime.parse(entryTime);
         var vehicle = new Vehicle(licensePlate, entry);
         
-        // Seleciona vaga aleatória e aloca para o veículo
-        ParkingSpot spot = selectRandomAvailableSpot();
-        vehicle.setParkingSpot(spot);
+        // Sorteia e ocupa uma vaga livre; o veículo referencia a vaga sem carregá-la
+        long allocationStarted = System.nanoTime();
+        long spotId = claimRandomAvailableSpot(licensePlate);
+        metrics.recordSpotAllocation(System.nanoTime() - allocationStarted);
+        vehicle.setParkingSpot(spotRepository.getReferenceById(spotId));
         vehicle.setStatus(Vehicle.VehicleStatus.PARKED);
-        
-        // Marca vaga como ocupada e salva dados
-        spot.setOccupied(true);
-        spotRepository.save(spot);
-        vehicleRepository.save(vehicle);
+        vehicle = vehicleRepository.save(vehicle);
 
-        log.info("Veículo {} estacionado na vaga {} do setor {}", licensePlate, spot.getId(), spot.getSector().getName());
+        // Registra o veículo como presente; desfeito em caso de rollback
+        if (!activeVehicles.register(licensePlate, new ActiveVehicle(vehicle.getId(), spotId, entry))) {
+            throw new VehicleAlreadyParkedException(licensePlate);
+        }
+
+        // Atualiza contadores de ocupação, desfazendo em caso de rollback; até o fim
+        // da transação a ocupação fica em andamento para a conferência periódica
+        String sectorName = freeSpotIndex.sectorOf(spotId);
+        garageService.occupancyChangeStarted();
+        garageService.spotOccupied(sectorName);
+        afterRollback(() -> garageService.spotReleased(sectorName));
+        afterCompletion(garageService::occupancyChangeCompleted);
+        event.spotId = spotId;
+        event.sector = sectorName;
+
+        log.info("Veículo {} estacionado na vaga {} do setor {}", licensePlate, spotId, sectorName);
+    }
+
+    /**
+     * Traduz a falha de integridade de uma entrada.
+     * 
+     * O INSERT do veículo é executado no flush da transação, por isso a
+     * violação do índice único de placa ativa (sessão ativa da mesma placa
+     * gravada por outro consumidor ou instância) surge no commit, fora de
+     * handleEntry. Quem chama handleEntry converte a falha com este método.
+     * 
+     * O índice violado é identificado pelo nome da constraint extraído pelo
+     * dialeto do Hibernate ({@link ConstraintViolationException#getConstraintName()}),
+     * e não pelo texto da mensagem do driver.
+     * 
+     * @param licensePlate placa da entrada
+     * @param e falha de integridade do commit
+     * @return VehicleAlreadyParkedException se a falha for a placa ativa duplicada,
+     *         senão a própria falha
+     */
+    public static RuntimeException translateEntryFailure(String licensePlate, DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && isActivePlateIndex(violation.getConstraintName())) {
+                return new VehicleAlreadyParkedException(licensePlate);
+            }
+        }
+        return e;
+    }
+
+    private static boolean isActivePlateIndex(String constraintName) {
+        if (constraintName == null) {
+            return false;
+        }
+        // O MySQL 8 qualifica o índice com a tabela ("vehicles.uk_vehicles_active_plate")
+        String name = constraintName.substring(constraintName.lastIndexOf('.') + 1);
+        return name.equalsIgnoreCase(Vehicle.ACTIVE_PLATE_INDEX);
     }
 
     /**
@@ -189,11 +311,12 @@ public class ParkingService {
      * 
      * Este método implementa a lógica completa de saída:
      * 
-     * 1. **Localiza veículo**: Busca registro ativo por placa
+     * 1. **Localiza veículo**: Busca a placa no registro em memória de veículos presentes
      * 2. **Registra saída**: Atualiza timestamp e status
      * 3. **Calcula preço**: Aplica regras dinâmicas e tolerância
      * 4. **Libera vaga**: Marca como disponível para novos veículos
      * 5. **Finaliza**: Salva dados e registra valor cobrado
+     * 6. **Receita**: Soma o valor à receita do setor no dia da saída
      * 
      * @param licensePlate placa do veículo
      * @param exitTime timestamp de saída em formato ISO 8601
@@ -207,9 +330,32 @@ public class ParkingService {
      */
     @Transactional
     public void handleExit(String licensePlate, String exitTime) {
-        // Localiza veículo ativo no sistema
-        var vehicle = vehicleRepository.findActiveByLicensePlate(licensePlate)
-            .orElseThrow(() -> new VehicleNotFoundException(licensePlate));
+        var event = new ParkingFlightEvents.Exit();
+        event.begin();
+        event.licensePlate = licensePlate;
+        try {
+            exit(licensePlate, exitTime, event);
+            event.outcome = ParkingFlightEvents.OK;
+        } catch (RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Saída do veículo; a vaga e o setor liberados são anotados no evento JFR.
+     */
+    private void exit(String licensePlate, String exitTime, ParkingFlightEvents.Exit event) {
+        // Localiza veículo ativo no registro em memória e carrega o registro pela chave primária
+        ActiveVehicle active = activeVehicles.find(licensePlate);
+        if (active == null) {
+            throw new VehicleNotFoundException(licensePlate);
+        }
+        var vehicle = vehicleRepository.findById(active.vehicleId())
+            .orElseThrow(() -> new IllegalStateException(
+                "Veículo " + active.vehicleId() + " presente no registro mas não no banco"));
 
         // Registra timestamp de saída e atualiza status
         LocalDateTime exit = LocalDateTime.parse(exitTime);
@@ -218,64 +364,171 @@ public class ParkingService {
 
         // Calcula preço baseado em lotação atual e tempo de permanência
         double occupancy = garageService.getOccupancyRate();
-        BigDecimal sectorBasePrice = vehicle.getParkingSpot().getSector().getBasePrice();
-        BigDecimal amount = pricingService.calculatePrice(vehicle.getEntryTime(), exit, occupancy, sectorBasePrice);
+        var sector = vehicle.getParkingSpot().getSector();
+        event.spotId = vehicle.getParkingSpot().getId();
+        event.sector = sector.getName();
+        long pricingStarted = System.nanoTime();
+        BigDecimal amount = pricingService.calculatePrice(vehicle.getEntryTime(), exit, occupancy,
+            sector.getBasePrice(), sector.getName());
+        metrics.recordPricing(System.nanoTime() - pricingStarted);
         vehicle.setTotalAmount(amount);
 
-        // Libera vaga para novos veículos
+        // Libera vaga para novos veículos com um UPDATE condicional
         var spot = vehicle.getParkingSpot();
-        spot.setOccupied(false);
-        spotRepository.save(spot);
+        if (spotRepository.releaseIfOccupied(spot.getId()) == 0) {
+            log.warn("Vaga {} já estava livre na saída do veículo {}", spot.getId(), licensePlate);
+        }
         vehicleRepository.save(vehicle);
+        activeVehicles.unregister(licensePlate, active);
+
+        // Soma o valor à receita pré-agregada do setor no dia da saída
+        revenueRollupService.record(spot.getSector().getName(), exit.toLocalDate(), amount);
+
+        // Devolve a vaga ao índice apenas após o commit, para que não seja
+        // sorteada antes da liberação estar persistida
+        long spotId = spot.getId();
+        String sectorName = spot.getSector().getName();
+        garageService.occupancyChangeStarted();
+        afterCommit(() -> {
+            freeSpotIndex.release(spotId);
+            garageService.spotReleased(sectorName);
+        });
+        afterCompletion(garageService::occupancyChangeCompleted);
 
         log.info("Veículo {} saiu - Valor cobrado: R${}", licensePlate, amount);
     }
 
     /**
-     * Seleciona uma vaga disponível de forma aleatória.
+     * Sorteia e ocupa uma vaga disponível de forma aleatória.
      * 
      * Este método implementa a estratégia de alocação de vagas
      * distribuíndo veículos aleatoriamente entre as vagas livres
      * para evitar concentração em setores específicos.
      * 
      * Algoritmo:
-     * 1. Consulta todas as vagas do banco
-     * 2. Filtra apenas as não ocupadas
-     * 3. Seleciona uma aleatoriamente
+     * 1. Sorteia e reserva uma vaga no índice em memória (O(1))
+     * 2. Ocupa a vaga no banco com um UPDATE condicional (somente se livre e ativa)
+     * 3. Se nenhuma linha foi alterada, a vaga foi ocupada por outro nó ou
+     *    desativada: ela fica fora do índice e outra vaga é sorteada
+     * 4. Agenda a devolução da vaga ao índice em caso de rollback
      * 
-     * @return vaga disponível selecionada aleatoriamente
-     * @throws RuntimeException se não houver vagas disponíveis
+     * Cada alocação emite um evento JFR com a vaga, o setor e as tentativas.
+     * 
+     * A ocupação não depende de lock nem de leitura prévia da vaga: o banco
+     * garante que duas entradas concorrentes nunca ocupem a mesma vaga.
+     * 
+     * @param licensePlate placa do veículo, registrada no evento JFR
+     * @return ID da vaga ocupada
+     * @throws ParkingFullException se não houver vagas disponíveis
      * 
-     * @implNote Utiliza Random.nextInt() para seleção
-     * @see java.util.Random#nextInt(int)
+     * @implNote O índice é semeado por GarageService#seedFromDatabase()
+     * @see com.estapar.parking.service.FreeSpotIndex#claim()
+     * @see com.estapar.parking.repository.ParkingSpotRepository#claimIfFree(Long)
      */
-    private ParkingSpot selectRandomAvailableSpot() {
-        // Obtém lista de vagas disponíveis
-        List<ParkingSpot> available = spotRepository.findAll().stream()
-            .filter(s -> !s.getOccupied())
-            .toList();
-        
-        // Verifica se há vagas disponíveis
-        if (available.isEmpty()) {
-            throw new ParkingFullException("LOTADO");
+    private long claimRandomAvailableSpot(String licensePlate) {
+        var event = new ParkingFlightEvents.SpotClaim();
+        event.begin();
+        event.licensePlate = licensePlate;
+        try {
+            while (true) {
+                event.attempts++;
+                // Reserva vaga livre sem consultar o banco
+                long spotId = freeSpotIndex.claim();
+
+                // Verifica se há vagas disponíveis
+                if (spotId < 0) {
+                    throw new ParkingFullException("LOTADO");
+                }
+
+                if (spotRepository.claimIfFree(spotId) == 1) {
+                    // Se a transação falhar, a vaga volta para o índice
+                    afterRollback(() -> freeSpotIndex.release(spotId));
+                    event.spotId = spotId;
+                    event.outcome = ParkingFlightEvents.OK;
+                    if (event.shouldCommit()) {
+                        event.sector = freeSpotIndex.sectorOf(spotId);
+                    }
+                    return spotId;
+                }
+                log.warn("Vaga {} livre no índice mas ocupada ou desativada no banco - sorteando outra", spotId);
+            }
+        } catch (RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.commit();
         }
-        
-        // Seleciona vaga aleatoriamente
-        return available.get(random.nextInt(available.size()));
+    }
+
+    /**
+     * Executa uma ação após o commit da transação corrente.
+     * Sem transação ativa, a ação é executada imediatamente.
+     * 
+     * @param action ação a executar
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Executa uma ação ao fim da transação corrente, com commit ou rollback.
+     * Sem transação ativa, a ação é executada imediatamente.
+     * 
+     * @param action ação a executar
+     */
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Executa uma ação de compensação caso a transação corrente sofra rollback.
+     * Sem transação ativa, nada é agendado.
+     * 
+     * @param action ação de compensação
+     */
+    private static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
     }
 
     /**
      * Calcula receita total de um setor em uma data específica.
      * 
-     * Este método consulta todos os veículos que saíram do setor
-     * especificado na data informada e soma os valores cobrados
-     * para gerar relatório de faturamento.
+     * Consulta a receita pré-agregada, somada a cada saída registrada,
+     * em vez de somar os valores cobrados de todos os veículos do histórico.
+     * Consultas repetidas são servidas pelo cache de receita.
      * 
      * Critérios de cálculo:
-     * - Apenas veículos com status EXITED
+     * - Apenas veículos que saíram (valor cobrado na saída)
      * - Que saíram na data especificada (00:00 a 23:59)
      * - Do setor informado
-     * - Com valor cobrado (totalAmount não nulo)
      * 
      * @param sector nome do setor (A, B, C, D, etc.)
      * @param date data no formato YYYY-MM-DD
@@ -284,15 +537,10 @@ public class ParkingService {
      * @example
      * getRevenue("A", "2025-01-20") // Receita do setor A em 20/01/2025
      * 
-     * @implNote Utiliza query customizada no repositório para performance
-     * @see com.estapar.parking.repository.VehicleRepository#calculateRevenueBySectorAndDate
+     * @implNote Leitura de um único registro, independente do tamanho do histórico
+     * @see com.estapar.parking.service.RevenueRollupService#getRevenue
      */
     public BigDecimal getRevenue(String sector, String date) {
-        // Converte data para range de 24 horas
-        LocalDateTime start = LocalDateTime.parse(date + "T00:00:00");
-        LocalDateTime end = start.plusDays(1);
-        
-        // Executa query de cálculo de receita
-        return vehicleRepository.calculateRevenueBySectorAndDate(sector, start, end);
+        return revenueRollupService.getRevenue(sector, date);
     }
-}
\ No newline at end of file
+}
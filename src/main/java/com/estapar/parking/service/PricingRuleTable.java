@@ -0,0 +1,143 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.PricingTier;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Regras de preço de um setor compiladas em uma tabela imutável.
+ *
+ * A faixa de lotação é resolvida por índice: tierByPercent guarda a faixa
+ * de cada ponto percentual inteiro (0 a 100, mais uma posição para valores
+ * acima de 100 ou indefinidos). Como os limites das faixas são inteiros,
+ * "lotação <= limite" equivale a "teto(lotação) <= limite", e a consulta
+ * não percorre as faixas.
+ *
+ * Cada multiplicador é normalizado (sem zeros à direita) e decomposto em
+ * valor inteiro e escala para o cálculo em ponto fixo.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.PricingService
+ */
+final class PricingRuleTable {
+
+    private static final int ABOVE_RANGE = 101;
+    private static final int MAX_SCALE = 18;
+
+    private final int toleranceMinutes;
+    private final long maxChargedHours;
+    private final byte[] tierByPercent = new byte[ABOVE_RANGE + 1];
+    private final BigDecimal[] multipliers;
+    private final long[] unscaledMultipliers;
+    private final int[] multiplierScales;
+    private final long[] multiplierPowersOfTen;
+
+    /**
+     * @param toleranceMinutes permanência máxima sem cobrança
+     * @param maxChargedHours teto de horas cobradas, 0 = sem teto
+     * @param tiers faixas de lotação em ordem crescente
+     * @throws IllegalArgumentException se as regras forem inválidas
+     */
+    PricingRuleTable(int toleranceMinutes, int maxChargedHours, List<PricingTier> tiers) {
+        if (toleranceMinutes < 0) {
+            throw new IllegalArgumentException("toleranceMinutes não pode ser negativo");
+        }
+        if (maxChargedHours < 0) {
+            throw new IllegalArgumentException("maxChargedHours não pode ser negativo");
+        }
+        if (tiers == null || tiers.isEmpty() || tiers.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("tiers deve ter entre 1 e " + Byte.MAX_VALUE + " faixas");
+        }
+        this.toleranceMinutes = toleranceMinutes;
+        this.maxChargedHours = maxChargedHours == 0 ? Long.MAX_VALUE : maxChargedHours;
+
+        int count = tiers.size();
+        multipliers = new BigDecimal[count];
+        unscaledMultipliers = new long[count];
+        multiplierScales = new int[count];
+        multiplierPowersOfTen = new long[count];
+
+        int previousLimit = -1;
+        for (int i = 0; i < count; i++) {
+            PricingTier tier = tiers.get(i);
+            if (tier == null || tier.getMultiplier() == null) {
+                throw new IllegalArgumentException("Faixa " + (i + 1) + " sem multiplicador");
+            }
+            int limit = tier.getUpToPercent();
+            if (limit <= previousLimit || limit > 100) {
+                throw new IllegalArgumentException(
+                    "upToPercent deve ser crescente e entre 0 e 100 (faixa " + (i + 1) + ": " + limit + ")");
+            }
+            BigDecimal multiplier = normalize(tier.getMultiplier());
+            if (multiplier.signum() < 0 || multiplier.scale() > MAX_SCALE || multiplier.precision() > MAX_SCALE) {
+                throw new IllegalArgumentException("Multiplicador inválido na faixa " + (i + 1) + ": " + tier.getMultiplier());
+            }
+            multipliers[i] = multiplier;
+            unscaledMultipliers[i] = multiplier.unscaledValue().longValueExact();
+            multiplierScales[i] = multiplier.scale();
+            multiplierPowersOfTen[i] = BigDecimal.ONE.movePointRight(multiplier.scale()).longValueExact();
+
+            for (int percent = previousLimit + 1; percent <= limit; percent++) {
+                tierByPercent[percent] = (byte) i;
+            }
+            previousLimit = limit;
+        }
+        // Acima da última faixa (inclusive lotação indefinida): última faixa
+        for (int percent = previousLimit + 1; percent <= ABOVE_RANGE; percent++) {
+            tierByPercent[percent] = (byte) (count - 1);
+        }
+    }
+
+    /**
+     * Faixa de uma taxa de ocupação: mesma decisão de uma cadeia de
+     * comparações "lotação <= limite", resolvida por índice.
+     *
+     * @param occupancyRate taxa de ocupação (0.0 a 100.0)
+     * @return índice da faixa
+     */
+    int tierOf(double occupancyRate) {
+        // Negativos contam como 0; acima de 100 ou NaN vão para a última posição
+        double clamped = occupancyRate <= 100 ? Math.max(occupancyRate, 0) : ABOVE_RANGE;
+        return tierByPercent[(int) Math.ceil(clamped)];
+    }
+
+    /**
+     * Horas cobradas de uma permanência acima da tolerância: arredonda para
+     * cima e aplica o teto de horas.
+     */
+    long chargedHours(long totalMinutes) {
+        return Math.min((totalMinutes + 59) / 60, maxChargedHours);
+    }
+
+    int toleranceMinutes() {
+        return toleranceMinutes;
+    }
+
+    BigDecimal multiplier(int tier) {
+        return multipliers[tier];
+    }
+
+    long unscaledMultiplier(int tier) {
+        return unscaledMultipliers[tier];
+    }
+
+    int multiplierScale(int tier) {
+        return multiplierScales[tier];
+    }
+
+    long multiplierPowerOfTen(int tier) {
+        return multiplierPowersOfTen[tier];
+    }
+
+    /**
+     * Remove zeros à direita (0.90 vira 0.9, 1.00 vira 1), mantendo escala
+     * não negativa, como em BigDecimal.valueOf(double).
+     */
+    private static BigDecimal normalize(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+}
@@ -1,151 +1,420 @@
 package com.estapar.parking.service;
 
+import com.estapar.parking.dto.PricingRules;
+import com.estapar.parking.dto.PricingTier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.Duration;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Serviço responsável pelos cálculos de preço dinâmico do estacionamento.
- * 
+ *
  * Esta classe implementa as regras de negócio para cobrança de estacionamento,
  * incluindo tolerância de tempo, preços variáveis por lotação e cálculos
  * precisos baseados no tempo de permanência.
- * 
- * Regras implementadas:
+ *
+ * Regras padrão:
  * - Tolerância de 30 minutos (não cobra)
  * - Preço dinâmico da primeira hora baseado na lotação
  * - Horas adicionais sempre no preço base do setor
  * - Arredondamento para cima (31 min = 1 hora)
- * 
+ *
+ * As regras (tolerância, faixas de lotação, teto de horas e regras por
+ * setor) podem ser alteradas sem redeploy, pelo arquivo
+ * parking.pricing.rules-file (verificado a cada parking.pricing.reload-interval-ms)
+ * ou pelo endpoint /pricing/rules. Cada conjunto de regras é validado e
+ * compilado em tabelas imutáveis ({@link PricingRuleTable}), trocadas de
+ * uma só vez: um cálculo nunca mistura regras antigas e novas.
+ *
+ * O cálculo é feito em aritmética de ponto fixo sobre long: o preço base é
+ * decomposto em valor inteiro e escala, e cada faixa de lotação tem seu
+ * multiplicador pré-calculado como inteiro e potência de 10. O resultado é
+ * idêntico (inclusive na escala) ao cálculo com BigDecimal, mantido como
+ * fallback para valores fora do alcance de um long.
+ *
+ * Cada cálculo emite um evento do JDK Flight Recorder
+ * ({@link ParkingFlightEvents.Pricing}); os campos do evento só são
+ * preenchidos quando há uma gravação ativa.
+ *
  * @author Sistema de Estacionamento
- * @version 1.0
+ * @version 1.3
  * @since 1.0
  * @see com.estapar.parking.service.ParkingService
  * @see com.estapar.parking.entity.Vehicle
  */
 @Service
 public class PricingService {
-    
+
     /**
      * Logger para registro detalhado de cálculos de preço.
      * Utilizado para auditoria, debugging e rastreamento
      * de valores cobrados dos veículos.
      */
     private static final Logger log = LoggerFactory.getLogger(PricingService.class);
-    
+
     /**
-     * Tolerância em minutos para cobrança.
+     * Tolerância padrão em minutos para cobrança.
      * Veículos que permanecem até este tempo não são cobrados.
      * Valor: 30 minutos conforme regra de negócio.
      */
-    private static final long TOLERANCE_MINUTES = 30; // Tolerância de 30 minutos
+    private static final int TOLERANCE_MINUTES = 30; // Tolerância de 30 minutos
+
+    /**
+     * Faixas padrão de lotação e multiplicadores da primeira hora:
+     * - 0% a 25%: Desconto de 10% (0.90x) - Incentiva uso
+     * - 26% a 50%: Preço normal (1.00x) - Equilíbrio
+     * - 51% a 75%: Acréscimo de 10% (1.10x) - Desestimula uso
+     * - 76% a 100%: Acréscimo de 25% (1.25x) - Máximo controle
+     */
+    private static final List<PricingTier> DEFAULT_TIERS = List.of(
+        new PricingTier(25, new BigDecimal("0.90")),
+        new PricingTier(50, new BigDecimal("1.00")),
+        new PricingTier(75, new BigDecimal("1.10")),
+        new PricingTier(100, new BigDecimal("1.25")));
+
+    private static final int MAX_CACHED_PRICES = 1024;
+
+    /**
+     * Regras compiladas: tabela geral e tabelas por setor.
+     *
+     * @param source regras que originaram as tabelas
+     * @param defaults tabela dos setores sem regra específica
+     * @param sectors tabelas por nome de setor
+     */
+    private record CompiledRules(PricingRules source, PricingRuleTable defaults, Map<String, PricingRuleTable> sectors) {
+
+        PricingRuleTable forSector(String sector) {
+            return sector == null ? defaults : sectors.getOrDefault(sector, defaults);
+        }
+    }
+
+    /**
+     * Regras em vigor, substituídas por inteiro a cada recarga.
+     */
+    private volatile CompiledRules rules;
+
+    /**
+     * Valor inteiro (unscaled) de cada preço base já visto. Os preços base
+     * são poucos (um por setor), então a conversão é feita uma única vez.
+     */
+    private final ConcurrentHashMap<BigDecimal, Long> unscaledPrices = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper;
+    private final Path rulesFile;
+    private volatile FileTime rulesFileModified;
+
+    @Autowired
+    public PricingService(ObjectMapper objectMapper,
+                          @Value("${parking.pricing.rules-file:}") String rulesFile) {
+        this.objectMapper = objectMapper;
+        this.rulesFile = rulesFile == null || rulesFile.isBlank() ? null : Path.of(rulesFile);
+        this.rules = compile(new PricingRules());
+    }
+
+    /**
+     * Carrega as regras do arquivo, se configurado e existente.
+     */
+    @PostConstruct
+    public void loadRules() {
+        if (rulesFile != null && Files.exists(rulesFile)) {
+            reloadRules();
+        }
+    }
+
+    /**
+     * Recarrega o arquivo de regras quando ele foi alterado.
+     * Regras inválidas são registradas no log e as atuais permanecem em vigor.
+     */
+    @Scheduled(fixedDelayString = "${parking.pricing.reload-interval-ms:10000}",
+               initialDelayString = "${parking.pricing.reload-interval-ms:10000}")
+    public void reloadRulesIfChanged() {
+        if (rulesFile == null || !Files.exists(rulesFile)) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(rulesFile);
+            if (!modified.equals(rulesFileModified)) {
+                // Um arquivo inválido é reportado uma vez, não a cada verificação
+                rulesFileModified = modified;
+                reloadRules();
+            }
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            log.error("Regras de preço em {} não aplicadas: {}", rulesFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Lê, valida e aplica as regras do arquivo.
+     *
+     * @return regras aplicadas
+     * @throws IllegalStateException se não houver arquivo de regras configurado
+     * @throws IllegalArgumentException se as regras forem inválidas
+     */
+    public PricingRules reloadRules() {
+        if (rulesFile == null) {
+            throw new IllegalStateException("parking.pricing.rules-file não configurado");
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(rulesFile);
+            PricingRules loaded = objectMapper.readValue(Files.readAllBytes(rulesFile), PricingRules.class);
+            rules = compile(loaded);
+            rulesFileModified = modified;
+            log.info("Regras de preço carregadas de {}", rulesFile);
+            return loaded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + rulesFile, e);
+        }
+    }
+
+    /**
+     * Valida e aplica novas regras, gravando-as no arquivo de regras (se
+     * configurado) para que sobrevivam a um restart.
+     *
+     * @param newRules regras a aplicar
+     * @throws IllegalArgumentException se as regras forem inválidas
+     */
+    public void updateRules(PricingRules newRules) {
+        CompiledRules compiled = compile(newRules);
+        if (rulesFile != null) {
+            try {
+                Path parent = rulesFile.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                Path temp = Files.createTempFile(parent, "pricing-rules", ".tmp");
+                Files.write(temp, objectMapper.writeValueAsBytes(newRules));
+                Files.move(temp, rulesFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                rulesFileModified = Files.getLastModifiedTime(rulesFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao gravar " + rulesFile, e);
+            }
+        }
+        rules = compiled;
+        log.info("Regras de preço atualizadas");
+    }
+
+    /**
+     * @return true se as regras são lidas de um arquivo
+     */
+    public boolean hasRulesFile() {
+        return rulesFile != null;
+    }
+
+    /**
+     * @return regras em vigor, como recebidas (campos nulos = herdados)
+     */
+    public PricingRules getRules() {
+        return rules.source();
+    }
+
+    /**
+     * Resolve a herança das regras e compila as tabelas.
+     *
+     * @throws IllegalArgumentException se as regras forem inválidas
+     */
+    private static CompiledRules compile(PricingRules source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Regras de preço ausentes");
+        }
+        int tolerance = orDefault(source.getToleranceMinutes(), TOLERANCE_MINUTES);
+        int maxHours = orDefault(source.getMaxChargedHours(), 0);
+        List<PricingTier> tiers = source.getTiers() != null ? source.getTiers() : DEFAULT_TIERS;
+        var defaults = new PricingRuleTable(tolerance, maxHours, tiers);
+
+        Map<String, PricingRuleTable> sectors = new HashMap<>();
+        if (source.getSectors() != null) {
+            source.getSectors().forEach((sector, override) -> {
+                if (override == null) {
+                    throw new IllegalArgumentException("Regras do setor " + sector + " ausentes");
+                }
+                try {
+                    sectors.put(sector, new PricingRuleTable(
+                        orDefault(override.getToleranceMinutes(), tolerance),
+                        orDefault(override.getMaxChargedHours(), maxHours),
+                        override.getTiers() != null ? override.getTiers() : tiers));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Setor " + sector + ": " + e.getMessage(), e);
+                }
+            });
+        }
+        return new CompiledRules(source, defaults, Map.copyOf(sectors));
+    }
+
+    private static int orDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Calcula o preço total a ser cobrado de um veículo com as regras gerais.
+     *
+     * @param entryTime momento de entrada do veículo
+     * @param exitTime momento de saída do veículo
+     * @param occupancyRate taxa de ocupação atual (0-100)
+     * @param sectorBasePrice preço base por hora do setor
+     * @return valor total a ser cobrado com precisão decimal
+     * @see #calculatePrice(LocalDateTime, LocalDateTime, double, BigDecimal, String)
+     */
+    public BigDecimal calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime, double occupancyRate, BigDecimal sectorBasePrice) {
+        return calculatePrice(entryTime, exitTime, occupancyRate, sectorBasePrice, null);
+    }
 
     /**
      * Calcula o preço total a ser cobrado de um veículo.
-     * 
+     *
      * Este método implementa a lógica completa de cobrança considerando:
-     * 
+     *
      * 1. **Tolerância**: Até 30 minutos = gratuito
      * 2. **Arredondamento**: Sempre para cima (31 min = 1 hora)
      * 3. **Preço dinâmico**: Primeira hora varia com lotação
      * 4. **Horas adicionais**: Preço base fixo do setor
-     * 
+     * 5. **Teto**: Horas cobradas limitadas a maxChargedHours, se configurado
+     *
      * Fórmula de cálculo:
      * - Total = Primeira Hora (dinâmica) + Horas Adicionais (fixas)
      * - Primeira hora: basePrice * multiplicador de lotação
      * - Horas adicionais: basePrice * número de horas
-     * 
+     *
      * @param entryTime momento de entrada do veículo
      * @param exitTime momento de saída do veículo
      * @param occupancyRate taxa de ocupação atual (0-100)
      * @param sectorBasePrice preço base por hora do setor
+     * @param sector nome do setor, para regras específicas (null = regras gerais)
      * @return valor total a ser cobrado com precisão decimal
-     * 
+     *
      * @example
      * Entrada: 10:00, Saída: 12:30, Lotação: 20%, Preço: R$4,10
      * Cálculo: 150 min = 3 horas
      * Primeira hora: R$4,10 * 0,90 = R$3,69
      * Horas adicionais: R$4,10 * 2 = R$8,20
      * Total: R$11,89
-     * 
-     * @implNote Utiliza BigDecimal para precisão monetária
-     * @see #calculateFirstHourPrice(double, BigDecimal)
+     *
+     * @implNote Ponto fixo em long; além do BigDecimal retornado há apenas o
+     *           evento JFR, eliminado pelo JIT (escape analysis) sem gravação ativa
+     * @see PricingRuleTable#tierOf(double)
      */
-    public BigDecimal calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime, double occupancyRate, BigDecimal sectorBasePrice) {
+    public BigDecimal calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime, double occupancyRate,
+                                     BigDecimal sectorBasePrice, String sector) {
+        var event = new ParkingFlightEvents.Pricing();
+        event.begin();
+        try {
+            BigDecimal amount = price(entryTime, exitTime, occupancyRate, sectorBasePrice, sector);
+            event.outcome = ParkingFlightEvents.OK;
+            if (event.shouldCommit()) {
+                event.stayMinutes = minutesBetween(entryTime, exitTime);
+                event.amount = amount.doubleValue();
+            }
+            return amount;
+        } catch (RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.sector = sector;
+            event.occupancyRate = occupancyRate;
+            event.commit();
+        }
+    }
+
+    private BigDecimal price(LocalDateTime entryTime, LocalDateTime exitTime, double occupancyRate,
+                             BigDecimal sectorBasePrice, String sector) {
+        PricingRuleTable table = rules.forSector(sector);
+
         // Calcula tempo total de permanência em minutos
-        long totalMinutes = Duration.between(entryTime, exitTime).toMinutes();
-        
-        // Aplica tolerância de 30 minutos
-        if (totalMinutes <= TOLERANCE_MINUTES) {
+        long totalMinutes = minutesBetween(entryTime, exitTime);
+
+        // Aplica tolerância
+        if (totalMinutes <= table.toleranceMinutes()) {
             log.debug("Permanência de {} minutos - Dentro da tolerância", totalMinutes);
             return BigDecimal.ZERO;
         }
 
         // Após tolerância, cobra horas completas baseado no tempo total
         // Arredonda para cima: 31 min = 1 hora, 61 min = 2 horas
-        long totalHours = (totalMinutes + 59) / 60; // Arredonda para cima
-        
-        // Calcula preço da primeira hora com base na lotação
-        BigDecimal firstHourPrice = calculateFirstHourPrice(occupancyRate, sectorBasePrice);
-        BigDecimal firstHourCharge = firstHourPrice; // Primeira hora sempre completa
-        
-        // Calcula cobrança de horas adicionais (se houver)
+        long totalHours = table.chargedHours(totalMinutes);
+        int tier = table.tierOf(occupancyRate);
+
+        Long unscaledPrice = unscaledPrice(sectorBasePrice);
+        if (unscaledPrice == null) {
+            return calculatePriceBigDecimal(table, totalHours, tier, sectorBasePrice);
+        }
+
+        // total = base * multiplicador + base * (horas - 1), na escala do multiplicador:
+        // base * (multiplicador sem escala + (horas - 1) * 10^escala) / 10^(escala base + escala)
+        try {
+            long factor = Math.addExact(table.unscaledMultiplier(tier),
+                Math.multiplyExact(totalHours - 1, table.multiplierPowerOfTen(tier)));
+            var total = BigDecimal.valueOf(Math.multiplyExact(unscaledPrice, factor),
+                sectorBasePrice.scale() + table.multiplierScale(tier));
+            if (log.isDebugEnabled()) {
+                log.debug("Cálculo: {} min total, lotação {}%, faixa {}, total R${}",
+                    totalMinutes, occupancyRate, tier, total);
+            }
+            return total;
+        } catch (ArithmeticException e) {
+            return calculatePriceBigDecimal(table, totalHours, tier, sectorBasePrice);
+        }
+    }
+
+    /**
+     * Cálculo de referência em BigDecimal, usado quando o valor não cabe em um long.
+     */
+    private static BigDecimal calculatePriceBigDecimal(PricingRuleTable table, long totalHours, int tier,
+                                                       BigDecimal sectorBasePrice) {
+        // Primeira hora sempre completa, com o multiplicador da lotação
+        BigDecimal firstHourCharge = sectorBasePrice.multiply(table.multiplier(tier));
+
+        // Horas adicionais (se houver) no preço base
         var additionalCharge = BigDecimal.ZERO;
         if (totalHours > 1) {
-            long additionalHours = totalHours - 1;
-            additionalCharge = sectorBasePrice.multiply(BigDecimal.valueOf(additionalHours));
+            additionalCharge = sectorBasePrice.multiply(BigDecimal.valueOf(totalHours - 1));
         }
+        return firstHourCharge.add(additionalCharge);
+    }
 
-        // Soma primeira hora + horas adicionais
-        BigDecimal total = firstHourCharge.add(additionalCharge);
-        
-        // Log detalhado para auditoria
-        log.info("Cálculo: {} min total, lotação {}%, primeira hora R${}, adicional R${}, total R${}", 
-            totalMinutes, String.format("%.1f", occupancyRate), firstHourPrice, additionalCharge, total);
-        
-        return total;
+    /**
+     * Minutos completos entre dois instantes, com o mesmo truncamento de
+     * Duration.between(...).toMinutes(), sem alocar a Duration.
+     */
+    private static long minutesBetween(LocalDateTime start, LocalDateTime end) {
+        long seconds = end.toEpochSecond(ZoneOffset.UTC) - start.toEpochSecond(ZoneOffset.UTC);
+        if (end.getNano() < start.getNano()) {
+            seconds--;
+        }
+        return seconds / 60;
     }
 
     /**
-     * Calcula o preço da primeira hora baseado na taxa de ocupação.
-     * 
-     * Implementa sistema de preço dinâmico onde o valor da primeira hora
-     * varia conforme a lotação do estacionamento para otimizar utilização
-     * e receita.
-     * 
-     * Faixas de lotação e multiplicadores:
-     * - 0% a 25%: Desconto de 10% (0.90x) - Incentiva uso
-     * - 26% a 50%: Preço normal (1.00x) - Equilíbrio
-     * - 51% a 75%: Acréscimo de 10% (1.10x) - Desestimula uso
-     * - 76% a 100%: Acréscimo de 25% (1.25x) - Máximo controle
-     * 
-     * @param occupancyRate taxa de ocupação atual (0.0 a 100.0)
-     * @param basePrice preço base por hora do setor
-     * @return preço ajustado da primeira hora
-     * 
-     * @example
-     * Preço base: R$10,00, Lotação: 80%
-     * Resultado: R$10,00 * 1,25 = R$12,50
-     * 
-     * @implNote Horas adicionais sempre usam preço base (sem multiplicação)
-     */
-    private BigDecimal calculateFirstHourPrice(double occupancyRate, BigDecimal basePrice) {
-        if (occupancyRate <= 25) {
-            // Lotação baixa: desconto de 10% para incentivar uso
-            return basePrice.multiply(BigDecimal.valueOf(0.90));
-        } else if (occupancyRate <= 50) {
-            // Lotação média: preço normal
-            return basePrice;
-        } else if (occupancyRate <= 75) {
-            // Lotação alta: acréscimo de 10% para desestimular
-            return basePrice.multiply(BigDecimal.valueOf(1.10));
-        } else {
-            // Lotação muito alta: acréscimo de 25% para controle máximo
-            return basePrice.multiply(BigDecimal.valueOf(1.25));
-        }
-    }
-}
\ No newline at end of file
+     * Valor inteiro do preço base (preço = valor / 10^escala), ou null se não
+     * couber em um long.
+     */
+    private Long unscaledPrice(BigDecimal price) {
+        Long cached = unscaledPrices.get(price);
+        if (cached != null) {
+            return cached;
+        }
+        if (price.precision() > 18 || price.scale() < 0) {
+            return null;
+        }
+        if (unscaledPrices.size() >= MAX_CACHED_PRICES) {
+            unscaledPrices.clear();
+        }
+        long unscaled = price.unscaledValue().longValueExact();
+        unscaledPrices.put(price, unscaled);
+        return unscaled;
+    }
+}
@@ -0,0 +1,186 @@
+package com.estapar.parking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache limitado das consultas de receita por setor e data.
+ *
+ * A chave usa a data exatamente como recebida na requisição (YYYY-MM-DD),
+ * de modo que um acerto não precisa converter a data. Entradas são
+ * invalidadas apenas quando uma saída registra receita para o mesmo setor
+ * e dia ({@link #invalidate}), ou por completo após o recálculo da receita.
+ *
+ * Expiração:
+ * - dias fechados (anteriores a hoje) não expiram
+ * - o dia corrente e futuros expiram após parking.revenue.cache.ttl-seconds,
+ *   protegendo contra alterações feitas fora desta instância
+ * - acima de parking.revenue.cache.max-entries, as entradas acessadas há
+ *   mais tempo são removidas até 90% da capacidade
+ *
+ * Uma carga concorrente com uma invalidação não é armazenada: cada carga
+ * guarda o contador de invalidações de quando começou e só grava o valor
+ * se ele não mudou, o que impede que um valor anterior ao commit de uma
+ * saída fique no cache.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.service.RevenueRollupService
+ */
+@Component
+public class RevenueCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Key(String sector, String date) {
+    }
+
+    private static final class Entry {
+
+        private final BigDecimal amount;
+        /** Dias fechados não expiram */
+        private final boolean closedDay;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        Entry(BigDecimal amount, boolean closedDay, long expiresAt, long now) {
+            this.amount = amount;
+            this.closedDay = closedDay;
+            this.expiresAt = expiresAt;
+            this.lastAccess = now;
+        }
+
+        boolean isExpired(long now) {
+            return !closedDay && now - expiresAt >= 0;
+        }
+    }
+
+    @Autowired
+    public RevenueCache(@Value("${parking.revenue.cache.max-entries:10000}") int maxEntries,
+                        @Value("${parking.revenue.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, ttlSeconds));
+    }
+
+    /**
+     * Retorna a receita em cache ou a carrega e armazena.
+     *
+     * @param sector nome do setor
+     * @param date data no formato YYYY-MM-DD
+     * @param loader carga da receita em caso de ausência; recebe a data já convertida
+     * @return receita do setor na data
+     */
+    public BigDecimal get(String sector, String date, Function<LocalDate, BigDecimal> loader) {
+        var key = new Key(sector, date);
+        long now = System.nanoTime();
+
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            entry.lastAccess = now;
+            hits.increment();
+            return entry.amount;
+        }
+        misses.increment();
+
+        LocalDate day = LocalDate.parse(date);
+        long stamp = invalidations.get();
+        BigDecimal amount = loader.apply(day);
+
+        var loaded = new Entry(amount, day.isBefore(LocalDate.now()), now + ttlNanos, now);
+        // Só grava se nenhuma invalidação ocorreu durante a carga
+        entries.compute(key, (k, current) -> invalidations.get() == stamp ? loaded : current);
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        return amount;
+    }
+
+    /**
+     * Invalida a receita de um setor em um dia, após o registro de uma saída.
+     *
+     * @param sector nome do setor
+     * @param date dia da saída
+     */
+    public void invalidate(String sector, LocalDate date) {
+        invalidations.incrementAndGet();
+        entries.remove(new Key(sector, date.toString()));
+    }
+
+    /**
+     * Invalida todas as entradas, após o recálculo da receita.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Remove as entradas expiradas e, se ainda acima do limite, as acessadas há mais tempo.
+     */
+    private synchronized void evict(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.isExpired(now));
+
+        int excess = entries.size() - maxEntries * 9 / 10;
+        if (excess <= 0) {
+            return;
+        }
+        var oldest = new ArrayList<>(entries.entrySet());
+        oldest.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        for (int i = 0; i < excess && i < oldest.size(); i++) {
+            Map.Entry<Key, Entry> e = oldest.get(i);
+            entries.remove(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * @return consultas respondidas pelo cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return consultas que precisaram carregar a receita
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return fração de consultas respondidas pelo cache (0.0 a 1.0)
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    /**
+     * @return quantidade de entradas em cache
+     */
+    public int size() {
+        return entries.size();
+    }
+}
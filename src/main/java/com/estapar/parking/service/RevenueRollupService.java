@@ -0,0 +1,170 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.entity.RevenueRollup;
+import com.estapar.parking.repository.RevenueRollupRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Receita pré-agregada por setor e dia.
+ *
+ * Cada saída soma o valor cobrado à tabela "revenue_rollups" (upsert
+ * atômico, na mesma transação da saída). A consulta de receita lê um único
+ * registro da tabela pela chave única (setor, dia), independente do tamanho
+ * do histórico de veículos, e é servida pelo {@link RevenueCache}; o commit
+ * de uma saída invalida apenas a entrada do seu setor e dia.
+ *
+ * Se a tabela estiver vazia na inicialização (primeira execução após a
+ * atualização), ela é recalculada a partir de "vehicles".
+ * {@link #rebuild()} refaz esse cálculo sob demanda.
+ *
+ * Consistência com o rebuild: uma saída mantém o lock de leitura do upsert
+ * até o fim da sua transação, e o rebuild usa o lock de escrita. Assim
+ * nenhuma saída grava na tabela entre o DELETE e o INSERT ... SELECT do
+ * rebuild, o que faria o INSERT violar a chave única (setor, dia) ou
+ * contar o valor duas vezes.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.1
+ * @since 1.0
+ * @see com.estapar.parking.entity.RevenueRollup
+ */
+@Service
+public class RevenueRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueRollupService.class);
+
+    private final RevenueRollupRepository repository;
+    private final RevenueCache revenueCache;
+    private final TransactionTemplate rebuildTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public RevenueRollupService(RevenueRollupRepository repository, RevenueCache revenueCache,
+                                PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.revenueCache = revenueCache;
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        // Leitura não bloqueante de "vehicles": o rebuild não espera por
+        // transações de entrada em andamento; saídas já são barradas pelo lock
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Recalcula a tabela se estiver vazia.
+     */
+    @PostConstruct
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            if (repository.count() == 0) {
+                rebuildTable();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Soma a receita de uma saída ao setor e dia.
+     *
+     * Deve ser chamado dentro da transação da saída: o upsert na tabela é
+     * desfeito junto com ela, e o cache só é invalidado após o commit.
+     * Aguarda um rebuild em andamento.
+     *
+     * @param sector nome do setor
+     * @param date dia da saída
+     * @param amount valor cobrado
+     */
+    public void record(String sector, LocalDate date, BigDecimal amount) {
+        lock.readLock().lock();
+        boolean releaseOnCompletion = false;
+        try {
+            repository.addRevenue(sector, date, amount);
+
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                revenueCache.invalidate(sector, date);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revenueCache.invalidate(sector, date);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    lock.readLock().unlock();
+                }
+            });
+            releaseOnCompletion = true;
+        } finally {
+            if (!releaseOnCompletion) {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Receita de um setor em um dia.
+     *
+     * @param sector nome do setor
+     * @param date data no formato YYYY-MM-DD
+     * @return soma dos valores cobrados, zero se não houve saídas
+     */
+    public BigDecimal getRevenue(String sector, String date) {
+        return revenueCache.get(sector, date, day -> repository.findBySectorNameAndRevenueDate(sector, day)
+            .map(RevenueRollup::getAmount)
+            .orElse(BigDecimal.ZERO));
+    }
+
+    /**
+     * Recalcula a tabela a partir dos veículos que já saíram e esvazia o cache.
+     * Saídas concorrentes aguardam o término.
+     *
+     * @return quantidade de pares setor/dia recalculados
+     */
+    public int rebuild() {
+        lock.writeLock().lock();
+        try {
+            int count = rebuildTable();
+            revenueCache.invalidateAll();
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recalcula dia a dia, do dia da primeira ao da última saída: cada
+     * INSERT ... SELECT lê só a faixa de exit_time do dia pelo índice.
+     */
+    private int rebuildTable() {
+        Integer count = rebuildTemplate.execute(status -> {
+            repository.deleteAllRollups();
+            LocalDateTime first = repository.findFirstExitTime();
+            LocalDateTime last = repository.findLastExitTime();
+            if (first == null || last == null) {
+                return 0;
+            }
+            int rows = 0;
+            for (LocalDate day = first.toLocalDate(); !day.isAfter(last.toLocalDate()); day = day.plusDays(1)) {
+                rows += repository.rebuildFromVehicles(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            }
+            return rows;
+        });
+        log.info("Receita pré-agregada recalculada: {} setor(es)/dia(s)", count);
+        return count != null ? count : 0;
+    }
+}
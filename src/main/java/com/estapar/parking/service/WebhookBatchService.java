@@ -0,0 +1,196 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.BatchEventResult;
+import com.estapar.parking.dto.BatchResponse;
+import com.estapar.parking.dto.WebhookEvent;
+import com.estapar.parking.service.AdmissionControl.Decision;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Ingestão de eventos em lote no formato NDJSON (um evento JSON por linha).
+ *
+ * O corpo é lido de forma incremental com o parser de streaming do Jackson
+ * (MappingIterator), sem materializar a requisição inteira. Cada evento é
+ * validado (Bean Validation) e submetido ao {@link AdmissionControl}; os
+ * aceitos são enfileirados em blocos de parking.webhook.batch.chunk-size,
+ * com uma única espera de fsync do write-ahead log por bloco.
+ *
+ * Uma linha inválida não invalida o lote: cada linha recebe sua própria
+ * confirmação. JSON malformado, porém, interrompe a leitura, pois não há
+ * como ressincronizar o parser com segurança.
+ *
+ * @author Sistema de Estacionamento
+ * @version 1.0
+ * @since 1.0
+ * @see com.estapar.parking.controller.WebhookController
+ */
+@Service
+public class WebhookBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookBatchService.class);
+
+    private final EventQueueService eventQueueService;
+    private final AdmissionControl admissionControl;
+    private final Validator validator;
+    private final ObjectReader reader;
+    private final int chunkSize;
+    private final int maxEvents;
+
+    @Autowired
+    public WebhookBatchService(EventQueueService eventQueueService,
+                               AdmissionControl admissionControl,
+                               Validator validator,
+                               ObjectMapper objectMapper,
+                               @Value("${parking.webhook.batch.chunk-size:500}") int chunkSize,
+                               @Value("${parking.webhook.batch.max-events:10000}") int maxEvents) {
+        this.eventQueueService = eventQueueService;
+        this.admissionControl = admissionControl;
+        this.validator = validator;
+        this.reader = objectMapper.readerFor(WebhookEvent.class);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxEvents = Math.max(1, maxEvents);
+    }
+
+    /**
+     * Lê, valida e enfileira os eventos de um corpo NDJSON.
+     *
+     * @param body corpo da requisição
+     * @param gate identificador da cancela, para o token bucket da admissão
+     * @return confirmação por linha e totais
+     * @throws IOException em caso de erro de leitura do corpo
+     */
+    public BatchResponse ingest(InputStream body, String gate) throws IOException {
+        var batch = new Batch();
+
+        try (MappingIterator<WebhookEvent> events = reader.readValues(body)) {
+            while (true) {
+                WebhookEvent event;
+                int line;
+                try {
+                    if (!events.hasNextValue()) {
+                        break;
+                    }
+                    event = events.nextValue();
+                    line = events.getCurrentLocation().getLineNr();
+                } catch (JsonParseException e) {
+                    batch.reject(e.getLocation().getLineNr(), HttpStatus.BAD_REQUEST,
+                        "JSON malformado - linhas seguintes ignoradas");
+                    break;
+                } catch (DatabindException e) {
+                    // Valor com tipo inválido: o iterador pula para o próximo objeto
+                    batch.reject(e.getLocation() != null ? e.getLocation().getLineNr() : 0,
+                        HttpStatus.BAD_REQUEST, e.getOriginalMessage());
+                    continue;
+                }
+
+                if (batch.size() >= maxEvents) {
+                    batch.reject(line, HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Limite de " + maxEvents + " eventos por lote excedido - linhas seguintes ignoradas");
+                    break;
+                }
+
+                var violations = validator.validate(event);
+                if (!violations.isEmpty()) {
+                    batch.reject(line, HttpStatus.BAD_REQUEST, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                    continue;
+                }
+
+                Decision decision = admissionControl.admit(gate, event.getLicensePlate());
+                if (!decision.admitted()) {
+                    batch.reject(line, decision.status(), decision.reason());
+                    batch.retryAfter(decision.retryAfterSeconds());
+                    continue;
+                }
+
+                batch.accept(line, event);
+                if (batch.pending.size() >= chunkSize) {
+                    flush(batch);
+                }
+            }
+        }
+        flush(batch);
+
+        var response = batch.toResponse();
+        log.info("Lote recebido: {} evento(s) aceito(s), {} recusado(s)",
+            response.getAccepted(), response.getRejected());
+        return response;
+    }
+
+    /**
+     * Enfileira o bloco pendente, marcando como 503 os eventos recusados pela fila.
+     */
+    private void flush(Batch batch) {
+        if (batch.pending.isEmpty()) {
+            return;
+        }
+        boolean[] accepted = eventQueueService.enqueueAll(batch.pending);
+        for (int i = 0; i < accepted.length; i++) {
+            if (!accepted[i]) {
+                var result = batch.pendingResults.get(i);
+                result.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                result.setError("Fila cheia");
+                batch.retryAfter(admissionControl.retryAfterSeconds(batch.pending.get(i).getLicensePlate()));
+            }
+        }
+        batch.pending.clear();
+        batch.pendingResults.clear();
+    }
+
+    /**
+     * Estado de um lote em leitura.
+     */
+    private static final class Batch {
+
+        private final List<BatchEventResult> results = new ArrayList<>();
+        private final List<WebhookEvent> pending = new ArrayList<>();
+        private final List<BatchEventResult> pendingResults = new ArrayList<>();
+        private long retryAfterSeconds;
+
+        int size() {
+            return results.size();
+        }
+
+        void accept(int line, WebhookEvent event) {
+            var result = new BatchEventResult(line, HttpStatus.ACCEPTED.value(), null);
+            results.add(result);
+            pending.add(event);
+            pendingResults.add(result);
+        }
+
+        void reject(int line, HttpStatus status, String error) {
+            results.add(new BatchEventResult(line, status.value(), error));
+        }
+
+        void retryAfter(long seconds) {
+            retryAfterSeconds = Math.max(retryAfterSeconds, seconds);
+        }
+
+        BatchResponse toResponse() {
+            int accepted = (int) results.stream()
+                .filter(r -> r.getStatus() == HttpStatus.ACCEPTED.value())
+                .count();
+            return new BatchResponse(accepted, results.size() - accepted, retryAfterSeconds, results);
+        }
+    }
+}
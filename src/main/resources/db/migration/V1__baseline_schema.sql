@@ -0,0 +1,35 @@
+-- Esquema da versão anterior ao Flyway, equivalente ao gerado pelo Hibernate (ddl-auto: update):
+-- ids de sectors e vehicles por IDENTITY, sem sequências, hashes de configuração ou receita agregada.
+-- Bancos já existentes recebem este script como baseline (spring.flyway.baseline-on-migrate) e
+-- passam a receber apenas as migrations seguintes, que acrescentam o que foi introduzido depois.
+
+CREATE TABLE sectors (
+    id           BIGINT         NOT NULL AUTO_INCREMENT,
+    name         VARCHAR(255)   NOT NULL,
+    base_price   DECIMAL(38, 2) NOT NULL,
+    max_capacity INT            NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_sectors_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE parking_spots (
+    id        BIGINT         NOT NULL,
+    latitude  DECIMAL(38, 2) NOT NULL,
+    longitude DECIMAL(38, 2) NOT NULL,
+    occupied  BIT            NOT NULL,
+    sector_id BIGINT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_parking_spots_sector FOREIGN KEY (sector_id) REFERENCES sectors (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE vehicles (
+    id              BIGINT                               NOT NULL AUTO_INCREMENT,
+    license_plate   VARCHAR(255)                         NOT NULL,
+    entry_time      DATETIME(6)                          NOT NULL,
+    exit_time       DATETIME(6),
+    parking_spot_id BIGINT,
+    total_amount    DECIMAL(38, 2),
+    status          ENUM ('ENTERED', 'PARKED', 'EXITED') NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_vehicles_parking_spot FOREIGN KEY (parking_spot_id) REFERENCES parking_spots (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,8 @@
+-- Busca do veículo ativo por placa (toda ENTRY e EXIT): placa + status, sem varrer o histórico
+CREATE INDEX idx_vehicles_plate_status ON vehicles (license_plate, status);
+
+-- Recálculo da receita por dia de saída (apenas veículos que já saíram)
+CREATE INDEX idx_vehicles_exit_time ON vehicles (exit_time);
+
+-- Contagem de vagas ocupadas por setor
+CREATE INDEX idx_parking_spots_occupied_sector ON parking_spots (occupied, sector_id);
@@ -0,0 +1,38 @@
+-- No máximo uma sessão ativa (ENTERED/PARKED) por placa, garantida pelo banco.
+-- active_plate é a placa enquanto o veículo está no estacionamento e NULL após a
+-- saída; o índice único ignora os NULLs do histórico.
+
+-- Sessões ativas duplicadas impediriam a criação do índice: mantém a mais recente de cada
+-- placa e encerra as demais. Antes disso, as sessões encerradas são copiadas, com o status
+-- anterior e a sessão mantida, para vehicles_closed_duplicates, para conferência manual
+-- (o encerramento grava exit_time = entry_time, sem valor cobrado).
+CREATE TABLE vehicles_closed_duplicates (
+    vehicle_id      BIGINT                     NOT NULL,
+    license_plate   VARCHAR(255)               NOT NULL,
+    previous_status ENUM ('ENTERED', 'PARKED') NOT NULL,
+    entry_time      DATETIME(6)                NOT NULL,
+    parking_spot_id BIGINT,
+    kept_vehicle_id BIGINT                     NOT NULL,
+    closed_at       DATETIME(6)                NOT NULL,
+    PRIMARY KEY (vehicle_id)
+) ENGINE = InnoDB;
+
+INSERT INTO vehicles_closed_duplicates
+    (vehicle_id, license_plate, previous_status, entry_time, parking_spot_id, kept_vehicle_id, closed_at)
+SELECT v.id, v.license_plate, v.status, v.entry_time, v.parking_spot_id, d.keep_id, NOW(6)
+FROM vehicles v
+JOIN (SELECT license_plate, MAX(id) AS keep_id
+      FROM vehicles
+      WHERE status IN ('ENTERED', 'PARKED')
+      GROUP BY license_plate
+      HAVING COUNT(*) > 1) d ON d.license_plate = v.license_plate
+WHERE v.status IN ('ENTERED', 'PARKED') AND v.id < d.keep_id;
+
+UPDATE vehicles v
+JOIN vehicles_closed_duplicates c ON c.vehicle_id = v.id
+SET v.status = 'EXITED', v.exit_time = v.entry_time;
+
+ALTER TABLE vehicles
+    ADD COLUMN active_plate VARCHAR(255)
+        GENERATED ALWAYS AS (CASE WHEN status IN ('ENTERED', 'PARKED') THEN license_plate END),
+    ADD UNIQUE INDEX uk_vehicles_active_plate (active_plate);
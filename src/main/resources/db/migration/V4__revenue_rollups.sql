@@ -0,0 +1,11 @@
+-- Receita pré-agregada por setor e dia de saída.
+-- Criada vazia: RevenueRollupService recalcula a tabela a partir de "vehicles" na inicialização.
+
+CREATE TABLE revenue_rollups (
+    id           BIGINT         NOT NULL AUTO_INCREMENT,
+    sector_name  VARCHAR(255)   NOT NULL,
+    revenue_date DATE           NOT NULL,
+    amount       DECIMAL(38, 2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_revenue_rollup_sector_date UNIQUE (sector_name, revenue_date)
+) ENGINE = InnoDB;
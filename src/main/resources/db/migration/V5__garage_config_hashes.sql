@@ -0,0 +1,10 @@
+-- Carregamento incremental da garagem: hash do conteúdo de setores e vagas na configuração
+-- do simulador e desativação (em vez de exclusão) de vagas removidas da configuração.
+-- Registros existentes ficam sem hash e são regravados uma única vez no próximo carregamento.
+
+ALTER TABLE sectors
+    ADD COLUMN config_hash BIGINT;
+
+ALTER TABLE parking_spots
+    ADD COLUMN active      BIT NOT NULL DEFAULT 1,
+    ADD COLUMN config_hash BIGINT;
@@ -0,0 +1,14 @@
+-- Ids de sectors e vehicles gerados por sequência pooled (allocationSize = 50), emulada por
+-- tabela no MySQL. As sequências partem do maior id existente, gerado até aqui por IDENTITY;
+-- IdSequenceAligner confere o mesmo alinhamento a cada inicialização.
+-- AUTO_INCREMENT permanece nas colunas, sem efeito, pois o Hibernate passa a informar o id.
+
+CREATE TABLE sectors_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO sectors_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM sectors;
+
+CREATE TABLE vehicles_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO vehicles_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM vehicles;
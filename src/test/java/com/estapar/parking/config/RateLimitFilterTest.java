@@ -0,0 +1,131 @@
+package com.estapar.parking.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    @Test
+    void deveAceitarRajadaEDepoisUmaRequisicaoPorIntervalo() {
+        var filter = new RateLimitFilter("5/10s", "", 100_000, "", "");
+        long now = 1_000_000;
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(filter.isRateLimited("10.0.0.1", now));
+        }
+        assertTrue(filter.isRateLimited("10.0.0.1", now));
+        // 5/10s: uma nova requisição a cada 2 segundos
+        assertTrue(filter.isRateLimited("10.0.0.1", now + 1_999));
+        assertFalse(filter.isRateLimited("10.0.0.1", now + 2_000));
+        assertTrue(filter.isRateLimited("10.0.0.1", now + 2_000));
+        // Outro IP tem sua própria contagem
+        assertFalse(filter.isRateLimited("10.0.0.2", now));
+    }
+
+    @Test
+    void deveAplicarLimitePorRotaComRetryAfter() throws Exception {
+        var filter = new RateLimitFilter("5/10s", "/revenue=1/60s, /webhook/batch=2/10s", 100, "", "");
+
+        assertEquals(200, call(filter, "/revenue").getStatus());
+        MockHttpServletResponse limited = call(filter, "/revenue");
+        assertEquals(429, limited.getStatus());
+        assertEquals("60", limited.getHeader("Retry-After"));
+        assertEquals("{\"error\":\"Rate limit exceeded\"}", limited.getContentAsString());
+
+        // Prefixo mais longo prevalece e cada rota conta separadamente
+        assertEquals(200, call(filter, "/webhook/batch").getStatus());
+        assertEquals(200, call(filter, "/webhook/batch").getStatus());
+        assertEquals(429, call(filter, "/webhook/batch").getStatus());
+        assertEquals(200, call(filter, "/webhook").getStatus());
+    }
+
+    @Test
+    void deveRemoverChavesOciosasELimitarQuantidade() {
+        var filter = new RateLimitFilter("5/10s", "", 2, "", "");
+        long now = 1_000_000;
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(filter.isRateLimited("10.0.0.1", now));
+        }
+        assertFalse(filter.isRateLimited("10.0.0.2", now));
+        // Sem espaço e sem chaves ociosas: a chave de TAT mais antigo (10.0.0.2) dá lugar ao IP novo
+        assertFalse(filter.isRateLimited("10.0.0.3", now));
+        assertEquals(2, filter.getTrackedKeys());
+        // O cliente que estava sendo limitado continua limitado
+        assertTrue(filter.isRateLimited("10.0.0.1", now));
+
+        // Após o período as chaves voltam ao limite inteiro e são removidas
+        assertEquals(2, filter.evictIdle(now + 10_000));
+        assertEquals(0, filter.getTrackedKeys());
+    }
+
+    @Test
+    void naoDeveRecusarClientesNovosComChavesForjadas() {
+        var filter = new RateLimitFilter("1/60s", "", 100, "", "");
+        long now = 1_000_000;
+        assertFalse(filter.isRateLimited("10.0.0.1", now));
+
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(filter.isRateLimited("forjado-" + i, now));
+        }
+
+        assertFalse(filter.isRateLimited("10.0.0.2", now));
+        assertTrue(filter.getTrackedKeys() <= 100);
+    }
+
+    @Test
+    void deveUsarXForwardedForSomenteDeProxyConfiavel() throws Exception {
+        var filter = new RateLimitFilter("1/60s", "", 100, "", "10.0.0.10");
+
+        // Conexão direta: o header é ignorado e a contagem é do endereço da conexão
+        assertEquals(200, call(filter, "/revenue", "10.0.0.1", "198.51.100.1").getStatus());
+        assertEquals(429, call(filter, "/revenue", "10.0.0.1", "198.51.100.2").getStatus());
+
+        // Via proxy confiável: vale o endereço mais à direita que não seja de proxy
+        assertEquals(200, call(filter, "/revenue", "10.0.0.10", "198.51.100.1, 203.0.113.1").getStatus());
+        assertEquals(429, call(filter, "/revenue", "10.0.0.10", "198.51.100.9, 203.0.113.1").getStatus());
+        assertEquals(200, call(filter, "/revenue", "10.0.0.10", "203.0.113.2, 10.0.0.10").getStatus());
+    }
+
+    @Test
+    void deveIsentarRotasDoActuatorEContarRecusas() throws Exception {
+        var filter = new RateLimitFilter("1/60s", "", 100, "/actuator", "");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, call(filter, "/actuator/prometheus").getStatus());
+        }
+        assertEquals(200, call(filter, "/revenue").getStatus());
+        assertEquals(429, call(filter, "/revenue").getStatus());
+        assertEquals(429, call(filter, "/revenue").getStatus());
+        assertEquals(2, filter.getRejectedCount());
+    }
+
+    @Test
+    void deveRejeitarConfiguracaoInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter("5", "", 100, "", ""));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter("5/10s", "/revenue", 100, "", ""));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter("0/10s", "", 100, "", ""));
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String uri) throws Exception {
+        return call(filter, uri, "10.0.0.1", null);
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String uri, String remoteAddr,
+                                                String forwardedFor) throws Exception {
+        var request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        var response = new MockHttpServletResponse();
+        FilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
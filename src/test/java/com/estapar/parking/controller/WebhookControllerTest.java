@@ -1,18 +1,26 @@
 package com.estapar.parking.controller;
 
+import com.estapar.parking.dto.BatchEventResult;
+import com.estapar.parking.dto.BatchResponse;
 import com.estapar.parking.dto.WebhookEvent;
+import com.estapar.parking.service.AdmissionControl;
+import com.estapar.parking.service.AdmissionControl.Decision;
 import com.estapar.parking.service.EventQueueService;
+import com.estapar.parking.service.WebhookBatchService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -34,6 +42,17 @@ class WebhookControllerTest {
     @MockBean
     private EventQueueService eventQueueService;
 
+    @MockBean
+    private AdmissionControl admissionControl;
+
+    @MockBean
+    private WebhookBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        when(admissionControl.admit(any(), any())).thenReturn(Decision.admit());
+    }
+
     @Test
     @DisplayName("ENTRY: deve enfileirar entrada de veículo")
     void shouldProcessEntryEvent() throws Exception {
@@ -85,10 +104,51 @@ class WebhookControllerTest {
         event.setEntryTime(dateTimeString);
 
         when(eventQueueService.enqueue(any(WebhookEvent.class))).thenReturn(false);
+        when(admissionControl.retryAfterSeconds("ABC1D23")).thenReturn(3L);
 
         mockMvc.perform(post("/webhook")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(event)))
-                .andExpect(status().isServiceUnavailable());
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
+    }
+
+    @Test
+    @DisplayName("Admissão: deve retornar 429 com Retry-After sem enfileirar")
+    void shouldReturn429WhenAdmissionSheds() throws Exception {
+        var event = new WebhookEvent();
+        event.setEventType("ENTRY");
+        event.setLicensePlate("ABC1234");
+        event.setEntryTime("2025-01-20 10:00:00");
+
+        when(admissionControl.admit("cancela-1", "ABC1234")).thenReturn(
+            new Decision(false, HttpStatus.TOO_MANY_REQUESTS, 2, "Fila acima da marca baixa"));
+
+        mockMvc.perform(post("/webhook")
+                .header("X-Gate-Id", "cancela-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(event)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        verify(eventQueueService, never()).enqueue(any(WebhookEvent.class));
+    }
+
+    @Test
+    @DisplayName("Lote NDJSON: deve retornar confirmação por linha e Retry-After")
+    void shouldAcknowledgeBatchPerLine() throws Exception {
+        var response = new BatchResponse(1, 1, 5, List.of(
+            new BatchEventResult(1, 202, null),
+            new BatchEventResult(2, 429, "Fila acima da marca baixa")));
+        when(batchService.ingest(any(), eq("cancela-1"))).thenReturn(response);
+
+        mockMvc.perform(post("/webhook/batch")
+                .header("X-Gate-Id", "cancela-1")
+                .contentType("application/x-ndjson")
+                .content("{\"license_plate\":\"ABC1234\",\"event_type\":\"ENTRY\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.results[1].status").value(429));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.estapar.parking.repository;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Executa as migrations de db/migration contra MySQL (são escritas para MySQL e não rodam no H2
+// dos demais testes) e valida o mapeamento das entidades como na aplicação (ddl-auto: validate).
+@Testcontainers(disabledWithoutDocker = true)
+class FlywayMigrationTest {
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        flyway().clean();
+    }
+
+    @Test
+    void deveCriarEsquemaEmBancoNovo() {
+        flyway().migrate();
+
+        assertDoesNotThrow(this::validateEntityMapping);
+        assertEquals(50L, jdbcTemplate.queryForObject("SELECT next_val FROM vehicles_seq", Long.class));
+        assertEquals(50L, jdbcTemplate.queryForObject("SELECT next_val FROM sectors_seq", Long.class));
+    }
+
+    @Test
+    void deveAtualizarBancoCriadoAntesDoFlyway() {
+        // Banco da versão anterior: esquema da V1, sem histórico do Flyway
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(dataSource);
+        jdbcTemplate.update("INSERT INTO sectors (id, name, base_price, max_capacity) VALUES (3, 'A', 40.50, 10)");
+        jdbcTemplate.update("INSERT INTO parking_spots (id, latitude, longitude, occupied, sector_id) "
+            + "VALUES (10, -23.56, -46.65, 1, 3)");
+        jdbcTemplate.update("INSERT INTO vehicles (id, license_plate, entry_time, exit_time, parking_spot_id, total_amount, status) "
+            + "VALUES (40, 'ABC1234', '2025-01-20 10:00:00', '2025-01-20 11:00:00', 10, 40.50, 'EXITED')");
+        jdbcTemplate.update("INSERT INTO vehicles (id, license_plate, entry_time, parking_spot_id, status) "
+            + "VALUES (41, 'ABC1234', '2025-01-20 12:00:00', 10, 'PARKED')");
+
+        var result = flyway().migrate();
+
+        assertEquals("1", jdbcTemplate.queryForObject(
+            "SELECT version FROM flyway_schema_history WHERE type = 'BASELINE'", String.class));
+        assertEquals(result.targetSchemaVersion, flyway().info().current().getVersion().getVersion());
+        assertDoesNotThrow(this::validateEntityMapping);
+        // Sequências partem do maior id gerado por IDENTITY
+        assertEquals(91L, jdbcTemplate.queryForObject("SELECT next_val FROM vehicles_seq", Long.class));
+        assertEquals(53L, jdbcTemplate.queryForObject("SELECT next_val FROM sectors_seq", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT active FROM parking_spots WHERE id = 10", Integer.class));
+        assertEquals("ABC1234", jdbcTemplate.queryForObject(
+            "SELECT active_plate FROM vehicles WHERE id = 41", String.class));
+    }
+
+    @Test
+    void deveRegistrarSessoesAtivasDuplicadasAntesDeEncerrar() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(dataSource);
+        jdbcTemplate.update("INSERT INTO sectors (id, name, base_price, max_capacity) VALUES (1, 'A', 40.50, 10)");
+        jdbcTemplate.update("INSERT INTO parking_spots (id, latitude, longitude, occupied, sector_id) "
+            + "VALUES (1, -23.56, -46.65, 1, 1), (2, -23.57, -46.66, 1, 1)");
+        jdbcTemplate.update("INSERT INTO vehicles (id, license_plate, entry_time, parking_spot_id, status) "
+            + "VALUES (1, 'ABC1234', '2025-01-20 10:00:00', 1, 'PARKED'), (2, 'ABC1234', '2025-01-20 12:00:00', 2, 'ENTERED')");
+
+        flyway().migrate();
+
+        assertEquals("EXITED", jdbcTemplate.queryForObject("SELECT status FROM vehicles WHERE id = 1", String.class));
+        assertEquals("ENTERED", jdbcTemplate.queryForObject("SELECT status FROM vehicles WHERE id = 2", String.class));
+        var audited = jdbcTemplate.queryForMap("SELECT * FROM vehicles_closed_duplicates");
+        assertEquals(1L, ((Number) audited.get("vehicle_id")).longValue());
+        assertEquals("PARKED", audited.get("previous_status"));
+        assertEquals(2L, ((Number) audited.get("kept_vehicle_id")).longValue());
+    }
+
+    /**
+     * Mesma configuração do Flyway em application.yml.
+     */
+    private Flyway flyway() {
+        return Flyway.configure()
+            .dataSource(dataSource)
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .cleanDisabled(false)
+            .load();
+    }
+
+    /**
+     * Inicializa o Hibernate com ddl-auto validate sobre o esquema migrado.
+     */
+    private void validateEntityMapping() {
+        var factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.estapar.parking.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+            "hibernate.hbm2ddl.auto", "validate",
+            "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName()));
+        factory.afterPropertiesSet();
+        factory.destroy();
+    }
+}
@@ -0,0 +1,137 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.VehicleRepository.ActiveVehicleRow;
+import com.estapar.parking.service.ActiveVehicleRegistry.ActiveVehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActiveVehicleRegistryTest {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2025, 1, 20, 10, 0);
+
+    private final ActiveVehicleRegistry registry = new ActiveVehicleRegistry();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deveSemearVeiculosAtivosDoBanco() {
+        registry.register("OLD0001", new ActiveVehicle(99L, 9L, ENTRY));
+
+        registry.rebuild(List.of(row("ABC1234", 1L, 10L), row("BRA2E19", 2L, 20L)));
+
+        assertEquals(2, registry.size());
+        assertEquals(new ActiveVehicle(1L, 10L, ENTRY), registry.find("ABC1234"));
+        assertEquals(new ActiveVehicle(2L, 20L, ENTRY), registry.find("BRA2E19"));
+        assertNull(registry.find("OLD0001"));
+    }
+
+    @Test
+    void deveCompactarPlacasSemColisaoEntreTamanhos() {
+        assertNotEquals(0, ActiveVehicleRegistry.pack("ABC1234"));
+        assertNotEquals(ActiveVehicleRegistry.pack("0"), ActiveVehicleRegistry.pack("00"));
+        assertNotEquals(ActiveVehicleRegistry.pack("A1"), ActiveVehicleRegistry.pack("1A"));
+        assertEquals(ActiveVehicleRegistry.pack("abc1d23"), ActiveVehicleRegistry.pack("ABC1D23"));
+        assertTrue(ActiveVehicleRegistry.pack("ZZZZZZZZZZZZ") > 0);
+        assertEquals(0, ActiveVehicleRegistry.pack("ABC-1234"));
+        assertEquals(0, ActiveVehicleRegistry.pack("ABCDEFGHIJKLM"));
+    }
+
+    @Test
+    void deveRegistrarPlacasNaoCompactaveis() {
+        var vehicle = new ActiveVehicle(1L, 10L, ENTRY);
+
+        assertTrue(registry.register("abc-1234", vehicle));
+
+        assertEquals(vehicle, registry.find("ABC-1234"));
+        assertFalse(registry.register("ABC-1234", new ActiveVehicle(2L, 20L, ENTRY)));
+        registry.unregister("ABC-1234", vehicle);
+        assertFalse(registry.contains("abc-1234"));
+    }
+
+    @Test
+    void deveRecusarPlacaJaRegistrada() {
+        assertTrue(registry.register("ABC1234", new ActiveVehicle(1L, 10L, ENTRY)));
+
+        assertFalse(registry.register("abc1234", new ActiveVehicle(2L, 20L, ENTRY)));
+        assertEquals(1L, registry.find("ABC1234").vehicleId());
+    }
+
+    @Test
+    void deveManterAlteracoesAposCommit() {
+        var parked = new ActiveVehicle(1L, 10L, ENTRY);
+        registry.register("ABC1234", parked);
+
+        TransactionSynchronizationManager.initSynchronization();
+        registry.unregister("ABC1234", parked);
+        registry.register("DEF5678", new ActiveVehicle(2L, 20L, ENTRY));
+        assertTrue(registry.exitedInCurrentTransaction("abc1234"));
+        assertFalse(registry.exitedInCurrentTransaction("DEF5678"));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(registry.exitedInCurrentTransaction("ABC1234"));
+
+        assertNull(registry.find("ABC1234"));
+        assertNotNull(registry.find("DEF5678"));
+    }
+
+    @Test
+    void deveDesfazerEmOrdemInversaNoRollback() {
+        var parked = new ActiveVehicle(1L, 10L, ENTRY);
+        registry.register("ABC1234", parked);
+
+        // Lote revertido: saída e nova entrada da placa presente, entrada e saída de outra placa
+        TransactionSynchronizationManager.initSynchronization();
+        registry.unregister("ABC1234", parked);
+        registry.register("ABC1234", new ActiveVehicle(2L, 20L, ENTRY.plusHours(1)));
+        var visitor = new ActiveVehicle(3L, 30L, ENTRY);
+        registry.register("DEF5678", visitor);
+        registry.unregister("DEF5678", visitor);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(parked, registry.find("ABC1234"));
+        assertNull(registry.find("DEF5678"));
+        assertEquals(1, registry.size());
+    }
+
+    private static void complete(int status) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    private static ActiveVehicleRow row(String plate, long id, long spotId) {
+        return new ActiveVehicleRow() {
+            @Override
+            public String getLicensePlate() {
+                return plate;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getSpotId() {
+                return spotId;
+            }
+
+            @Override
+            public LocalDateTime getEntryTime() {
+                return ENTRY;
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.service.AdmissionControl.Decision;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlTest {
+
+    private EventQueueService eventQueueService;
+
+    @BeforeEach
+    void setUp() {
+        eventQueueService = mock(EventQueueService.class);
+        when(eventQueueService.getPartitionCapacity()).thenReturn(100);
+        when(eventQueueService.getPartitionCount()).thenReturn(1);
+    }
+
+    @Test
+    void deveAdmitirAbaixoDaMarcaBaixa() {
+        when(eventQueueService.getPartitionDepth(any())).thenReturn(69);
+        var admission = create(0);
+
+        assertTrue(admission.admit("cancela-1", "ABC1234").admitted());
+    }
+
+    @Test
+    void deveRecusarCom503AcimaDaMarcaAlta() {
+        when(eventQueueService.getPartitionDepth(any())).thenReturn(95);
+        var admission = create(0);
+
+        Decision decision = admission.admit("cancela-1", "ABC1234");
+
+        assertFalse(decision.admitted());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, decision.status());
+        // Sem vazão medida, usa o Retry-After máximo
+        assertEquals(30, decision.retryAfterSeconds());
+        assertEquals(1, admission.getRejectedCount());
+    }
+
+    @Test
+    void deveCalcularRetryAfterPelaVazaoMedida() throws InterruptedException {
+        when(eventQueueService.getPartitionDepth(any())).thenReturn(95);
+        when(eventQueueService.getProcessedCount()).thenReturn(0L);
+        var admission = create(0);
+
+        Thread.sleep(100);
+        when(eventQueueService.getProcessedCount()).thenReturn(1_000_000L);
+        admission.sampleDrainRate();
+
+        assertTrue(admission.getDrainRate() > 0);
+        assertEquals(1, admission.admit("cancela-1", "ABC1234").retryAfterSeconds());
+    }
+
+    @Test
+    void deveDescartarProbabilisticamenteEntreAsMarcas() {
+        // 80% de ocupação, entre 70% e 90%: probabilidade de descarte de 50%
+        when(eventQueueService.getPartitionDepth(any())).thenReturn(80);
+        var admission = create(0);
+
+        int shed = 0;
+        for (int i = 0; i < 1000; i++) {
+            Decision decision = admission.admit("cancela-1", "ABC1234");
+            if (!decision.admitted()) {
+                assertEquals(HttpStatus.TOO_MANY_REQUESTS, decision.status());
+                shed++;
+            }
+        }
+
+        assertTrue(shed > 350 && shed < 650, "Descartes: " + shed);
+    }
+
+    @Test
+    void deveLimitarTaxaPorCancela() {
+        when(eventQueueService.getPartitionDepth(any())).thenReturn(0);
+        var admission = create(1);
+
+        assertTrue(admission.admit("cancela-1", "ABC1234").admitted());
+        assertTrue(admission.admit("cancela-1", "ABC1234").admitted());
+        Decision decision = admission.admit("cancela-1", "ABC1234");
+
+        assertFalse(decision.admitted());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, decision.status());
+        assertEquals(1, decision.retryAfterSeconds());
+        // Outra cancela tem seu próprio bucket
+        assertTrue(admission.admit("cancela-2", "ABC1234").admitted());
+    }
+
+    @Test
+    void deveManterLimiteDaCancelaComIdentificadoresForjados() {
+        when(eventQueueService.getPartitionDepth(any())).thenReturn(0);
+        var admission = create(1);
+        admission.admit("cancela-1", "ABC1234");
+        admission.admit("cancela-1", "ABC1234");
+
+        // Mais identificadores que o máximo de cancelas rastreadas
+        for (int i = 0; i < 20_000; i++) {
+            admission.admit("forjada-" + i, "ABC1234");
+        }
+
+        assertFalse(admission.admit("cancela-1", "ABC1234").admitted());
+    }
+
+    private AdmissionControl create(double gateRatePerSecond) {
+        return new AdmissionControl(eventQueueService, true, 0.7, 0.9, 30, gateRatePerSecond, 2);
+    }
+}
@@ -0,0 +1,125 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadLetterQueueTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deveDescartarEventosAcimaDoLimite() {
+        var dlq = new DeadLetterQueue(false, directory, 2, 2, 5, 1000, 60_000, objectMapper);
+
+        assertTrue(dlq.add(createEvent("ABC1111"), "Fila cheia"));
+        assertTrue(dlq.add(createEvent("ABC2222"), "Fila cheia"));
+        assertFalse(dlq.add(createEvent("ABC3333"), "Fila cheia"));
+
+        assertEquals(2, dlq.size());
+        assertEquals(1, dlq.getDroppedCount());
+    }
+
+    @Test
+    void deveRecuperarEntradasPersistidasAposRestart() {
+        var dlq = persistent(10);
+        dlq.add(createEvent("ABC1111"), "Erro simulado");
+        dlq.add(createEvent("ABC2222"), "Erro simulado");
+
+        var reopened = persistent(10);
+
+        assertEquals(2, reopened.size());
+        var entry = reopened.page(0, 1).get(0);
+        assertEquals("ABC1111", entry.getEvent().getLicensePlate());
+        assertEquals("Erro simulado", entry.getCause());
+        assertTrue(reopened.add(createEvent("ABC3333"), "Erro simulado"));
+        assertEquals(entry.getId() + 2, reopened.page(0, 3).get(2).getId());
+    }
+
+    @Test
+    void deveTransbordarParaDiscoEPaginarEmOrdem() {
+        var dlq = persistent(2);
+        for (int i = 0; i < 5; i++) {
+            dlq.add(createEvent("ABC100" + i), "Erro simulado");
+        }
+
+        assertEquals(5, dlq.size());
+        var secondPage = dlq.page(1, 2);
+        assertEquals("ABC1002", secondPage.get(0).getEvent().getLicensePlate());
+        assertEquals("ABC1003", secondPage.get(1).getEvent().getLicensePlate());
+
+        // Ao remover entradas em memória, as que estavam só em disco são carregadas
+        dlq.remove(dlq.ids().get(0));
+        dlq.remove(dlq.ids().get(0));
+        assertEquals(3, dlq.size());
+        assertEquals(3, dlq.due(10).size());
+    }
+
+    @Test
+    void deveAgendarRetentativasDeEntradasSoEmDisco() {
+        var dlq = new DeadLetterQueue(true, directory, 100, 2, 3, 0, 0, objectMapper);
+        dlq.open();
+        // Entradas em memória com tentativas esgotadas nunca são removidas automaticamente
+        for (int i = 0; i < 2; i++) {
+            var exhausted = createEvent("ABC100" + i);
+            exhausted.setDeliveryAttempts(2);
+            dlq.add(exhausted, "Erro simulado");
+        }
+        dlq.add(createEvent("XYZ9876"), "Erro simulado");
+
+        var due = dlq.due(10);
+        assertEquals(1, due.size());
+        assertEquals("XYZ9876", due.get(0).getEvent().getLicensePlate());
+
+        // Após restart o horário da próxima tentativa é recuperado do disco
+        var reopened = new DeadLetterQueue(true, directory, 100, 2, 3, 0, 0, objectMapper);
+        reopened.open();
+        assertEquals(1, reopened.due(10).size());
+    }
+
+    @Test
+    void deveSuspenderRetentativasAposLimite() {
+        var dlq = new DeadLetterQueue(false, directory, 10, 10, 3, 0, 0, objectMapper);
+        var event = createEvent("ABC1111");
+        event.setDeliveryAttempts(2);
+
+        dlq.add(event, "Erro simulado");
+
+        var entry = dlq.page(0, 1).get(0);
+        assertEquals(3, entry.getAttempts());
+        assertNull(entry.getNextAttemptAt());
+        assertTrue(dlq.due(10).isEmpty());
+    }
+
+    @Test
+    void deveEsvaziarDLQ() {
+        var dlq = persistent(10);
+        dlq.add(createEvent("ABC1111"), "Erro simulado");
+        dlq.add(createEvent("ABC2222"), "Erro simulado");
+
+        assertEquals(2, dlq.purge());
+        assertEquals(0, persistent(10).size());
+    }
+
+    private DeadLetterQueue persistent(int memoryEntries) {
+        var dlq = new DeadLetterQueue(true, directory, 100, memoryEntries, 5, 0, 0, objectMapper);
+        dlq.open();
+        return dlq;
+    }
+
+    private WebhookEvent createEvent(String plate) {
+        WebhookEvent event = new WebhookEvent();
+        event.setEventType("ENTRY");
+        event.setLicensePlate(plate);
+        event.setEntryTime("2025-01-20T10:00:00");
+        return event;
+    }
+}
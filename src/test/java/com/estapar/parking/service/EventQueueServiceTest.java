@@ -1,15 +1,33 @@
 package com.estapar.parking.service;
 
 import com.estapar.parking.dto.WebhookEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+import static com.estapar.parking.service.ServiceFixtures.eventQueue;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -24,7 +42,7 @@ class EventQueueServiceTest {
 
     @BeforeEach
     void setUp() {
-        eventQueueService = new EventQueueService(parkingService);
+        eventQueueService = eventQueue(parkingService).build();
     }
 
     @Test
@@ -95,9 +113,9 @@ class EventQueueServiceTest {
             assertTrue(added, "Evento " + i + " deveria ser adicionado");
         }
 
-        // Tenta adicionar o 1001º evento - deve ser rejeitado e movido para DLQ
-        // DLQ (Dead Letter Queue) armazena eventos que não puderam ser processados
-        // permitindo análise posterior e reprocessamento manual
+        // Tenta adicionar o 1001º evento - deve ser rejeitado
+        // O evento recusado não vai para a DLQ: o produtor recebe a recusa
+        // (503 + Retry-After) e é responsável por reenviá-lo
         WebhookEvent extraEvent = createEvent("ENTRY", "EXTRA");
         boolean enqueued = eventQueueService.enqueue(extraEvent);
 
@@ -105,9 +123,9 @@ class EventQueueServiceTest {
         assertFalse(enqueued, "Deve rejeitar quando fila cheia");
         assertEquals(1000, eventQueueService.getQueueSize());
         
-        // Valida que evento rejeitado foi movido para DLQ
-        assertEquals(1, eventQueueService.getDLQSize(), "Evento rejeitado deve ir para DLQ");
-        assertEquals("EXTRA", eventQueueService.getDeadLetterQueue().peek().getLicensePlate());
+        // Valida que evento rejeitado não foi retido na DLQ
+        assertEquals(0, eventQueueService.getDLQSize(), "Evento recusado não deve ir para DLQ");
+        assertEquals(1, eventQueueService.getRejectedCount());
 
         eventQueueService.resume();
     }
@@ -130,6 +148,66 @@ class EventQueueServiceTest {
         assertEquals(0, eventQueueService.getQueueSize());
     }
 
+    @Test
+    void deveMoverEventoComFalhaParaDLQ() throws InterruptedException {
+        doThrow(new RuntimeException("Erro simulado"))
+            .when(parkingService).handleEntry(eq("ABC1111"), anyString());
+
+        eventQueueService.enqueue(createEvent("ENTRY", "ABC1111"));
+
+        Thread.sleep(500);
+
+        assertEquals(1, eventQueueService.getDLQSize());
+        var entry = eventQueueService.getDeadLetterQueue().page(0, 1).get(0);
+        assertEquals("ABC1111", entry.getEvent().getLicensePlate());
+        assertEquals(1, entry.getAttempts());
+        assertTrue(entry.getCause().contains("Erro simulado"));
+        assertNotNull(entry.getNextAttemptAt());
+    }
+
+    @Test
+    void deveConverterPlacaAtivaDuplicadaEmVeiculoJaEstacionado() throws InterruptedException {
+        doThrow(integrityViolation("vehicles.uk_vehicles_active_plate"))
+            .when(parkingService).handleEntry(eq("ABC1111"), anyString());
+
+        eventQueueService.enqueue(createEvent("ENTRY", "ABC1111"));
+
+        Thread.sleep(500);
+
+        var entry = eventQueueService.getDeadLetterQueue().page(0, 1).get(0);
+        assertTrue(entry.getCause().startsWith("VehicleAlreadyParkedException"), entry.getCause());
+    }
+
+    @Test
+    void deveManterOutrasViolacoesDeIntegridade() throws InterruptedException {
+        doThrow(integrityViolation("fk_vehicles_parking_spot"))
+            .when(parkingService).handleEntry(eq("ABC1111"), anyString());
+
+        eventQueueService.enqueue(createEvent("ENTRY", "ABC1111"));
+
+        Thread.sleep(500);
+
+        var entry = eventQueueService.getDeadLetterQueue().page(0, 1).get(0);
+        assertTrue(entry.getCause().startsWith("DataIntegrityViolationException"), entry.getCause());
+    }
+
+    @Test
+    void deveReprocessarEventoDaDLQ() throws InterruptedException {
+        doThrow(new RuntimeException("Erro simulado"))
+            .doNothing()
+            .when(parkingService).handleEntry(eq("ABC1111"), anyString());
+
+        eventQueueService.enqueue(createEvent("ENTRY", "ABC1111"));
+        Thread.sleep(500);
+        long id = eventQueueService.getDeadLetterQueue().ids().get(0);
+
+        assertTrue(eventQueueService.replayDeadLetter(id));
+        Thread.sleep(500);
+
+        verify(parkingService, times(2)).handleEntry(eq("ABC1111"), anyString());
+        assertEquals(0, eventQueueService.getDLQSize());
+    }
+
     @Test
     void deveProcessarDiferentesTiposDeEvento() throws InterruptedException {
         WebhookEvent entryEvent = createEvent("ENTRY", "ABC1234");
@@ -147,6 +225,254 @@ class EventQueueServiceTest {
         verify(parkingService).handleExit(eq("ABC1234"), anyString());
     }
 
+    @Test
+    void deveMedirTempoPorTipoDeEventoEEsperaNaFila() throws InterruptedException {
+        var registry = new SimpleMeterRegistry();
+        var measured = eventQueue(parkingService)
+            .metrics(new ParkingMetrics(registry))
+            .build();
+        try {
+            measured.enqueue(createEvent("ENTRY", "ABC1234"));
+            measured.enqueue(createParkedEvent("ABC1234"));
+            measured.enqueue(createExitEvent("ABC1234"));
+
+            Thread.sleep(500);
+
+            assertEquals(1, registry.get("parking.event.processing").tag("type", "ENTRY").timer().count());
+            assertEquals(1, registry.get("parking.event.processing").tag("type", "PARKED").timer().count());
+            assertEquals(1, registry.get("parking.event.processing").tag("type", "EXIT").timer().count());
+            assertEquals(3, registry.get("parking.event.lag").timer().count());
+        } finally {
+            measured.shutdown();
+        }
+    }
+
+    @Test
+    void naoDeveMedirEventosDeLoteRevertido() throws InterruptedException {
+        var registry = new SimpleMeterRegistry();
+        var measured = eventQueue(parkingService)
+            .transactionTemplate(new TransactionTemplate(new CountingTransactionManager()))
+            .metrics(new ParkingMetrics(registry))
+            .batch(10, 200)
+            .build();
+        doThrow(new RuntimeException("Erro simulado"))
+            .when(parkingService).handleEntry(eq("ABC2222"), anyString());
+        try {
+            measured.pause();
+            measured.enqueue(createEvent("ENTRY", "ABC1111"));
+            measured.enqueue(createEvent("ENTRY", "ABC2222"));
+            measured.resume();
+
+            Thread.sleep(1000);
+
+            // Apenas o reprocessamento individual é medido
+            assertEquals(2, registry.get("parking.event.processing").tag("type", "ENTRY").timer().count());
+        } finally {
+            measured.shutdown();
+        }
+    }
+
+    @Test
+    void deveManterOrdemPorPlacaComMultiplosConsumidores() throws InterruptedException {
+        var partitioned = eventQueue(parkingService).consumers(4).build();
+        try {
+            for (int i = 0; i < 20; i++) {
+                partitioned.enqueue(createEvent("ENTRY", "ABC" + (1000 + i)));
+                partitioned.enqueue(createExitEvent("ABC" + (1000 + i)));
+            }
+
+            Thread.sleep(1000);
+
+            assertEquals(4, partitioned.getPartitionCount());
+            assertEquals(0, partitioned.getQueueSize());
+            for (int i = 0; i < 20; i++) {
+                var inOrder = inOrder(parkingService);
+                inOrder.verify(parkingService).handleEntry(eq("ABC" + (1000 + i)), anyString());
+                inOrder.verify(parkingService).handleExit(eq("ABC" + (1000 + i)), anyString());
+            }
+        } finally {
+            partitioned.shutdown();
+        }
+    }
+
+    @Test
+    void deveReprocessarIndividualmenteQuandoLoteFalha() throws InterruptedException {
+        var transactionManager = new CountingTransactionManager();
+        var batched = eventQueue(parkingService)
+            .transactionTemplate(new TransactionTemplate(transactionManager))
+            .batch(10, 200)
+            .build();
+        doThrow(new RuntimeException("Erro simulado"))
+            .when(parkingService).handleEntry(eq("ABC2222"), anyString());
+        try {
+            batched.pause();
+            batched.enqueue(createEvent("ENTRY", "ABC1111"));
+            batched.enqueue(createEvent("ENTRY", "ABC2222"));
+            batched.enqueue(createEvent("ENTRY", "ABC3333"));
+            batched.resume();
+
+            Thread.sleep(1000);
+
+            // Lote revertido uma vez e eventos reprocessados um a um
+            assertEquals(1, transactionManager.rollbacks.get());
+            verify(parkingService, times(2)).handleEntry(eq("ABC1111"), anyString());
+            verify(parkingService, times(2)).handleEntry(eq("ABC2222"), anyString());
+            verify(parkingService, times(1)).handleEntry(eq("ABC3333"), anyString());
+        } finally {
+            batched.shutdown();
+        }
+    }
+
+    @Test
+    void deveGravarEventoJfrDoLoteSomenteAposCommit(@TempDir Path directory) throws Exception {
+        var batched = eventQueue(parkingService)
+            .transactionTemplate(new TransactionTemplate(new CountingTransactionManager()))
+            .batch(10, 200)
+            .build();
+        doThrow(new RuntimeException("Erro simulado"))
+            .when(parkingService).handleEntry(eq("ABC2222"), anyString());
+        Path file = directory.resolve("lote.jfr");
+        try (var recording = new Recording()) {
+            recording.enable("com.estapar.parking.EventProcessing");
+            recording.start();
+            batched.pause();
+            batched.enqueue(createEvent("ENTRY", "ABC1111"));
+            batched.enqueue(createEvent("ENTRY", "ABC2222"));
+            batched.resume();
+
+            Thread.sleep(1000);
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            batched.shutdown();
+        }
+
+        // Lote revertido não é gravado: um evento por placa, do reprocessamento individual
+        Map<String, String> outcomes = RecordingFile.readAllEvents(file).stream()
+            .filter(e -> e.getEventType().getName().equals("com.estapar.parking.EventProcessing"))
+            .collect(Collectors.toMap(e -> e.getString("licensePlate"), e -> e.getString("outcome")));
+        assertEquals(Map.of("ABC1111", "OK", "ABC2222", "RuntimeException"), outcomes);
+    }
+
+    @Test
+    void deveAplicarLoteEmUmaUnicaTransacao() throws InterruptedException {
+        var transactionManager = new CountingTransactionManager();
+        var batched = eventQueue(parkingService)
+            .transactionTemplate(new TransactionTemplate(transactionManager))
+            .batch(10, 200)
+            .build();
+        try {
+            batched.pause();
+            for (int i = 0; i < 5; i++) {
+                batched.enqueue(createEvent("ENTRY", "ABC" + (1000 + i)));
+            }
+            batched.resume();
+
+            Thread.sleep(1000);
+
+            assertEquals(1, transactionManager.commits.get());
+            verify(parkingService, times(5)).handleEntry(anyString(), anyString());
+        } finally {
+            batched.shutdown();
+        }
+    }
+
+    @Test
+    void deveConcluirEventoEmAndamentoNoEncerramento() throws InterruptedException {
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            return null;
+        }).when(parkingService).handleEntry(anyString(), anyString());
+
+        var queue = eventQueue(parkingService).build();
+        queue.enqueue(createEvent("ENTRY", "ABC1234"));
+        Thread.sleep(50);
+
+        queue.shutdown();
+
+        // O consumidor não é interrompido no meio do evento
+        assertEquals(1, queue.getProcessedCount());
+        assertEquals(0, queue.getDLQSize());
+    }
+
+    @Test
+    void deveReprocessarWriteAheadLogAntesDeAceitarNovosEventos(@TempDir Path directory) throws InterruptedException {
+        var wal = new EventWriteAheadLog(true, directory, 64 * 1024, true, new ObjectMapper());
+        wal.open();
+        wal.awaitDurable(wal.append(createEvent("ENTRY", "ABC1234")));
+        wal.close();
+
+        var reopened = new EventWriteAheadLog(true, directory, 64 * 1024, true, new ObjectMapper());
+        reopened.open();
+        var recovering = eventQueue(parkingService).writeAheadLog(reopened).build();
+        try {
+            // Ao fim da construção o evento recuperado já está na fila, à frente dos novos
+            recovering.enqueue(createExitEvent("ABC1234"));
+
+            Thread.sleep(500);
+
+            var inOrder = inOrder(parkingService);
+            inOrder.verify(parkingService).handleEntry(eq("ABC1234"), anyString());
+            inOrder.verify(parkingService).handleExit(eq("ABC1234"), anyString());
+        } finally {
+            recovering.shutdown();
+            reopened.close();
+        }
+    }
+
+    @Test
+    void deveRecusarEventoComWriteAheadLogEncerrado(@TempDir Path directory) {
+        var wal = new EventWriteAheadLog(true, directory, 64 * 1024, true, new ObjectMapper());
+        wal.open();
+        var durable = eventQueue(parkingService).writeAheadLog(wal).build();
+        try {
+            wal.close();
+
+            assertFalse(durable.enqueue(createEvent("ENTRY", "ABC1234")));
+            assertFalse(durable.enqueueAll(List.of(createEvent("ENTRY", "ABC5678")))[0]);
+            assertEquals(0, durable.getQueueSize());
+        } finally {
+            durable.shutdown();
+        }
+    }
+
+    /**
+     * Gerenciador de transações em memória que apenas conta commits e rollbacks.
+     */
+    private static class CountingTransactionManager extends AbstractPlatformTransactionManager {
+
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Falha do commit como traduzida pelo Spring, com o nome da constraint extraído pelo Hibernate.
+     */
+    private static DataIntegrityViolationException integrityViolation(String constraintName) {
+        var sqlException = new SQLException("Violação de integridade em " + constraintName, "23000");
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("could not execute statement", sqlException, constraintName));
+    }
+
     private WebhookEvent createEvent(String eventType, String licensePlate) {
     	
     	var dateTimeString = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
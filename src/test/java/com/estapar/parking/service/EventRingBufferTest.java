@@ -0,0 +1,138 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEvent;
+import com.estapar.parking.service.EventQueueService.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingBufferTest {
+
+    @Test
+    void deveRecusarAcimaDaCapacidadeSemContarLoteEmProcessamento() throws InterruptedException {
+        var ring = new EventRingBuffer(3, 2, WaitStrategy.BLOCKING);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(ring.offer(event("ABC000" + i)));
+        }
+        assertFalse(ring.offer(event("EXTRA")));
+        assertEquals(3, ring.size());
+
+        // Eventos lidos (lote em processamento) liberam capacidade, como o take() da fila anterior
+        ring.await();
+        ring.take();
+        ring.take();
+
+        assertEquals(1, ring.size());
+        assertEquals(2, ring.remainingCapacity());
+        assertTrue(ring.offer(event("ABC0003")));
+        assertTrue(ring.offer(event("ABC0004")));
+        assertFalse(ring.offer(event("EXTRA")));
+    }
+
+    @Test
+    void deveManterSlotsDoLoteAteALiberacao() throws InterruptedException {
+        var ring = new EventRingBuffer(2, 2, WaitStrategy.BLOCKING);
+
+        for (int round = 0; round < 10; round++) {
+            ring.offer(event("ABC" + round + "A"));
+            ring.offer(event("ABC" + round + "B"));
+
+            ring.await();
+            var first = ring.take();
+            var second = ring.take();
+            // Novos eventos ocupam outros slots enquanto o lote não é liberado
+            ring.offer(event("NEW" + round));
+            ring.offer(event("NEW" + round));
+            assertEquals("ABC" + round + "A", first.licensePlate);
+            assertEquals("ABC" + round + "B", second.licensePlate);
+            ring.release();
+            assertNull(first.licensePlate);
+
+            ring.take();
+            ring.take();
+            ring.release();
+        }
+    }
+
+    @Test
+    void deveCopiarTodosOsCamposDoEvento() throws InterruptedException {
+        var ring = new EventRingBuffer(1, 1, WaitStrategy.BLOCKING);
+        var event = event("ABC1234");
+        event.setEventType("PARKED");
+        event.setLat(-23.5505);
+        event.setLng(-46.6333);
+        event.setWalSequence(42);
+        event.setDeliveryAttempts(3);
+        ring.offer(event);
+
+        ring.await();
+        var copy = ring.take().toEvent();
+
+        assertEquals(event, copy);
+    }
+
+    @Test
+    void deveRespeitarPrazoDaEsperaEmTodasAsEstrategias() throws InterruptedException {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            var ring = new EventRingBuffer(4, 1, strategy);
+
+            assertFalse(ring.await(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(5)), strategy.name());
+
+            ring.offer(event("ABC1234"));
+            assertTrue(ring.await(System.nanoTime()), strategy.name());
+        }
+    }
+
+    @Test
+    void deveAcordarConsumidorBloqueado() throws InterruptedException {
+        var ring = new EventRingBuffer(4, 1, WaitStrategy.BLOCKING);
+        var consumed = new java.util.concurrent.CountDownLatch(1);
+        var consumer = Thread.ofPlatform().start(() -> {
+            ring.attachConsumer();
+            try {
+                ring.await();
+                ring.take();
+                consumed.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread.sleep(50);
+        ring.offer(event("ABC1234"));
+
+        assertTrue(consumed.await(1, TimeUnit.SECONDS));
+        consumer.join();
+    }
+
+    @Test
+    void deveEncerrarEsperaDoConsumidorAoFechar() throws InterruptedException {
+        var ring = new EventRingBuffer(4, 1, WaitStrategy.BLOCKING);
+        var awaited = new java.util.concurrent.atomic.AtomicBoolean(true);
+        var consumer = Thread.ofPlatform().start(() -> {
+            ring.attachConsumer();
+            try {
+                awaited.set(ring.await());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread.sleep(50);
+        ring.close();
+
+        consumer.join(1000);
+        assertFalse(consumer.isAlive());
+        assertFalse(awaited.get());
+    }
+
+    private static WebhookEvent event(String plate) {
+        var event = new WebhookEvent();
+        event.setEventType("ENTRY");
+        event.setLicensePlate(plate);
+        event.setEntryTime("2025-01-20T10:00:00");
+        return event;
+    }
+}
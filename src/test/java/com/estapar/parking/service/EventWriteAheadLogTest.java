@@ -0,0 +1,119 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventWriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deveRecuperarEventosNaoProcessadosAposRestart() {
+        var wal = open(SEGMENT_SIZE);
+        long first = wal.append(createEvent("ENTRY", "ABC1234"));
+        long second = wal.append(createEvent("EXIT", "XYZ9876"));
+        wal.awaitDurable(second);
+        wal.markProcessed(first);
+        wal.close();
+
+        var reopened = open(SEGMENT_SIZE);
+        List<WebhookEvent> recovered = reopened.drainRecovered();
+
+        assertEquals(1, recovered.size());
+        assertEquals("EXIT", recovered.get(0).getEventType());
+        assertEquals("XYZ9876", recovered.get(0).getLicensePlate());
+        assertEquals(second, recovered.get(0).getWalSequence());
+        assertTrue(reopened.drainRecovered().isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void deveContinuarSequenciaAposRestart() {
+        var wal = open(SEGMENT_SIZE);
+        wal.append(createEvent("ENTRY", "ABC1234"));
+        long last = wal.append(createEvent("ENTRY", "ABC5678"));
+        wal.close();
+
+        var reopened = open(SEGMENT_SIZE);
+        assertEquals(last + 1, reopened.append(createEvent("ENTRY", "ABC9999")));
+        reopened.close();
+    }
+
+    @Test
+    void deveRemoverSegmentosJaProcessadosNoCheckpoint() {
+        var wal = open(512);
+        for (int i = 0; i < 50; i++) {
+            long sequence = wal.append(createEvent("ENTRY", String.format("ABC%04d", i)));
+            wal.markProcessed(sequence);
+        }
+        assertTrue(wal.getSegmentCount() > 1);
+
+        assertEquals(49, wal.checkpoint());
+        assertEquals(1, wal.getSegmentCount());
+        wal.close();
+
+        var reopened = open(512);
+        assertTrue(reopened.drainRecovered().isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void checkpointNaoDeveAvancarSobreEventoPendente() {
+        var wal = open(SEGMENT_SIZE);
+        long first = wal.append(createEvent("ENTRY", "ABC1234"));
+        long second = wal.append(createEvent("ENTRY", "ABC5678"));
+        wal.markProcessed(second);
+
+        assertEquals(first - 1, wal.checkpoint());
+
+        wal.markProcessed(first);
+        assertEquals(second, wal.checkpoint());
+        wal.close();
+    }
+
+    @Test
+    void deveRecusarRegistrosAposFechamento() {
+        var wal = open(SEGMENT_SIZE);
+        long sequence = wal.append(createEvent("ENTRY", "ABC1234"));
+
+        wal.close();
+
+        // O registro gravado antes do fechamento foi forçado para o disco
+        assertTrue(wal.awaitDurable(sequence));
+        assertThrows(IllegalStateException.class, () -> wal.append(createEvent("ENTRY", "ABC5678")));
+    }
+
+    @Test
+    void naoDeveGravarQuandoDesabilitado() {
+        var wal = new EventWriteAheadLog(false, directory, SEGMENT_SIZE, true, new ObjectMapper());
+        wal.open();
+
+        assertEquals(-1, wal.append(createEvent("ENTRY", "ABC1234")));
+        assertEquals(0, wal.getSegmentCount());
+        assertTrue(wal.drainRecovered().isEmpty());
+    }
+
+    private EventWriteAheadLog open(int segmentSize) {
+        var wal = new EventWriteAheadLog(true, directory, segmentSize, true, new ObjectMapper());
+        wal.open();
+        return wal;
+    }
+
+    private WebhookEvent createEvent(String type, String plate) {
+        WebhookEvent event = new WebhookEvent();
+        event.setEventType(type);
+        event.setLicensePlate(plate);
+        event.setEntryTime("2025-01-20T10:00:00");
+        return event;
+    }
+}
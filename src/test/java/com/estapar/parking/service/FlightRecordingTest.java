@@ -0,0 +1,102 @@
+package com.estapar.parking.service;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingTest {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2025, 1, 20, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    private FlightRecording flightRecording;
+
+    @AfterEach
+    void tearDown() {
+        if (flightRecording != null) {
+            flightRecording.shutdown();
+        }
+    }
+
+    @Test
+    void deveGravarEventosDeCalculoDePreco() throws IOException {
+        flightRecording = new FlightRecording(directory.toString(), "default", 30, 250);
+        var pricingService = ServiceFixtures.pricingService();
+
+        assertTrue(flightRecording.start(null));
+        assertFalse(flightRecording.start(null), "Apenas uma gravação por vez");
+        assertEquals("RUNNING", flightRecording.status().getState());
+        pricingService.calculatePrice(ENTRY, ENTRY.plusMinutes(150), 20.0, new BigDecimal("4.10"), "A");
+        assertTrue(flightRecording.stop());
+        assertFalse(flightRecording.stop());
+
+        Path file = flightRecording.file().orElseThrow();
+        List<RecordedEvent> pricing = RecordingFile.readAllEvents(file).stream()
+            .filter(e -> e.getEventType().getName().equals("com.estapar.parking.Pricing"))
+            .toList();
+        assertEquals(1, pricing.size());
+        RecordedEvent event = pricing.get(0);
+        assertEquals("A", event.getString("sector"));
+        assertEquals("OK", event.getString("outcome"));
+        assertEquals(150, event.getLong("stayMinutes"));
+        assertEquals(11.89, event.getDouble("amount"), 0.001);
+    }
+
+    @Test
+    void deveGerarInstantaneoDaGravacaoEmAndamento() throws IOException {
+        flightRecording = new FlightRecording(directory.toString(), "default", 30, 250);
+        assertTrue(flightRecording.snapshot().isEmpty());
+
+        flightRecording.start(null);
+        assertTrue(flightRecording.file().isEmpty(), "Arquivo só existe após encerrar a gravação");
+        try (InputStream snapshot = flightRecording.snapshot().orElseThrow()) {
+            assertTrue(snapshot.readAllBytes().length > 0);
+        }
+
+        assertEquals("RUNNING", flightRecording.status().getState());
+        assertEquals(currentDestination(), jfrFiles(), "Instantâneo removido ao fechar o stream");
+    }
+
+    @Test
+    void deveRemoverGravacoesAnterioresAoIniciar() throws IOException {
+        flightRecording = new FlightRecording(directory.toString(), "default", 30, 250);
+        flightRecording.start(null);
+        flightRecording.stop();
+        Path previous = flightRecording.file().orElseThrow();
+
+        flightRecording.start(null);
+
+        assertFalse(Files.exists(previous));
+        assertEquals(currentDestination(), jfrFiles());
+    }
+
+    private List<Path> currentDestination() {
+        return List.of(Path.of(flightRecording.status().getFile()));
+    }
+
+    private List<Path> jfrFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jfr")).toList();
+        }
+    }
+
+    @Test
+    void deveRejeitarConfiguracaoInexistente() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new FlightRecording(directory.toString(), "inexistente", 30, 250));
+    }
+}
@@ -0,0 +1,119 @@
+package com.estapar.parking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.estapar.parking.repository.ParkingSpotRepository.SpotStatus;
+
+@DisplayName("FreeSpotIndex - Índice de vagas livres")
+class FreeSpotIndexTest {
+
+    private FreeSpotIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FreeSpotIndex();
+        index.rebuild(List.of(
+            spot(1L, "A", false),
+            spot(2L, "A", true),
+            spot(3L, "B", false),
+            spot(4L, "B", false)));
+    }
+
+    @Test
+    @DisplayName("Reconstrução: considera apenas vagas não ocupadas como livres")
+    void shouldSeedOnlyFreeSpots() {
+        assertThat(index.totalCount()).isEqualTo(4);
+        assertThat(index.freeCount()).isEqualTo(3);
+        assertThat(index.freeCount("A")).isEqualTo(1);
+        assertThat(index.freeCount("B")).isEqualTo(2);
+        assertThat(index.sectorOf(3L)).isEqualTo("B");
+    }
+
+    @Test
+    @DisplayName("Reserva: sorteia cada vaga livre uma única vez até esgotar")
+    void shouldClaimEachFreeSpotOnce() {
+        Set<Long> claimed = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            claimed.add(index.claim());
+        }
+
+        assertThat(claimed).containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(index.claim()).isEqualTo(-1L);
+        assertThat(index.freeCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Liberação: vaga devolvida volta a ser sorteável")
+    void shouldReturnReleasedSpotToPool() {
+        index.markOccupied(1L);
+        index.markOccupied(3L);
+        index.markOccupied(4L);
+
+        index.release(3L);
+        index.release(3L); // liberação duplicada não cria vaga fantasma
+
+        assertThat(index.freeCount("B")).isEqualTo(1);
+        assertThat(index.claim()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Liberação: vaga desconhecida é ignorada")
+    void shouldIgnoreUnknownSpot() {
+        index.release(99L);
+
+        assertThat(index.freeCount()).isEqualTo(3);
+        assertThat(index.markOccupied(99L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Reconstrução: IDs esparsos em vários setores mantêm setor e disponibilidade")
+    void shouldIndexSparseIdsAcrossSectors() {
+        List<SpotStatus> spots = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long id = i * 1_000_003L + (i % 2 == 0 ? 0 : Integer.MAX_VALUE);
+            spots.add(spot(id, "S" + (i % 7), i % 3 == 0));
+        }
+        index.rebuild(spots);
+
+        assertThat(index.totalCount()).isEqualTo(1000);
+        assertThat(index.freeCount()).isEqualTo(666);
+        for (SpotStatus status : spots) {
+            assertThat(index.sectorOf(status.getId())).isEqualTo(status.getSectorName());
+            assertThat(index.markOccupied(status.getId())).isEqualTo(!status.getOccupied());
+        }
+        assertThat(index.freeCount()).isZero();
+
+        SpotStatus last = spots.get(spots.size() - 1);
+        index.release(last.getId());
+        assertThat(index.freeCount(last.getSectorName())).isEqualTo(1);
+        assertThat(index.claim()).isEqualTo(last.getId());
+    }
+
+    private static SpotStatus spot(Long id, String sector, boolean occupied) {
+        return new SpotStatus() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSectorName() {
+                return sector;
+            }
+
+            @Override
+            public Boolean getOccupied() {
+                return occupied;
+            }
+        };
+    }
+}
@@ -0,0 +1,226 @@
+package com.estapar.parking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.estapar.parking.entity.Sector;
+import com.estapar.parking.repository.SectorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DisplayName("GarageLoader - Carregamento incremental da garagem")
+class GarageLoaderTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SectorRepository sectorRepository;
+    private GarageLoader loader;
+    private final List<List<Object[]>> batches = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        sectorRepository = mock(SectorRepository.class);
+        when(jdbcTemplate.batchUpdate(eq(GarageLoader.UPSERT_SPOT), any(List.class))).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>((List<Object[]>) invocation.getArgument(1)));
+            return new int[0];
+        });
+        when(sectorRepository.save(any(Sector.class))).thenAnswer(invocation -> {
+            Sector sector = invocation.getArgument(0);
+            sector.setId("A".equals(sector.getName()) ? 1L : 2L);
+            return sector;
+        });
+        loader = new GarageLoader(new ObjectMapper(), jdbcTemplate, sectorRepository, 2, 10, true);
+    }
+
+    @Test
+    @DisplayName("Vagas gravadas em lotes com o id do setor resolvido em memória")
+    void shouldWriteSpotsInBatches() throws IOException {
+        String json = """
+            {"garage": [{"sector": "A", "base_price": 40.5, "max_capacity": 2},
+                        {"sector": "B", "base_price": 4.1, "max_capacity": 1}],
+             "spots": [{"id": 1, "sector": "A", "lat": -23.56, "lng": -46.65},
+                       {"id": 2, "sector": "A", "lat": -23.57, "lng": -46.66},
+                       {"id": 3, "sector": "B", "lat": -23.58, "lng": -46.67}]}
+            """;
+
+        var result = loader.load(stream(json));
+
+        assertThat(result.inserted()).isEqualTo(3);
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).hasSize(2);
+        assertThat(batches.get(1).get(0))
+            .containsExactly(3L, BigDecimal.valueOf(-23.58), BigDecimal.valueOf(-46.67),
+                GarageLoader.spotHash(2L, -23.58, -46.67), 2L);
+        verify(sectorRepository).findAll();
+    }
+
+    @Test
+    @DisplayName("Vagas antes dos setores aguardam; setores desconhecidos são ignorados")
+    void shouldResolveSpotsListedBeforeSectors() throws IOException {
+        String json = """
+            {"spots": [{"id": 1, "sector": "A", "lat": 1.0, "lng": 2.0},
+                       {"id": 2, "sector": "Z", "lat": 1.0, "lng": 2.0}],
+             "garage": [{"sector": "A", "base_price": 40.5, "max_capacity": 1}]}
+            """;
+
+        var result = loader.load(stream(json));
+
+        assertThat(result.written()).isEqualTo(1);
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0).get(0)[4]).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Setores sem alteração não são gravados novamente")
+    void shouldReuseUnchangedSectors() throws IOException {
+        when(sectorRepository.findAll()).thenReturn(List.of(sector(7L, "A", 40.5, 1)));
+        String json = """
+            {"garage": [{"sector": "A", "base_price": 40.5, "max_capacity": 1}],
+             "spots": [{"id": 1, "sector": "A", "lat": 1.0, "lng": 2.0}]}
+            """;
+
+        loader.load(stream(json));
+
+        verify(sectorRepository, never()).save(any());
+        assertThat(batches.get(0).get(0)[4]).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("Reconciliação: setor com preço alterado é atualizado")
+    void shouldUpdateChangedSector() throws IOException {
+        var stored = sector(7L, "A", 40.5, 1);
+        when(sectorRepository.findAll()).thenReturn(List.of(stored));
+        String json = """
+            {"garage": [{"sector": "A", "base_price": 45.0, "max_capacity": 2}], "spots": []}
+            """;
+
+        loader.load(stream(json));
+
+        verify(sectorRepository).save(stored);
+        assertThat(stored.getBasePrice()).isEqualByComparingTo("45.0");
+        assertThat(stored.getMaxCapacity()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Reconciliação: grava apenas vagas novas ou alteradas")
+    void shouldWriteOnlyChangedSpots() throws IOException {
+        when(sectorRepository.findAll()).thenReturn(List.of(sector(7L, "A", 40.5, 3)));
+        storedSpots(
+            new Object[] { 1L, GarageLoader.spotHash(7L, 1.0, 2.0), true },   // sem alteração
+            new Object[] { 2L, GarageLoader.spotHash(7L, 1.0, 2.0), true },   // coordenadas alteradas
+            new Object[] { 3L, null, false });                                // desativada, volta à configuração
+        String json = """
+            {"garage": [{"sector": "A", "base_price": 40.5, "max_capacity": 3}],
+             "spots": [{"id": 1, "sector": "A", "lat": 1.0, "lng": 2.0},
+                       {"id": 2, "sector": "A", "lat": 1.5, "lng": 2.0},
+                       {"id": 3, "sector": "A", "lat": 1.0, "lng": 3.0},
+                       {"id": 4, "sector": "A", "lat": 1.0, "lng": 4.0}]}
+            """;
+
+        var result = loader.load(stream(json));
+
+        assertThat(result.unchanged()).isEqualTo(1);
+        assertThat(result.updated()).isEqualTo(2);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(batches.stream().flatMap(List::stream).map(row -> row[0])).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Reconciliação: vagas removidas são desativadas, exceto as ocupadas")
+    void shouldDeactivateRemovedSpotsButNotOccupiedOnes() throws IOException {
+        when(sectorRepository.findAll()).thenReturn(List.of(sector(7L, "A", 40.5, 3)));
+        storedSpots(
+            new Object[] { 1L, GarageLoader.spotHash(7L, 1.0, 2.0), true },
+            new Object[] { 8L, 1L, true },
+            new Object[] { 9L, 1L, true });
+        // Apenas uma das duas vagas removidas está livre
+        when(jdbcTemplate.update(eq(GarageLoader.deactivateSql(2)), any(Object[].class))).thenReturn(1);
+        String json = """
+            {"garage": [{"sector": "A", "base_price": 40.5, "max_capacity": 3}],
+             "spots": [{"id": 1, "sector": "A", "lat": 1.0, "lng": 2.0}]}
+            """;
+
+        var result = loader.load(stream(json));
+
+        assertThat(result.removed()).isEqualTo(1);
+        assertThat(result.keptOccupied()).isEqualTo(1);
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sem reconciliação: todas as vagas são regravadas e nenhuma é desativada")
+    void shouldRewriteEverythingWhenReconcileIsDisabled() throws IOException {
+        loader = new GarageLoader(new ObjectMapper(), jdbcTemplate, sectorRepository, 2, 10, false);
+        when(sectorRepository.findAll()).thenReturn(List.of(sector(7L, "A", 40.5, 1)));
+        String json = """
+            {"garage": [{"sector": "A", "base_price": 40.5, "max_capacity": 1}],
+             "spots": [{"id": 1, "sector": "A", "lat": 1.0, "lng": 2.0}]}
+            """;
+
+        var result = loader.load(stream(json));
+
+        assertThat(result.written()).isEqualTo(1);
+        verify(jdbcTemplate, never()).query(any(String.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("JSON que não é objeto é rejeitado")
+    void shouldRejectInvalidJson() {
+        assertThatThrownBy(() -> loader.load(stream("[]"))).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * Simula o estado persistido das vagas: linhas (id, config_hash, active).
+     */
+    private void storedSpots(Object[]... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : rows) {
+                handler.processRow(resultSet(row));
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq(GarageLoader.SELECT_SPOT_STATES), any(RowCallbackHandler.class));
+    }
+
+    private static ResultSet resultSet(Object[] row) throws SQLException {
+        var rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn((Long) row[0]);
+        when(rs.getLong(2)).thenReturn(row[1] != null ? (Long) row[1] : 0L);
+        when(rs.wasNull()).thenReturn(row[1] == null);
+        when(rs.getBoolean(3)).thenReturn((Boolean) row[2]);
+        return rs;
+    }
+
+    private static Sector sector(long id, String name, double basePrice, int maxCapacity) {
+        var sector = new Sector(name, BigDecimal.valueOf(basePrice), maxCapacity);
+        sector.setId(id);
+        sector.setConfigHash(GarageLoader.sectorHash(basePrice, maxCapacity));
+        return sector;
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
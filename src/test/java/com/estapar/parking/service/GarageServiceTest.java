@@ -0,0 +1,153 @@
+package com.estapar.parking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestTemplate;
+
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotRepository.SectorOccupancy;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GarageService - Contadores de ocupação")
+class GarageServiceTest {
+
+    @Mock
+    private GarageLoader garageLoader;
+
+    @Mock
+    private ParkingSpotRepository spotRepository;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private GarageService garageService;
+
+    @BeforeEach
+    void setUp() {
+        garageService = new GarageService(garageLoader, spotRepository, restTemplate, new FreeSpotIndex());
+    }
+
+    @Test
+    @DisplayName("Sem vagas cadastradas: considera lotado e ocupação zero")
+    void shouldBeFullWithoutSpots() {
+        assertThat(garageService.isFull()).isTrue();
+        assertThat(garageService.getOccupancyRate()).isZero();
+    }
+
+    @Test
+    @DisplayName("Reconstrução: contadores refletem o banco e entradas/saídas")
+    void shouldTrackOccupancyInMemory() {
+        when(spotRepository.countOccupancyBySector()).thenReturn(List.of(row("A", 2, 1), row("B", 2, 0)));
+
+        garageService.rebuildOccupancy();
+        assertThat(garageService.getOccupancyRate()).isEqualTo(25.0);
+        assertThat(garageService.getOccupancyRate("A")).isEqualTo(50.0);
+
+        garageService.spotOccupied("A");
+        garageService.spotOccupied("B");
+        garageService.spotOccupied("B");
+        assertThat(garageService.isFull()).isTrue();
+        assertThat(garageService.getOccupancyRate("B")).isEqualTo(100.0);
+
+        garageService.spotReleased("B");
+        assertThat(garageService.isFull()).isFalse();
+        assertThat(garageService.getOccupancyRate()).isEqualTo(75.0);
+    }
+
+    @Test
+    @DisplayName("Conferência: corrige apenas divergência confirmada duas vezes")
+    void shouldCorrectPersistentDrift() {
+        when(spotRepository.countOccupancyBySector())
+            .thenReturn(List.of(row("A", 4, 0)))
+            .thenReturn(List.of(row("A", 4, 2)));
+
+        garageService.rebuildOccupancy();
+
+        garageService.reconcileOccupancy();
+        assertThat(garageService.getOccupancyRate()).isZero();
+
+        garageService.reconcileOccupancy();
+        assertThat(garageService.getOccupancyRate()).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("Semeadura: contadores refletem as vagas persistidas antes do carregamento da garagem")
+    void shouldSeedFromDatabase() {
+        when(spotRepository.countOccupancyBySector()).thenReturn(List.of(row("A", 2, 1)));
+
+        garageService.seedFromDatabase();
+
+        assertThat(garageService.isFull()).isFalse();
+        assertThat(garageService.getOccupancyRate()).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("Conferência: não corrige enquanto houver alteração de ocupação em andamento")
+    void shouldNotCorrectWhileChangesInFlight() {
+        when(spotRepository.countOccupancyBySector())
+            .thenReturn(List.of(row("A", 4, 0)))
+            .thenReturn(List.of(row("A", 4, 0)))
+            .thenReturn(List.of(row("A", 4, 0)))
+            .thenReturn(List.of(row("A", 4, 1)));
+
+        garageService.rebuildOccupancy();
+        garageService.occupancyChangeStarted();
+        garageService.spotOccupied("A");
+
+        garageService.reconcileOccupancy();
+        garageService.reconcileOccupancy();
+        assertThat(garageService.getOccupancyRate()).isEqualTo(25.0);
+
+        garageService.occupancyChangeCompleted();
+        garageService.reconcileOccupancy();
+        assertThat(garageService.getOccupancyRate()).isEqualTo(25.0);
+    }
+
+    @Test
+    @DisplayName("Conferência: a correção preserva a ocupação dos demais setores")
+    void shouldCorrectOnlyDriftingSector() {
+        when(spotRepository.countOccupancyBySector())
+            .thenReturn(List.of(row("A", 2, 0), row("B", 2, 0)))
+            .thenReturn(List.of(row("A", 2, 1), row("B", 2, 1)));
+
+        garageService.rebuildOccupancy();
+        garageService.spotOccupied("B");
+
+        garageService.reconcileOccupancy();
+        garageService.reconcileOccupancy();
+        assertThat(garageService.getOccupancyRate("A")).isEqualTo(50.0);
+        assertThat(garageService.getOccupancyRate("B")).isEqualTo(50.0);
+        assertThat(garageService.getOccupancyRate()).isEqualTo(50.0);
+
+        garageService.spotReleased("B");
+        assertThat(garageService.getOccupancyRate()).isEqualTo(25.0);
+    }
+
+    private static SectorOccupancy row(String sector, long total, long occupied) {
+        return new SectorOccupancy() {
+            @Override
+            public String getSectorName() {
+                return sector;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getOccupied() {
+                return occupied;
+            }
+        };
+    }
+}
@@ -3,10 +3,13 @@ package com.estapar.parking.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.lenient;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
@@ -17,11 +20,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.estapar.parking.entity.ParkingSpot;
 import com.estapar.parking.entity.Sector;
 import com.estapar.parking.entity.Vehicle;
+import com.estapar.parking.exception.ParkingFullException;
 import com.estapar.parking.exception.VehicleAlreadyParkedException;
 import com.estapar.parking.exception.VehicleNotFoundException;
 import com.estapar.parking.repository.ParkingSpotRepository;
@@ -46,6 +51,18 @@ class ParkingServiceSimpleTest {
     @Mock
     private GarageService garageService;
     
+    @Mock
+    private FreeSpotIndex freeSpotIndex;
+    
+    @Mock
+    private RevenueRollupService revenueRollupService;
+    
+    @Spy
+    private ActiveVehicleRegistry activeVehicles = new ActiveVehicleRegistry();
+
+    @Spy
+    private ParkingMetrics metrics = ServiceFixtures.metrics();
+    
     @InjectMocks
     private ParkingService parkingService;
     
@@ -64,16 +81,51 @@ class ParkingServiceSimpleTest {
         var licensePlate = "ABC1234";
         var entryTime = "2025-01-20T10:00:00";
         
-        when(vehicleRepository.findActiveByLicensePlate(licensePlate)).thenReturn(Optional.empty());
         when(garageService.isFull()).thenReturn(false);
         when(garageService.getOccupancyRate()).thenReturn(50.0);
-        when(spotRepository.findAll()).thenReturn(java.util.List.of(spot1));
-        when(vehicleRepository.save(any(Vehicle.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(spotRepository.save(any(ParkingSpot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(freeSpotIndex.claim()).thenReturn(1L);
+        when(freeSpotIndex.sectorOf(1L)).thenReturn("A");
+        when(spotRepository.claimIfFree(1L)).thenReturn(1);
+        when(spotRepository.getReferenceById(1L)).thenReturn(spot1);
+        when(vehicleRepository.save(any(Vehicle.class))).thenAnswer(invocation -> {
+            Vehicle saved = invocation.getArgument(0);
+            saved.setId(100L);
+            return saved;
+        });
+        
+        parkingService.handleEntry(licensePlate, entryTime);
+        
+        assertThat(activeVehicles.find(licensePlate))
+            .isEqualTo(new ActiveVehicleRegistry.ActiveVehicle(100L, 1L, LocalDateTime.of(2025, 1, 20, 10, 0)));
+        verify(garageService).spotOccupied("A");
+        verify(spotRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("✅ Entrada: deve sortear outra vaga quando a ocupação condicional falha")
+    void shouldClaimAnotherSpotWhenConditionalUpdateMisses() {
+        var licensePlate = "ABC1234";
+        var entryTime = "2025-01-20T10:00:00";
+        var spot2 = new ParkingSpot(2L, BigDecimal.valueOf(-23.5506), BigDecimal.valueOf(-46.6334), sectorA);
+        
+        when(garageService.isFull()).thenReturn(false);
+        when(garageService.getOccupancyRate()).thenReturn(50.0);
+        // Vaga 1 ocupada por outro nó entre o sorteio e o UPDATE
+        when(freeSpotIndex.claim()).thenReturn(1L, 2L);
+        when(spotRepository.claimIfFree(1L)).thenReturn(0);
+        when(spotRepository.claimIfFree(2L)).thenReturn(1);
+        when(freeSpotIndex.sectorOf(2L)).thenReturn("A");
+        when(spotRepository.getReferenceById(2L)).thenReturn(spot2);
+        when(vehicleRepository.save(any(Vehicle.class))).thenAnswer(invocation -> {
+            Vehicle saved = invocation.getArgument(0);
+            saved.setId(101L);
+            return saved;
+        });
         
         parkingService.handleEntry(licensePlate, entryTime);
         
-        assertThat(true).as("Entrada processada com sucesso").isTrue();
+        assertThat(activeVehicles.find(licensePlate).spotId()).isEqualTo(2L);
+        verify(freeSpotIndex, never()).release(1L);
     }
 
     @Test
@@ -82,25 +134,36 @@ class ParkingServiceSimpleTest {
         var licensePlate = "ABC1234";
         var entryTime = "2025-01-20T10:00:00";
         
-        var existingVehicle = new Vehicle();
-        existingVehicle.setLicensePlate(licensePlate);
-        when(vehicleRepository.findActiveByLicensePlate(licensePlate)).thenReturn(Optional.of(existingVehicle));
+        activeVehicles.register(licensePlate, new ActiveVehicleRegistry.ActiveVehicle(1L, 1L, LocalDateTime.of(2025, 1, 20, 8, 0)));
         
         assertThatThrownBy(() -> parkingService.handleEntry(licensePlate, entryTime))
             .isInstanceOf(VehicleAlreadyParkedException.class)
             .hasMessageContaining("já está estacionado");
     }
 
+    @Test
+    @DisplayName("❌ Entrada: deve rejeitar quando o índice não tem vagas livres")
+    void shouldRejectEntryWhenIndexIsEmpty() {
+        var licensePlate = "ABC1234";
+        var entryTime = "2025-01-20T10:00:00";
+        
+        when(garageService.isFull()).thenReturn(false);
+        when(garageService.getOccupancyRate()).thenReturn(0.0);
+        when(freeSpotIndex.claim()).thenReturn(-1L);
+        
+        assertThatThrownBy(() -> parkingService.handleEntry(licensePlate, entryTime))
+            .isInstanceOf(ParkingFullException.class);
+    }
+
     @Test
     @DisplayName("❌ Saída: deve rejeitar saída sem entrada")
     void shouldRejectExitWithoutEntry() {
         var licensePlate = "XYZ9999";
         var exitTime = "2025-01-20T12:00:00";
         
-        when(vehicleRepository.findActiveByLicensePlate(licensePlate)).thenReturn(Optional.empty());
-        
         assertThatThrownBy(() -> parkingService.handleExit(licensePlate, exitTime))
             .isInstanceOf(VehicleNotFoundException.class);
+        verify(vehicleRepository, never()).findById(any());
     }
 
     @Test
@@ -110,19 +173,23 @@ class ParkingServiceSimpleTest {
         var exitTime = "2025-01-20T12:00:00";
         
         var vehicle = new Vehicle();
+        vehicle.setId(7L);
         vehicle.setLicensePlate(licensePlate);
         vehicle.setParkingSpot(spot1);
         vehicle.setEntryTime(LocalDateTime.of(2025, 1, 20, 10, 0));
         
-        when(vehicleRepository.findActiveByLicensePlate(licensePlate)).thenReturn(Optional.of(vehicle));
+        activeVehicles.register(licensePlate, new ActiveVehicleRegistry.ActiveVehicle(7L, 1L, vehicle.getEntryTime()));
+        when(vehicleRepository.findById(7L)).thenReturn(Optional.of(vehicle));
         when(garageService.getOccupancyRate()).thenReturn(50.0);
-        lenient().when(pricingService.calculatePrice(any(LocalDateTime.class), any(LocalDateTime.class), any(Double.class), any(BigDecimal.class))).thenReturn(BigDecimal.valueOf(10.50));
+        lenient().when(pricingService.calculatePrice(any(LocalDateTime.class), any(LocalDateTime.class), any(Double.class), any(BigDecimal.class), any())).thenReturn(BigDecimal.valueOf(10.50));
         when(vehicleRepository.save(any(Vehicle.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(spotRepository.save(any(ParkingSpot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(spotRepository.releaseIfOccupied(1L)).thenReturn(1);
         
         parkingService.handleExit(licensePlate, exitTime);
         
-        assertThat(true).as("Saída processada com sucesso").isTrue();
+        verify(freeSpotIndex).release(1L);
+        verify(revenueRollupService).record("A", LocalDate.of(2025, 1, 20), BigDecimal.valueOf(10.50));
+        assertThat(activeVehicles.contains(licensePlate)).isFalse();
     }
 
     @Test
@@ -131,7 +198,7 @@ class ParkingServiceSimpleTest {
         var date = "2025-01-20";
         var sector = "A";
         
-        when(vehicleRepository.calculateRevenueBySectorAndDate(any(String.class), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(BigDecimal.valueOf(50.00));
+        when(revenueRollupService.getRevenue(sector, date)).thenReturn(BigDecimal.valueOf(50.00));
         
         var revenue = parkingService.getRevenue(sector, date);
         
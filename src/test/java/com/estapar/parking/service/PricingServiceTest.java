@@ -1,17 +1,30 @@
 package com.estapar.parking.service;
 
+import com.estapar.parking.dto.PricingRules;
+import com.estapar.parking.dto.PricingTier;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DisplayName("PricingService - Cálculos de Preço")
 class PricingServiceTest {
     
-    private final PricingService pricingService = new PricingService();
+    private final PricingService pricingService = ServiceFixtures.pricingService();
     private final BigDecimal SETOR_A_PRICE = BigDecimal.valueOf(40.50);
     private final BigDecimal SETOR_B_PRICE = BigDecimal.valueOf(4.10);
 
@@ -118,4 +131,163 @@ class PricingServiceTest {
         
         assertThat(price).isEqualByComparingTo(expectedPrice);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Ponto fixo: mesmo resultado (valor e escala) do cálculo em BigDecimal")
+    void shouldMatchBigDecimalCalculationForRandomInputs() {
+        // Propriedade verificada sobre entradas aleatórias com semente fixa,
+        // incluindo frações de segundo, permanências negativas e limites de faixa
+        var random = new Random(20250120L);
+        var start = LocalDateTime.of(2025, 1, 20, 10, 0);
+        double[] tierBoundaries = {0, 25, 25.000001, 50, 50.000001, 75, 75.000001, 100, -1, Double.NaN};
+
+        for (int i = 0; i < 200_000; i++) {
+            var entry = start.plusSeconds(random.nextInt(100_000)).plusNanos(random.nextInt(1_000_000_000));
+            var exit = entry.plusSeconds(random.nextInt(40_000) - 2_000).plusNanos(random.nextInt(1_000_000_000) - 500_000_000);
+            double occupancy = random.nextBoolean()
+                ? tierBoundaries[random.nextInt(tierBoundaries.length)]
+                : random.nextDouble() * 110;
+            var basePrice = switch (random.nextInt(3)) {
+                case 0 -> BigDecimal.valueOf(random.nextInt(100_000), 2);      // centavos
+                case 1 -> BigDecimal.valueOf(random.nextInt(1_000) / 10.0);    // como BigDecimal.valueOf(40.50)
+                default -> BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(5));
+            };
+
+            var expected = originalPrice(entry, exit, occupancy, basePrice);
+            var actual = pricingService.calculatePrice(entry, exit, occupancy, basePrice);
+
+            assertThat(actual)
+                .as("entrada %s, saída %s, lotação %s, preço %s", entry, exit, occupancy, basePrice)
+                .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Ponto fixo: valores fora do alcance de um long usam BigDecimal")
+    void shouldFallBackToBigDecimalForHugePrices() {
+        var entry = LocalDateTime.of(2025, 1, 20, 10, 0);
+        var exit = LocalDateTime.of(2025, 1, 20, 15, 0);
+        var hugePrice = new BigDecimal("12345678901234567890.12");
+
+        var price = pricingService.calculatePrice(entry, exit, 80.0, hugePrice);
+
+        assertThat(price).isEqualTo(originalPrice(entry, exit, 80.0, hugePrice));
+    }
+
+    @Test
+    @DisplayName("Regras por setor: herdam da regra geral os campos não informados")
+    void shouldApplySectorOverrides() {
+        var service = ServiceFixtures.pricingService();
+        var sectorB = new PricingRules(10, null, List.of(new PricingTier(100, new BigDecimal("2.00"))), null);
+        service.updateRules(new PricingRules(null, null, null, Map.of("B", sectorB)));
+        var entry = LocalDateTime.of(2025, 1, 20, 10, 0);
+
+        // Setor B: tolerância de 10 min e primeira hora em dobro
+        assertThat(service.calculatePrice(entry, entry.plusMinutes(20), 20.0, SETOR_B_PRICE, "B"))
+            .isEqualByComparingTo("8.20");
+        // Demais setores: regras padrão
+        assertThat(service.calculatePrice(entry, entry.plusMinutes(20), 20.0, SETOR_B_PRICE, "A"))
+            .isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(service.calculatePrice(entry, entry.plusMinutes(90), 20.0, SETOR_B_PRICE, "A"))
+            .isEqualByComparingTo("7.79");
+    }
+
+    @Test
+    @DisplayName("Teto: horas cobradas limitadas a maxChargedHours")
+    void shouldCapChargedHours() {
+        var service = ServiceFixtures.pricingService();
+        service.updateRules(new PricingRules(null, 3, null, null));
+        var entry = LocalDateTime.of(2025, 1, 20, 10, 0);
+
+        var price = service.calculatePrice(entry, entry.plusHours(10), 40.0, SETOR_B_PRICE);
+
+        // 10 horas de permanência, cobradas 3: 4,10 + 2 * 4,10
+        assertThat(price).isEqualByComparingTo("12.30");
+    }
+
+    @Test
+    @DisplayName("Regras inválidas: rejeitadas, regras em vigor mantidas")
+    void shouldRejectInvalidRules() {
+        var service = ServiceFixtures.pricingService();
+        var unordered = List.of(new PricingTier(50, BigDecimal.ONE), new PricingTier(25, BigDecimal.ONE));
+        var entry = LocalDateTime.of(2025, 1, 20, 10, 0);
+
+        assertThatThrownBy(() -> service.updateRules(new PricingRules(null, null, unordered, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.updateRules(new PricingRules(-1, null, null, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(service.calculatePrice(entry, entry.plusMinutes(60), 80.0, SETOR_B_PRICE))
+            .isEqualByComparingTo("5.125");
+    }
+
+    @Test
+    @DisplayName("Arquivo de regras: alterações aplicadas sem restart")
+    void shouldReloadRulesWhenFileChanges(@TempDir Path dir) throws Exception {
+        var objectMapper = new ObjectMapper();
+        var file = dir.resolve("pricing-rules.json");
+        Files.writeString(file, "{\"toleranceMinutes\": 0}");
+        var service = new PricingService(objectMapper, file.toString());
+        service.loadRules();
+        var entry = LocalDateTime.of(2025, 1, 20, 10, 0);
+
+        assertThat(service.calculatePrice(entry, entry.plusMinutes(10), 40.0, SETOR_B_PRICE))
+            .isEqualByComparingTo("4.10");
+
+        Files.writeString(file, "{\"toleranceMinutes\": 15}");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        service.reloadRulesIfChanged();
+
+        assertThat(service.calculatePrice(entry, entry.plusMinutes(10), 40.0, SETOR_B_PRICE))
+            .isEqualByComparingTo(BigDecimal.ZERO);
+
+        // Arquivo inválido: mantém as regras anteriores
+        Files.writeString(file, "{\"tiers\": []}");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+        service.reloadRulesIfChanged();
+
+        assertThat(service.getRules().getToleranceMinutes()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Atualização pelo endpoint: regras gravadas no arquivo")
+    void shouldPersistUpdatedRules(@TempDir Path dir) throws Exception {
+        var objectMapper = new ObjectMapper();
+        var file = dir.resolve("pricing-rules.json");
+        var service = new PricingService(objectMapper, file.toString());
+
+        service.updateRules(new PricingRules(45, 12, null, null));
+
+        var saved = objectMapper.readValue(file.toFile(), PricingRules.class);
+        assertThat(saved.getToleranceMinutes()).isEqualTo(45);
+        assertThat(saved.getMaxChargedHours()).isEqualTo(12);
+    }
+
+    /**
+     * Cálculo original em BigDecimal, usado como oráculo.
+     */
+    private static BigDecimal originalPrice(LocalDateTime entry, LocalDateTime exit, double occupancy, BigDecimal basePrice) {
+        long totalMinutes = Duration.between(entry, exit).toMinutes();
+        if (totalMinutes <= 30) {
+            return BigDecimal.ZERO;
+        }
+        long totalHours = (totalMinutes + 59) / 60;
+
+        BigDecimal firstHour;
+        if (occupancy <= 25) {
+            firstHour = basePrice.multiply(BigDecimal.valueOf(0.90));
+        } else if (occupancy <= 50) {
+            firstHour = basePrice;
+        } else if (occupancy <= 75) {
+            firstHour = basePrice.multiply(BigDecimal.valueOf(1.10));
+        } else {
+            firstHour = basePrice.multiply(BigDecimal.valueOf(1.25));
+        }
+
+        var additional = BigDecimal.ZERO;
+        if (totalHours > 1) {
+            additional = basePrice.multiply(BigDecimal.valueOf(totalHours - 1));
+        }
+        return firstHour.add(additional);
+    }
+}
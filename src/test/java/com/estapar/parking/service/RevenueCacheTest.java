@@ -0,0 +1,89 @@
+package com.estapar.parking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevenueCacheTest {
+
+    private static final String CLOSED_DAY = "2025-01-20";
+
+    @Test
+    void deveServirConsultasRepetidasDoCache() {
+        var cache = new RevenueCache(100, 60);
+        var loads = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(BigDecimal.TEN, cache.get("A", CLOSED_DAY, day -> {
+                loads.incrementAndGet();
+                return BigDecimal.TEN;
+            }));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(9, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.9, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    void deveInvalidarApenasOSetorEDiaDaSaida() {
+        var cache = new RevenueCache(100, 60);
+        cache.get("A", CLOSED_DAY, day -> BigDecimal.ONE);
+        cache.get("B", CLOSED_DAY, day -> BigDecimal.ONE);
+
+        cache.invalidate("A", LocalDate.parse(CLOSED_DAY));
+
+        assertEquals(BigDecimal.TEN, cache.get("A", CLOSED_DAY, day -> BigDecimal.TEN));
+        assertEquals(BigDecimal.ONE, cache.get("B", CLOSED_DAY, day -> BigDecimal.TEN));
+    }
+
+    @Test
+    void deveExpirarDiaCorrenteMasNaoDiasFechados() {
+        // TTL zero: o dia corrente expira imediatamente
+        var cache = new RevenueCache(100, 0);
+        String today = LocalDate.now().toString();
+
+        cache.get("A", today, day -> BigDecimal.ONE);
+        cache.get("A", CLOSED_DAY, day -> BigDecimal.ONE);
+
+        assertEquals(BigDecimal.TEN, cache.get("A", today, day -> BigDecimal.TEN));
+        assertEquals(BigDecimal.ONE, cache.get("A", CLOSED_DAY, day -> BigDecimal.TEN));
+    }
+
+    @Test
+    void naoDeveArmazenarCargaConcorrenteComInvalidacao() {
+        var cache = new RevenueCache(100, 60);
+
+        // Saída confirmada enquanto a carga lia o valor anterior
+        cache.get("A", CLOSED_DAY, day -> {
+            cache.invalidate("A", day);
+            return BigDecimal.ONE;
+        });
+
+        assertEquals(BigDecimal.TEN, cache.get("A", CLOSED_DAY, day -> BigDecimal.TEN));
+    }
+
+    @Test
+    void deveLimitarQuantidadeDeEntradas() {
+        var cache = new RevenueCache(10, 60);
+
+        for (int i = 1; i <= 11; i++) {
+            cache.get("A", String.format("2025-01-%02d", i), day -> BigDecimal.ONE);
+        }
+
+        assertTrue(cache.size() <= 10, "Entradas: " + cache.size());
+    }
+
+    @Test
+    void deveRejeitarDataInvalida() {
+        var cache = new RevenueCache(10_000, 60);
+
+        assertThrows(java.time.format.DateTimeParseException.class,
+            () -> cache.get("A", "20-01-2025", day -> BigDecimal.ONE));
+    }
+}
@@ -0,0 +1,157 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.entity.RevenueRollup;
+import com.estapar.parking.repository.RevenueRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RevenueRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 20);
+
+    private RevenueRollupRepository repository;
+    private RevenueRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RevenueRollupRepository.class);
+        when(repository.findBySectorNameAndRevenueDate(any(), any())).thenReturn(Optional.empty());
+        service = new RevenueRollupService(repository, new RevenueCache(10_000, 60), mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deveRecalcularTabelaVaziaNaInicializacao() {
+        when(repository.count()).thenReturn(0L);
+
+        service.load();
+
+        verify(repository).deleteAllRollups();
+        verify(repository, never()).rebuildFromVehicles(any(), any());
+    }
+
+    @Test
+    void deveRecalcularCadaDiaPelaFaixaDeSaida() {
+        when(repository.findFirstExitTime()).thenReturn(DAY.atTime(23, 50));
+        when(repository.findLastExitTime()).thenReturn(DAY.plusDays(1).atTime(0, 10));
+        when(repository.rebuildFromVehicles(any(), any())).thenReturn(2);
+
+        assertEquals(4, service.rebuild());
+
+        verify(repository).rebuildFromVehicles(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        verify(repository).rebuildFromVehicles(DAY.plusDays(1).atStartOfDay(), DAY.plusDays(2).atStartOfDay());
+        verify(repository, times(2)).rebuildFromVehicles(any(), any());
+    }
+
+    @Test
+    void naoDeveRecalcularTabelaPreenchida() {
+        when(repository.count()).thenReturn(1L);
+
+        service.load();
+
+        verify(repository, never()).deleteAllRollups();
+    }
+
+    @Test
+    void deveLerReceitaDoRegistroDoSetorEDia() {
+        when(repository.findBySectorNameAndRevenueDate("A", DAY)).thenReturn(Optional.of(rollup("A", DAY, "125.50")));
+
+        assertEquals(new BigDecimal("125.50"), service.getRevenue("A", "2025-01-20"));
+        assertEquals(BigDecimal.ZERO, service.getRevenue("B", "2025-01-20"));
+    }
+
+    @Test
+    void deveInvalidarCacheSomenteAposCommit() {
+        when(repository.findBySectorNameAndRevenueDate("A", DAY)).thenReturn(Optional.of(rollup("A", DAY, "10.00")));
+        assertEquals(new BigDecimal("10.00"), service.getRevenue("A", "2025-01-20"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.record("A", DAY, new BigDecimal("5.50"));
+        verify(repository).addRevenue("A", DAY, new BigDecimal("5.50"));
+        when(repository.findBySectorNameAndRevenueDate("A", DAY)).thenReturn(Optional.of(rollup("A", DAY, "15.50")));
+
+        // Antes do commit o valor em cache continua válido
+        assertEquals(new BigDecimal("10.00"), service.getRevenue("A", "2025-01-20"));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(new BigDecimal("15.50"), service.getRevenue("A", "2025-01-20"));
+    }
+
+    @Test
+    void deveEsvaziarCacheAposRebuild() {
+        when(repository.findBySectorNameAndRevenueDate("A", DAY)).thenReturn(Optional.of(rollup("A", DAY, "10.00")));
+        service.getRevenue("A", "2025-01-20");
+        when(repository.findBySectorNameAndRevenueDate("A", DAY)).thenReturn(Optional.of(rollup("A", DAY, "12.00")));
+        when(repository.findFirstExitTime()).thenReturn(DAY.atTime(10, 0));
+        when(repository.findLastExitTime()).thenReturn(DAY.atTime(18, 0));
+        when(repository.rebuildFromVehicles(any(), any())).thenReturn(1);
+
+        assertEquals(1, service.rebuild());
+        assertEquals(new BigDecimal("12.00"), service.getRevenue("A", "2025-01-20"));
+    }
+
+    @Test
+    void deveRebuildAguardarSaidaEmAndamento() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        service.record("A", DAY, new BigDecimal("10.00"));
+
+        var rebuild = CompletableFuture.supplyAsync(service::rebuild);
+        assertThrows(TimeoutException.class, () -> rebuild.get(200, TimeUnit.MILLISECONDS));
+        verify(repository, never()).deleteAllRollups();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        rebuild.get(5, TimeUnit.SECONDS);
+        verify(repository).deleteAllRollups();
+    }
+
+    @Test
+    void deveLiberarLockDaSaidaEmRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.record("A", DAY, new BigDecimal("10.00"));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // O lock de leitura foi liberado: o rebuild não bloqueia
+        assertEquals(0, service.rebuild());
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(s -> s.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static RevenueRollup rollup(String sector, LocalDate date, String amount) {
+        var rollup = new RevenueRollup();
+        rollup.setSectorName(sector);
+        rollup.setRevenueDate(date);
+        rollup.setAmount(new BigDecimal(amount));
+        return rollup;
+    }
+}
@@ -0,0 +1,117 @@
+package com.estapar.parking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Colaboradores reais com a configuração padrão do application.yml, para
+ * testes e benchmarks que criam os serviços fora do Spring.
+ */
+public final class ServiceFixtures {
+
+    private ServiceFixtures() {
+    }
+
+    public static ParkingMetrics metrics() {
+        return new ParkingMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * DLQ apenas em memória.
+     */
+    public static DeadLetterQueue deadLetterQueue() {
+        return new DeadLetterQueue(false, "data/dlq", 10_000, 10_000, 5, 1000, 60_000, new ObjectMapper());
+    }
+
+    /**
+     * Serviço com as regras padrão, sem arquivo de regras.
+     */
+    public static PricingService pricingService() {
+        return new PricingService(new ObjectMapper(), "");
+    }
+
+    public static RevenueCache revenueCache() {
+        return new RevenueCache(10_000, 60);
+    }
+
+    public static EventQueueBuilder eventQueue(ParkingService parkingService) {
+        return new EventQueueBuilder(parkingService);
+    }
+
+    /**
+     * Monta um {@link EventQueueService}: um consumidor de plataforma,
+     * capacidade 1000, sem lotes, sem write-ahead log e DLQ em memória.
+     */
+    public static final class EventQueueBuilder {
+
+        private final ParkingService parkingService;
+        private TransactionTemplate transactionTemplate;
+        private EventWriteAheadLog writeAheadLog;
+        private DeadLetterQueue deadLetterQueue;
+        private ParkingMetrics metrics;
+        private int consumers = 1;
+        private int capacity = 1000;
+        private String threadMode = "platform";
+        private int batchSize = 1;
+        private long batchWaitMillis;
+        private String waitStrategy = "blocking";
+
+        private EventQueueBuilder(ParkingService parkingService) {
+            this.parkingService = parkingService;
+        }
+
+        public EventQueueBuilder transactionTemplate(TransactionTemplate transactionTemplate) {
+            this.transactionTemplate = transactionTemplate;
+            return this;
+        }
+
+        public EventQueueBuilder writeAheadLog(EventWriteAheadLog writeAheadLog) {
+            this.writeAheadLog = writeAheadLog;
+            return this;
+        }
+
+        public EventQueueBuilder deadLetterQueue(DeadLetterQueue deadLetterQueue) {
+            this.deadLetterQueue = deadLetterQueue;
+            return this;
+        }
+
+        public EventQueueBuilder metrics(ParkingMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public EventQueueBuilder consumers(int consumers) {
+            this.consumers = consumers;
+            return this;
+        }
+
+        public EventQueueBuilder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public EventQueueBuilder threadMode(String threadMode) {
+            this.threadMode = threadMode;
+            return this;
+        }
+
+        public EventQueueBuilder batch(int batchSize, long batchWaitMillis) {
+            this.batchSize = batchSize;
+            this.batchWaitMillis = batchWaitMillis;
+            return this;
+        }
+
+        public EventQueueBuilder waitStrategy(String waitStrategy) {
+            this.waitStrategy = waitStrategy;
+            return this;
+        }
+
+        public EventQueueService build() {
+            return new EventQueueService(parkingService, transactionTemplate, writeAheadLog,
+                deadLetterQueue != null ? deadLetterQueue : ServiceFixtures.deadLetterQueue(),
+                metrics != null ? metrics : ServiceFixtures.metrics(),
+                consumers, capacity, threadMode, batchSize, batchWaitMillis, waitStrategy);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.BatchResponse;
+import com.estapar.parking.service.AdmissionControl.Decision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WebhookBatchServiceTest {
+
+    private EventQueueService eventQueueService;
+    private AdmissionControl admissionControl;
+
+    @BeforeEach
+    void setUp() {
+        eventQueueService = mock(EventQueueService.class);
+        admissionControl = mock(AdmissionControl.class);
+        when(admissionControl.admit(any(), any())).thenReturn(Decision.admit());
+        when(eventQueueService.enqueueAll(anyList())).thenAnswer(invocation -> {
+            List<?> events = invocation.getArgument(0);
+            var accepted = new boolean[events.size()];
+            Arrays.fill(accepted, true);
+            return accepted;
+        });
+    }
+
+    @Test
+    void deveAceitarLinhasValidasERecusarInvalidasIndividualmente() throws IOException {
+        var body = """
+            {"license_plate":"ABC1234","entry_time":"2025-01-20T10:00:00","event_type":"ENTRY"}
+            {"license_plate":"invalida","entry_time":"2025-01-20T10:00:00","event_type":"ENTRY"}
+            {"license_plate":"XYZ9876","exit_time":"2025-01-20T12:00:00","event_type":"EXIT"}
+            """;
+
+        BatchResponse response = service(500).ingest(stream(body), "cancela-1");
+
+        assertEquals(2, response.getAccepted());
+        assertEquals(1, response.getRejected());
+        assertEquals(List.of(202, 400, 202), response.getResults().stream().map(r -> r.getStatus()).toList());
+        assertEquals(2, response.getResults().get(1).getLine());
+        assertEquals("Invalid license plate format", response.getResults().get(1).getError());
+        verify(eventQueueService, times(1)).enqueueAll(anyList());
+    }
+
+    @Test
+    void deveInterromperLeituraEmJsonMalformado() throws IOException {
+        var body = """
+            {"license_plate":"ABC1234","entry_time":"2025-01-20T10:00:00","event_type":"ENTRY"}
+            {"license_plate":"ABC5678",
+            """;
+
+        BatchResponse response = service(500).ingest(stream(body), "cancela-1");
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(1, response.getRejected());
+        assertEquals(400, response.getResults().get(1).getStatus());
+    }
+
+    @Test
+    void deveEnfileirarEmBlocos() throws IOException {
+        var body = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            body.append(String.format(
+                "{\"license_plate\":\"ABC100%d\",\"entry_time\":\"2025-01-20T10:00:00\",\"event_type\":\"ENTRY\"}%n", i));
+        }
+
+        BatchResponse response = service(2).ingest(stream(body.toString()), "cancela-1");
+
+        assertEquals(5, response.getAccepted());
+        verify(eventQueueService, times(3)).enqueueAll(anyList());
+    }
+
+    @Test
+    void deveRecusarComRetryAfterQuandoFilaRecusa() throws IOException {
+        when(admissionControl.admit(any(), eq("XYZ9876"))).thenReturn(
+            new Decision(false, HttpStatus.TOO_MANY_REQUESTS, 4, "Fila acima da marca baixa"));
+        when(eventQueueService.enqueueAll(anyList())).thenReturn(new boolean[] {false});
+        when(admissionControl.retryAfterSeconds("ABC1234")).thenReturn(7L);
+        var body = """
+            {"license_plate":"ABC1234","entry_time":"2025-01-20T10:00:00","event_type":"ENTRY"}
+            {"license_plate":"XYZ9876","entry_time":"2025-01-20T10:00:00","event_type":"ENTRY"}
+            """;
+
+        BatchResponse response = service(500).ingest(stream(body), "cancela-1");
+
+        assertEquals(0, response.getAccepted());
+        assertEquals(List.of(503, 429), response.getResults().stream().map(r -> r.getStatus()).toList());
+        assertEquals(7, response.getRetryAfterSeconds());
+    }
+
+    private WebhookBatchService service(int chunkSize) {
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        return new WebhookBatchService(eventQueueService, admissionControl, validator, new ObjectMapper(),
+            chunkSize, 10_000);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}